@@ -15,6 +15,13 @@ interface ApiService {
     @GET("products/{id}")
     suspend fun getProductById(@Path("id") id: String): Response<ProductApiResponse>
     
+    // Sincronización incremental: sin since entrega el catálogo completo
+    @GET("products/changes")
+    suspend fun getProductChanges(
+        @Query("since") since: String?,
+        @Query("limit") limit: Int
+    ): Response<ApiEnvelope<ProductChangesApiResponse>>
+    
     // Usuarios
     @POST("auth/register")
     suspend fun registerUser(@Body user: RegisterRequest): Response<AuthResponse>
@@ -64,6 +71,14 @@ interface ApiService {
 }
 
 // Nuestros DTOs
+
+// Envoltorio ApiResponse del backend: { success, message, data }
+data class ApiEnvelope<T>(
+    val success: Boolean,
+    val message: String?,
+    val data: T?
+)
+
 data class ProductApiResponse(
     val id: String,
     val name: String,
@@ -73,7 +88,20 @@ data class ProductApiResponse(
     val category: String,
     val imageUrl: String,
     val origin: String?,
-    val isOrganic: Boolean
+    val isOrganic: Boolean,
+    val oldPrice: Double? = null,
+    val tag: String? = null,
+    val unit: String? = null,
+    val certifications: String? = null,
+    val sustainablePractices: String? = null
+)
+
+data class ProductChangesApiResponse(
+    val upserts: List<ProductApiResponse>,
+    val deletedIds: List<String>,
+    val nextToken: String,
+    val hasMore: Boolean,
+    val reset: Boolean
 )
 
 data class RegisterRequest(
@@ -4,6 +4,7 @@ import android.content.Context
 import androidx.room.Database
 import androidx.room.Room
 import androidx.room.RoomDatabase
+import androidx.room.migration.Migration
 import androidx.sqlite.db.SupportSQLiteDatabase
 import com.huertohogar.data.model.*
 import com.huertohogar.data.repository.HomeRepository
@@ -22,9 +23,10 @@ import kotlinx.coroutines.launch
         OrderItem::class,
         Review::class,
         BlogPost::class,
-        StoreLocation::class
+        StoreLocation::class,
+        SyncState::class
     ],
-    version = 3, // Incrementamos para agregar campos isActive y role
+    version = 4, // Tabla sync_state para la sincronización incremental de productos
     exportSchema = false
 )
 abstract class AppDatabase : RoomDatabase() {
@@ -46,6 +48,15 @@ abstract class AppDatabase : RoomDatabase() {
         
         private val databaseScope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
 
+        // De la versión 3 a la 4 solo se agrega sync_state: el carrito y los pedidos locales se conservan
+        private val MIGRATION_3_4 = object : Migration(3, 4) {
+            override fun migrate(db: SupportSQLiteDatabase) {
+                db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `sync_state` (`name` TEXT NOT NULL, `token` TEXT NOT NULL, PRIMARY KEY(`name`))"
+                )
+            }
+        }
+
         fun getDatabase(context: Context): AppDatabase {
             return INSTANCE ?: synchronized(this) {
                 val instance = Room.databaseBuilder(
@@ -53,6 +64,7 @@ abstract class AppDatabase : RoomDatabase() {
                     AppDatabase::class.java,
                     "huertohogar_database"
                 )
+                    .addMigrations(MIGRATION_3_4)
                     .fallbackToDestructiveMigration() // esta linea de codigo es util en desarrollo
                     .addCallback(DatabaseCallback(context))
                     .build()
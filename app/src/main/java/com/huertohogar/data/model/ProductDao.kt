@@ -5,6 +5,7 @@ import androidx.room.Delete
 import androidx.room.Insert
 import androidx.room.OnConflictStrategy
 import androidx.room.Query
+import androidx.room.Transaction
 import androidx.room.Update
 import kotlinx.coroutines.flow.Flow
 
@@ -42,4 +43,34 @@ interface ProductDao {
     
     @Query("DELETE FROM products WHERE id = :productId")
     suspend fun deleteById(productId: String)
+    
+    @Query("DELETE FROM products WHERE id IN (:productIds)")
+    suspend fun deleteByIds(productIds: List<String>)
+    
+    @Query("DELETE FROM products")
+    suspend fun deleteAll()
+    
+    @Query("SELECT token FROM sync_state WHERE name = :name")
+    suspend fun getSyncToken(name: String = SYNC_NAME): String?
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    suspend fun saveSyncState(state: SyncState)
+    
+    // Aplica un delta del servidor y guarda su token de una vez: si algo falla, no queda
+    // ni el catálogo a medias ni un token que salte cambios sin aplicar
+    @Transaction
+    suspend fun applyChanges(reset: Boolean, upserts: List<Product>, deletedIds: List<String>, token: String) {
+        if (reset) {
+            deleteAll()
+        }
+        // Un IN por cada DELETE_CHUNK_SIZE ids: SQLite antes de 3.32 (API 24 a 29) acepta 999 variables
+        deletedIds.chunked(DELETE_CHUNK_SIZE).forEach { deleteByIds(it) }
+        insertAll(upserts)
+        saveSyncState(SyncState(SYNC_NAME, token))
+    }
+    
+    companion object {
+        const val SYNC_NAME = "products"
+        const val DELETE_CHUNK_SIZE = 500
+    }
 }
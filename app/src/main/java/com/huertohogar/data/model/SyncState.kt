@@ -0,0 +1,15 @@
+package com.huertohogar.data.model
+
+import androidx.room.Entity
+import androidx.room.PrimaryKey
+
+/**
+ * Token de la última sincronización incremental de una colección (por ejemplo "products").
+ * Se guarda en Room, en la misma transacción que los cambios que representa
+ */
+@Entity(tableName = "sync_state")
+data class SyncState(
+    @PrimaryKey
+    val name: String,
+    val token: String
+)
@@ -5,6 +5,7 @@ import com.huertohogar.data.api.ProductApiResponse
 import com.huertohogar.data.model.Product
 import com.huertohogar.data.model.ProductCategory
 import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.emitAll
 import kotlinx.coroutines.flow.flow
 
 /**
@@ -16,26 +17,50 @@ class ApiProductRepository(
     private val localRepository: ProductRepository
 ) {
     
+    companion object {
+        private const val SYNC_PAGE_SIZE = 500
+    }
+    
     suspend fun getProducts(): Flow<List<Product>> = flow {
         if (ApiClient.isApiAvailable()) {
             try {
-                val response = ApiClient.apiService.getProducts()
-                if (response.isSuccessful && response.body() != null) {
-                    val apiProducts = response.body()!!
-                    val products = apiProducts.map { it.toProduct() }
-                    emit(products)
-                } else {
-                    // esta haciendo un fallback a los datos locales
-                    localRepository.getAllProducts().collect { emit(it) }
-                }
+                syncProducts()
             } catch (e: Exception) {
-                // Fallback a los datos locales en caso de error
-                localRepository.getAllProducts().collect { emit(it) }
+                // Sin red seguimos con lo que ya hay en Room; la próxima sincronización retoma desde el último token
             }
-        } else {
-            // Uso de los datos locales
-            localRepository.getAllProducts().collect { emit(it) }
         }
+        emitAll(localRepository.getAllProducts())
+    }
+    
+    /**
+     * Trae del backend solo lo que cambió desde el último token guardado y lo aplica a Room.
+     * Todas las páginas se aplican juntas en una transacción, así un corte a mitad no deja
+     * un catálogo mezclado ni avanza el token
+     */
+    suspend fun syncProducts() {
+        val upserts = mutableListOf<Product>()
+        val deletedIds = mutableListOf<String>()
+        var since = localRepository.getSyncToken()
+        var reset = false
+        var first = true
+        do {
+            val response = ApiClient.apiService.getProductChanges(since, SYNC_PAGE_SIZE)
+            val changes = response.body()?.data
+            if (!response.isSuccessful || changes == null) {
+                throw IllegalStateException("No se pudo sincronizar productos: ${response.code()}")
+            }
+            if (first) {
+                reset = changes.reset
+                first = false
+            }
+            // Un id puede venir actualizado y luego eliminado (o al revés); gana el último
+            changes.upserts.forEach { product -> deletedIds.remove(product.id) }
+            upserts.removeAll { product -> product.id in changes.deletedIds }
+            upserts.addAll(changes.upserts.map { it.toProduct() })
+            deletedIds.addAll(changes.deletedIds)
+            since = changes.nextToken
+        } while (changes.hasMore)
+        localRepository.applyChanges(reset, upserts, deletedIds, since!!)
     }
     
     suspend fun getProductById(productId: String): Product? {
@@ -60,7 +85,7 @@ private fun ProductApiResponse.toProduct(): Product {
         name = name,
         description = description,
         price = price,
-        oldPrice = null,
+        oldPrice = oldPrice,
         stock = stock,
         category = when (category) {
             "FRUTAS_FRESCAS" -> ProductCategory.FRUTAS_FRESCAS
@@ -70,11 +95,11 @@ private fun ProductApiResponse.toProduct(): Product {
             else -> ProductCategory.FRUTAS_FRESCAS
         },
         imageUrlName = imageUrl,
-        tag = if (isOrganic) "Orgánico" else "Frescos",
+        tag = tag ?: if (isOrganic) "Orgánico" else "Frescos",
         origin = origin ?: "",
-        unit = "kg",
+        unit = unit ?: "kg",
         isOrganic = isOrganic,
-        certifications = if (isOrganic) "Certificación Orgánica" else "",
-        sustainablePractices = ""
+        certifications = certifications ?: if (isOrganic) "Certificación Orgánica" else "",
+        sustainablePractices = sustainablePractices ?: ""
     )
 }
@@ -44,4 +44,12 @@ class ProductRepository(
     suspend fun deleteProduct(productId: String) {
         productDao.deleteById(productId)
     }
+    
+    suspend fun getSyncToken(): String? {
+        return productDao.getSyncToken()
+    }
+    
+    suspend fun applyChanges(reset: Boolean, upserts: List<Product>, deletedIds: List<String>, token: String) {
+        productDao.applyChanges(reset, upserts, deletedIds, token)
+    }
 }
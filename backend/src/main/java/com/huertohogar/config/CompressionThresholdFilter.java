@@ -0,0 +1,110 @@
+package com.huertohogar.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Tomcat solo respeta server.compression.min-response-size cuando conoce el largo de la respuesta, y lo conoce
+// si el cuerpo completo sigue en su buffer al cerrar. Spring MVC hace flush al terminar de escribir, así que
+// toda respuesta salía en chunks sin largo y se comprimía aunque fuera chica.
+// Para los tipos comprimibles el filtro ignora esos flush; SSE y NDJSON siguen enviando de inmediato
+@RequiredArgsConstructor
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+    
+    private final String[] compressibleMimeTypes;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        filterChain.doFilter(request, new DeferredFlushResponse(response));
+    }
+    
+    private final class DeferredFlushResponse extends HttpServletResponseWrapper {
+        
+        private ServletOutputStream outputStream;
+        
+        private DeferredFlushResponse(HttpServletResponse response) {
+            super(response);
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new DeferredFlushOutputStream(this, super.getOutputStream());
+            }
+            return outputStream;
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            if (!isCompressible()) {
+                super.flushBuffer();
+            }
+        }
+        
+        // Lo que no cabe en el buffer de Tomcat se envía igual al llenarse, ya sin largo conocido
+        private boolean isCompressible() {
+            String contentType = getContentType();
+            if (contentType == null) {
+                return false;
+            }
+            for (String mimeType : compressibleMimeTypes) {
+                if (contentType.startsWith(mimeType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    private static final class DeferredFlushOutputStream extends ServletOutputStream {
+        
+        private final DeferredFlushResponse response;
+        private final ServletOutputStream delegate;
+        
+        private DeferredFlushOutputStream(DeferredFlushResponse response, ServletOutputStream delegate) {
+            this.response = response;
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            if (!response.isCompressible()) {
+                delegate.flush();
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+        
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+        
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -4,18 +4,24 @@ import com.huertohogar.model.entity.Product;
 import com.huertohogar.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Arrays;
 import java.util.List;
 
+// Catálogo de ejemplo; con el perfil "synthetic" lo reemplaza SyntheticDataGenerator
 @Component
+@Profile("!synthetic")
 @RequiredArgsConstructor
 public class DataInitializer implements CommandLineRunner {
     
     private final ProductRepository productRepository;
     
+    // Una sola transacción de escritura: con réplica de lectura, el conteo debe ver la primaria
     @Override
+    @Transactional
     public void run(String... args) {
         if (productRepository.count() == 0) {
             List<Product> initialProducts = Arrays.asList(
@@ -0,0 +1,175 @@
+package com.huertohogar.config;
+
+import com.huertohogar.security.AuthenticatedUser;
+import com.huertohogar.service.IdempotencyStore;
+import com.huertohogar.service.IdempotencyStore.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Header Idempotency-Key en POST /orders y POST /payments/process: el primer intento se ejecuta
+// y se guardan sus bytes de respuesta; los reintentos reciben esos mismos bytes sin pasar por el controlador
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+    
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> IDEMPOTENT_PATHS = Set.of("/orders", "/payments/process");
+    
+    private final IdempotencyStore idempotencyStore;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || !IDEMPOTENT_PATHS.contains(request.getServletPath())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            write(response, StoredResponse.of(HttpStatus.BAD_REQUEST.value(), MediaType.APPLICATION_JSON_VALUE,
+                    ("{\"success\":false,\"message\":\"" + IDEMPOTENCY_KEY_HEADER + " debe tener entre 1 y "
+                            + MAX_KEY_LENGTH + " caracteres\",\"data\":null}").getBytes(StandardCharsets.UTF_8)));
+            return;
+        }
+        
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String id = sha256((caller() + "\n" + request.getServletPath() + "\n" + key).getBytes(StandardCharsets.UTF_8));
+        ContentCachingResponseWrapper capturing = new ContentCachingResponseWrapper(response);
+        AtomicBoolean executed = new AtomicBoolean();
+        
+        StoredResponse stored;
+        try {
+            stored = idempotencyStore.execute(id, sha256(body), () -> {
+                executed.set(true);
+                filterChain.doFilter(new CachedBodyRequest(request, body), capturing);
+                return StoredResponse.of(capturing.getStatus(), capturing.getContentType(),
+                        capturing.getHeader(HttpHeaders.LOCATION), capturing.getHeader(PREFERENCE_APPLIED_HEADER),
+                        capturing.getContentAsByteArray());
+            });
+        } catch (ServletException | IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        } finally {
+            if (executed.get()) {
+                capturing.copyBodyToResponse();
+            }
+        }
+        
+        if (!executed.get()) {
+            response.setHeader(REPLAYED_HEADER, "true");
+            write(response, stored);
+        }
+    }
+    
+    private void write(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        if (stored.getLocation() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.getLocation());
+        }
+        if (stored.getPreferenceApplied() != null) {
+            response.setHeader(PREFERENCE_APPLIED_HEADER, stored.getPreferenceApplied());
+        }
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+    
+    // Las claves son por usuario: dos clientes pueden generar la misma sin pisarse
+    private String caller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return "";
+        }
+        return authentication.getPrincipal() instanceof AuthenticatedUser user ? user.getEmail() : authentication.getName();
+    }
+    
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    // El cuerpo ya se leyó para calcular su hash; el controlador lo vuelve a leer desde memoria
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        
+        private final byte[] body;
+        
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+                
+                @Override
+                public int read() {
+                    return input.read();
+                }
+                
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.huertohogar.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Spring Boot ya mide los endpoints (http.server.requests), los repositorios
+// (spring.data.repository.invocations) y el pool de conexiones (hikaricp.*); aquí se suman los servicios
+@Configuration
+public class MetricsConfig {
+    
+    @Bean
+    @ConditionalOnProperty(name = "metrics.services.enabled", havingValue = "true", matchIfMissing = true)
+    public ServiceMetricsAspect serviceMetricsAspect(MeterRegistry meterRegistry) {
+        return new ServiceMetricsAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,284 @@
+package com.huertohogar.config;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Obtiene el SQL de cada método de consulta de los repositorios (derivado o @Query) invocándolo con
+// argumentos de ejemplo, sin ejecutarlo, y revisa su plan con EXPLAIN. Un recorrido completo de tabla
+// en una consulta con WHERE se reporta salvo que esté en schema.plan-check.allowed-scans
+@Slf4j
+public class QueryPlanCheck {
+    
+    private static final Pattern WHERE = Pattern.compile("\\bwhere\\b", Pattern.CASE_INSENSITIVE);
+    private static final String SAMPLE_VALUE = "0";
+    private static final int SAMPLE_LIMIT = 20;
+    
+    private final ApplicationContext context;
+    private final SqlCapture capture;
+    private final Set<String> allowedScans;
+    
+    public QueryPlanCheck(ApplicationContext context, SqlCapture capture, Set<String> allowedScans) {
+        this.context = context;
+        this.capture = capture;
+        this.allowedScans = allowedScans;
+    }
+    
+    public record Finding(String method, String sql, List<String> scannedTables, boolean expected) {
+        
+        public boolean unexpectedScan() {
+            return !scannedTables.isEmpty() && !expected;
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkOnStartup() {
+        check();
+    }
+    
+    public List<Finding> check() {
+        DataSource dataSource = context.getBean(DataSource.class);
+        Dialect dialect = Dialect.of(dataSource);
+        if (dialect == null) {
+            log.info("Revisión de planes omitida: base de datos sin soporte");
+            return List.of();
+        }
+        
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        Repositories repositories = new Repositories(context);
+        
+        List<Finding> findings = new ArrayList<>();
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+            for (Method method : information.getQueryMethods()) {
+                if (AnnotatedElementUtils.hasAnnotation(method, Modifying.class)) {
+                    continue;
+                }
+                String name = information.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                try {
+                    String sql = captureSql(repository, method, entityManager, transaction);
+                    List<String> scanned = dialect.scannedTables(dataSource, sql);
+                    boolean expected = !WHERE.matcher(sql).find() || allowedScans.contains(name);
+                    findings.add(new Finding(name, sql, scanned, expected));
+                } catch (RuntimeException | SQLException e) {
+                    log.warn("No se pudo revisar el plan de {}: {}", name, e.getMessage());
+                }
+            }
+        }
+        findings.sort(Comparator.comparing(Finding::method));
+        
+        for (Finding finding : findings) {
+            if (finding.unexpectedScan()) {
+                log.warn("Recorrido completo de {} en {}: {}", finding.scannedTables(), finding.method(), finding.sql());
+            } else if (!finding.scannedTables().isEmpty()) {
+                log.debug("Recorrido completo esperado de {} en {}", finding.scannedTables(), finding.method());
+            }
+        }
+        log.info("Planes de consulta revisados: {} métodos, {} con recorridos completos inesperados",
+                findings.size(), findings.stream().filter(Finding::unexpectedScan).count());
+        return findings;
+    }
+    
+    // La invocación se corta al preparar la primera sentencia: no se ejecuta ni toma bloqueos
+    private String captureSql(Object repository, Method method, EntityManager entityManager,
+                              TransactionTemplate transaction) {
+        return transaction.execute(status -> {
+            status.setRollbackOnly();
+            Object[] arguments = sampleArguments(method, entityManager);
+            capture.start();
+            try {
+                // Un Stream ejecuta la consulta recién al recorrerlo
+                if (method.invoke(repository, arguments) instanceof Stream<?> stream) {
+                    try (stream) {
+                        stream.findFirst();
+                    }
+                }
+            } catch (Exception e) {
+                for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                    if (cause instanceof CapturedSql captured) {
+                        return captured.getMessage();
+                    }
+                }
+                throw new RuntimeException("La consulta falló: " + e, e);
+            } finally {
+                capture.stop();
+            }
+            throw new RuntimeException("El método no emitió SQL");
+        });
+    }
+    
+    private static Object[] sampleArguments(Method method, EntityManager entityManager) {
+        Object[] arguments = new Object[method.getParameterCount()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = sampleValue(ResolvableType.forMethodParameter(method, i), entityManager);
+        }
+        return arguments;
+    }
+    
+    private static Object sampleValue(ResolvableType type, EntityManager entityManager) {
+        Class<?> raw = ClassUtils.resolvePrimitiveIfNecessary(type.toClass());
+        if (raw == String.class) {
+            return SAMPLE_VALUE;
+        } else if (raw == Long.class) {
+            return 0L;
+        } else if (raw == Integer.class) {
+            return 0;
+        } else if (raw == Double.class) {
+            return 0.0;
+        } else if (raw == Boolean.class) {
+            return false;
+        } else if (raw == LocalDateTime.class) {
+            return LocalDateTime.now();
+        } else if (raw == LocalDate.class) {
+            return LocalDate.now();
+        } else if (raw.isEnum()) {
+            return raw.getEnumConstants()[0];
+        } else if (Collection.class.isAssignableFrom(raw)) {
+            return List.of(sampleValue(type.asCollection().getGeneric(0), entityManager));
+        } else if (raw == Limit.class) {
+            return Limit.of(SAMPLE_LIMIT);
+        } else if (raw == Pageable.class) {
+            return PageRequest.of(0, SAMPLE_LIMIT);
+        } else if (raw == Sort.class) {
+            return Sort.unsorted();
+        } else if (raw.isAnnotationPresent(Entity.class)) {
+            Class<?> idType = entityManager.getMetamodel().entity(raw).getIdType().getJavaType();
+            return entityManager.getReference(raw, sampleValue(ResolvableType.forClass(idType), entityManager));
+        }
+        throw new RuntimeException("Sin valor de ejemplo para parámetros " + raw.getSimpleName());
+    }
+    
+    enum Dialect {
+        H2("EXPLAIN ", Pattern.compile("/\\* PUBLIC\\.(\\w+)\\.tableScan", Pattern.CASE_INSENSITIVE)),
+        // GENERIC_PLAN (PostgreSQL 16+) acepta parámetros $n sin valor
+        POSTGRESQL("EXPLAIN (GENERIC_PLAN) ", Pattern.compile("Seq Scan on (\\w+)"));
+        
+        private final String explain;
+        private final Pattern scan;
+        
+        Dialect(String explain, Pattern scan) {
+            this.explain = explain;
+            this.scan = scan;
+        }
+        
+        static Dialect of(DataSource dataSource) {
+            try (Connection connection = dataSource.getConnection()) {
+                String product = connection.getMetaData().getDatabaseProductName();
+                return switch (product) {
+                    case "H2" -> H2;
+                    case "PostgreSQL" -> POSTGRESQL;
+                    default -> null;
+                };
+            } catch (SQLException e) {
+                throw new RuntimeException("No se pudo identificar la base de datos", e);
+            }
+        }
+        
+        List<String> scannedTables(DataSource dataSource, String sql) throws SQLException {
+            String statement = explain + (this == POSTGRESQL ? numberParameters(sql) : sql);
+            StringBuilder plan = new StringBuilder();
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement explainStatement = connection.prepareStatement(statement);
+                 ResultSet rows = explainStatement.executeQuery()) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            }
+            List<String> tables = new ArrayList<>();
+            Matcher matcher = scan.matcher(plan);
+            while (matcher.find()) {
+                String table = matcher.group(1).toLowerCase(Locale.ROOT);
+                if (!tables.contains(table)) {
+                    tables.add(table);
+                }
+            }
+            return tables;
+        }
+        
+        // ? -> $1, $2...; los literales entre comillas se copian tal cual
+        private static String numberParameters(String sql) {
+            StringBuilder numbered = new StringBuilder(sql.length() + 16);
+            boolean quoted = false;
+            int parameter = 0;
+            for (char c : sql.toCharArray()) {
+                if (c == '\'') {
+                    quoted = !quoted;
+                }
+                if (c == '?' && !quoted) {
+                    numbered.append('$').append(++parameter);
+                } else {
+                    numbered.append(c);
+                }
+            }
+            return numbered.toString();
+        }
+    }
+    
+    // Inspector de Hibernate: mientras el hilo captura, aborta la sentencia llevando su SQL
+    static class SqlCapture implements StatementInspector {
+        
+        private final ThreadLocal<Boolean> capturing = ThreadLocal.withInitial(() -> false);
+        
+        void start() {
+            capturing.set(true);
+        }
+        
+        void stop() {
+            capturing.remove();
+        }
+        
+        @Override
+        public String inspect(String sql) {
+            if (capturing.get()) {
+                throw new CapturedSql(sql);
+            }
+            return sql;
+        }
+    }
+    
+    private static class CapturedSql extends RuntimeException {
+        
+        CapturedSql(String sql) {
+            super(sql, null, false, false);
+        }
+    }
+}
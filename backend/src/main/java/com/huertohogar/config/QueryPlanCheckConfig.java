@@ -0,0 +1,39 @@
+package com.huertohogar.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+import java.util.Set;
+
+// Revisión de planes al arrancar (schema.plan-check.enabled); el inspector de Hibernate solo se registra con ella
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "schema.plan-check.enabled", havingValue = "true")
+public class QueryPlanCheckConfig {
+    
+    @Bean
+    QueryPlanCheck.SqlCapture planCheckSqlCapture() {
+        return new QueryPlanCheck.SqlCapture();
+    }
+    
+    @Bean
+    HibernatePropertiesCustomizer planCheckStatementInspector(QueryPlanCheck.SqlCapture capture) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, capture);
+    }
+    
+    @Bean
+    QueryPlanCheck queryPlanCheck(ApplicationContext context, QueryPlanCheck.SqlCapture capture,
+                                  Environment environment) {
+        List<String> allowedScans = Binder.get(environment)
+                .bind("schema.plan-check.allowed-scans", Bindable.listOf(String.class))
+                .orElse(List.of());
+        return new QueryPlanCheck(context, capture, Set.copyOf(allowedScans));
+    }
+}
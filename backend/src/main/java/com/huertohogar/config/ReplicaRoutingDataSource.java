@@ -0,0 +1,84 @@
+package com.huertohogar.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.huertohogar.security.AuthenticatedUser;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Las transacciones de solo lectura van a la réplica y todo lo demás a la primaria.
+// La réplica puede venir atrasada: después de confirmar una escritura, ese usuario
+// sigue leyendo de la primaria durante la ventana para ver lo que acaba de guardar.
+// Lo que se guarda en una caché compartida se lee siempre de la primaria (readFromPrimary): una
+// réplica atrasada la volvería a llenar con el estado anterior a la escritura que acaba de invalidarla.
+// Debe ir detrás de un LazyConnectionDataSourceProxy, porque la marca readOnly de la
+// transacción se fija después de que Hibernate pide la conexión
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    enum Target { PRIMARY, REPLICA }
+    
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+    
+    private final Cache<String, Boolean> recentWriters;
+    
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration readYourWritesWindow) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .maximumSize(100_000)
+                .build();
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                // La ventana parte al confirmar: desde ahí corre el atraso de la réplica
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        recentWriters.put(user, Boolean.TRUE);
+                    }
+                });
+            }
+            return Target.PRIMARY;
+        }
+        if (PRIMARY_READS.get() != null || (user != null && recentWriters.getIfPresent(user) != null)) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+    
+    // La conexión se pide en la primera sentencia, así que basta con envolver el cuerpo del método transaccional
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        if (PRIMARY_READS.get() != null) {
+            return read.get();
+        }
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_READS.remove();
+        }
+    }
+    
+    // Sin usuario (tareas programadas, workers del checkout) no hay ventana: solo cuenta readOnly
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getPrincipal() instanceof AuthenticatedUser user ? user.getEmail() : authentication.getName();
+    }
+}
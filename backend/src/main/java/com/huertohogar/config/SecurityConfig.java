@@ -1,38 +1,104 @@
 package com.huertohogar.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huertohogar.model.dto.ApiResponse;
+import com.huertohogar.security.JwtAuthenticationFilter;
+import com.huertohogar.service.IdempotencyStore;
+import com.huertohogar.util.BCryptCostCalibrator;
+import com.huertohogar.util.JwtUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
+@Slf4j
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Con un puerto de gestión aparte (producción), ese puerto no se publica y Prometheus lo raspa sin token.
+    // Cadena propia: las rutas de la cadena principal no se pueden evaluar en el contexto de gestión
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    @Order(1)
+    public SecurityFilterChain managementPortFilterChain(HttpSecurity http, Environment environment) throws Exception {
+        boolean separateManagementPort = ManagementPortType.get(environment) == ManagementPortType.DIFFERENT;
+        // local.management.port es el puerto real, también cuando se configura 0
+        RequestMatcher onManagementPort = request -> separateManagementPort && Integer.valueOf(request.getLocalPort())
+                .equals(environment.getProperty("local.management.port", Integer.class));
+        http
+            .securityMatcher(onManagementPort)
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(session ->
+                session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+        return http.build();
+    }
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtUtil jwtUtil, ObjectMapper objectMapper,
+                                                   IdempotencyStore idempotencyStore) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .sessionManagement(session -> 
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/v1/auth/**").permitAll()
-                .requestMatchers("/api/v1/products/**").permitAll()
-                .requestMatchers("/api/v1/blog/**").permitAll()
+                // Las rutas son relativas al context-path (/api/v1)
+                .requestMatchers("/auth/**").permitAll()
+                // Catálogo y blog se leen sin token (incluye /products/changes y el NDJSON); se editan solo con ADMIN
+                .requestMatchers(HttpMethod.GET, "/products/**", "/blog/**").permitAll()
+                .requestMatchers("/products/**", "/blog/**").hasRole(JwtUtil.ADMIN_ROLE)
+                // En el puerto público solo el health es anónimo; métricas y Prometheus piden ADMIN
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .requestMatchers("/actuator/**").hasRole(JwtUtil.ADMIN_ROLE)
                 .requestMatchers("/swagger-ui/**", "/api-docs/**", "/h2-console/**").permitAll()
+                .requestMatchers("/admin/**").hasRole(JwtUtil.ADMIN_ROLE)
+                // Los estados los avanza la tienda; el cliente solo ve sus pedidos
+                .requestMatchers(HttpMethod.PUT, "/orders/*/status").hasRole(JwtUtil.ADMIN_ROLE)
+                .requestMatchers("/reviews/summaries/rebuild").hasRole(JwtUtil.ADMIN_ROLE)
                 .anyRequest().authenticated()
-            );
+            )
+            .addFilterBefore(new JwtAuthenticationFilter(jwtUtil), UsernamePasswordAuthenticationFilter.class)
+            // Después de autorizar: las claves de idempotencia se agrupan por usuario autenticado
+            .addFilterAfter(new IdempotencyFilter(idempotencyStore), AuthorizationFilter.class)
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint((request, response, authException) -> {
+                    response.setStatus(HttpStatus.UNAUTHORIZED.value());
+                    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                    response.setCharacterEncoding("UTF-8");
+                    objectMapper.writeValue(response.getOutputStream(),
+                            ApiResponse.error("Token de autenticación ausente o inválido"));
+                })
+                // Respuesta directa: el despacho a /error llegaría sin token y terminaría en 401
+                .accessDeniedHandler((request, response, accessDeniedException) -> {
+                    response.setStatus(HttpStatus.FORBIDDEN.value());
+                    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                    response.setCharacterEncoding("UTF-8");
+                    objectMapper.writeValue(response.getOutputStream(),
+                            ApiResponse.error("Acceso denegado"));
+                }));
         
         // Permitir acceso a H2 Console en desarrollo
         http.headers(headers -> headers.frameOptions().sameOrigin());
@@ -54,7 +120,12 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password-hashing.strength:0}") int strength,
+            @Value("${security.password-hashing.target-millis:100}") long targetMillis) {
+        // Con strength > 0 se fija el costo (útil con varias instancias); si no, se calibra al iniciar
+        int cost = strength > 0 ? strength : BCryptCostCalibrator.calibrate(Duration.ofMillis(targetMillis));
+        log.info("BCrypt con costo {} (objetivo {} ms por hash)", cost, targetMillis);
+        return new BCryptPasswordEncoder(cost);
     }
 }
@@ -0,0 +1,72 @@
+package com.huertohogar.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// service.invocations{class, method, outcome, exception} para cada método público de los @Service.
+// Los tags salen del código y nunca de los argumentos, así la cardinalidad queda fija.
+// El Timer de éxito se guarda por método: el camino normal no arma tags ni busca en el registro
+@Aspect
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+    
+    public static final String METRIC_NAME = "service.invocations";
+    
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+    
+    @Around("@within(org.springframework.stereotype.Service) && execution(public * com.huertohogar.service..*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            record(method, e, start);
+            throw e;
+        }
+        // Un login asíncrono termina cuando termina su future, no cuando lo devuelve
+        if (result instanceof CompletionStage<?> stage) {
+            stage.whenComplete((value, error) -> record(method, error, start));
+        } else {
+            record(method, null, start);
+        }
+        return result;
+    }
+    
+    private void record(Method method, Throwable error, long start) {
+        long elapsed = System.nanoTime() - start;
+        Timer timer = error == null
+                ? successTimers.computeIfAbsent(method, key -> timer(key, "success", "none"))
+                : timer(method, "error", unwrap(error).getClass().getSimpleName());
+        timer.record(elapsed, TimeUnit.NANOSECONDS);
+    }
+    
+    private Timer timer(Method method, String outcome, String exception) {
+        return Timer.builder(METRIC_NAME)
+                .description("Invocaciones de métodos de servicio")
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+    
+    // Los futures fallidos llegan envueltos en CompletionException
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
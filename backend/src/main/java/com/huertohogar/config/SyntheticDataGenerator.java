@@ -0,0 +1,542 @@
+package com.huertohogar.config;
+
+import com.huertohogar.model.entity.Order;
+import com.huertohogar.model.entity.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+// Perfil "synthetic": catálogo, clientes, pedidos y reseñas a escala, reproducibles desde una semilla.
+// Popularidad de productos y clientes con distribución de Zipf, fechas con estacionalidad
+// y clientes repartidos por región según población
+@Slf4j
+@Component
+@Profile("synthetic")
+public class SyntheticDataGenerator implements CommandLineRunner {
+    
+    public static final String PASSWORD = "huerto123";
+    
+    // Región, capital y población (miles, Censo 2017)
+    private static final String[] REGIONS = {"Región de Arica y Parinacota", "Región de Tarapacá",
+            "Región de Antofagasta", "Región de Atacama", "Región de Coquimbo", "Región de Valparaíso",
+            "Región Metropolitana", "Región de O'Higgins", "Región del Maule", "Región de Ñuble",
+            "Región del Biobío", "Región de La Araucanía", "Región de Los Ríos", "Región de Los Lagos",
+            "Región de Aysén", "Región de Magallanes"};
+    private static final String[] CITIES = {"Arica", "Iquique", "Antofagasta", "Copiapó", "La Serena", "Valparaíso",
+            "Santiago", "Rancagua", "Talca", "Chillán", "Concepción", "Temuco", "Valdivia", "Puerto Montt",
+            "Coyhaique", "Punta Arenas"};
+    private static final double[] POPULATION = {226, 331, 608, 286, 758, 1816, 7113, 915, 1045, 481, 1557, 958,
+            385, 829, 103, 167};
+    // Origen de los productos: zonas agrícolas, no población
+    private static final double[] PRODUCE = {1, 1, 0, 1, 4, 6, 6, 9, 9, 5, 4, 4, 3, 5, 1, 1};
+    
+    // Enero..diciembre: vacaciones de verano a la baja, Fiestas Patrias y diciembre al alza
+    private static final double[] MONTH = {0.85, 0.75, 0.95, 1.0, 1.05, 1.0, 0.95, 1.0, 1.15, 1.05, 1.1, 1.4};
+    // Lunes..domingo
+    private static final double[] WEEKDAY = {1.0, 0.95, 0.95, 1.0, 1.1, 1.25, 1.15};
+    private static final double[] HOUR = {0.2, 0.1, 0.05, 0.05, 0.05, 0.1, 0.3, 0.6, 0.9, 1.1, 1.2, 1.3,
+            1.5, 1.4, 1.1, 1.0, 1.0, 1.1, 1.3, 1.6, 1.8, 1.6, 1.0, 0.5};
+    // Ítems por pedido (1..6) y unidades por ítem (1..5)
+    private static final double[] ITEMS = {30, 28, 20, 12, 6, 4};
+    private static final double[] QUANTITY = {60, 25, 10, 3, 2};
+    // Estrellas 1..5
+    private static final double[] RATING = {4, 6, 12, 30, 48};
+    
+    private static final String[][] PRODUCT_NAMES = {
+            {"Manzanas", "Naranjas", "Plátanos", "Peras", "Kiwis", "Uvas", "Frutillas", "Arándanos", "Cerezas",
+                    "Paltas", "Duraznos", "Ciruelas", "Limones", "Mandarinas"},
+            {"Zanahorias", "Espinacas", "Pimientos", "Lechugas", "Tomates", "Zapallos", "Brócoli", "Acelgas",
+                    "Betarragas", "Cebollas", "Papas", "Choclos", "Porotos Verdes", "Pepinos"},
+            {"Miel", "Quinua", "Avena", "Mermelada", "Aceite de Oliva", "Harina Integral", "Nueces", "Almendras",
+                    "Huevos de Campo", "Té de Hierbas"},
+            {"Leche", "Queso", "Yogurt", "Mantequilla", "Quesillo", "Kéfir", "Crema", "Manjar"}
+    };
+    private static final String[] QUALIFIERS = {"Orgánicas", "Frescas", "Premium", "de Campo", "Artesanal",
+            "Selección", "del Valle", "Tradicional"};
+    private static final double[] CATEGORY = {35, 35, 15, 15};
+    private static final double[][] PRICE_RANGE = {{600, 3500}, {500, 2500}, {2000, 9000}, {800, 6000}};
+    private static final String[] UNITS = {"kg", "kg", "frasco", "lt"};
+    
+    private static final String[] FIRST_NAMES = {"Catalina", "Sofía", "Martina", "Isidora", "Florencia", "Antonia",
+            "Josefa", "Valentina", "Agustina", "Javiera", "Benjamín", "Vicente", "Martín", "Matías", "Joaquín",
+            "Agustín", "Tomás", "Cristóbal", "Maximiliano", "Sebastián"};
+    private static final String[] LAST_NAMES = {"González", "Muñoz", "Rojas", "Díaz", "Pérez", "Soto", "Contreras",
+            "Silva", "Martínez", "Sepúlveda", "Morales", "Rodríguez", "López", "Fuentes", "Hernández", "Torres",
+            "Araya", "Flores", "Espinoza", "Valenzuela", "Castillo", "Tapia", "Reyes", "Gutiérrez", "Castro",
+            "Pizarro", "Álvarez", "Vásquez", "Sánchez", "Fernández"};
+    private static final String[] STREETS = {"Av. Providencia", "Av. Alemania", "Av. Brasil", "Calle Prat",
+            "Av. Libertad", "Calle O'Higgins", "Av. Colón", "Calle Freire", "Pasaje Los Aromos", "Av. Matta"};
+    private static final String[][] COMMENTS = {
+            {"Llegó en mal estado.", "No lo volvería a comprar."},
+            {"Esperaba mejor calidad.", "Algo caro para lo que es."},
+            {"Cumple, sin más.", "Bien, aunque llegó tarde."},
+            {"Muy buena calidad.", "Fresco y bien empacado."},
+            {"Excelente, se nota que es de huerta.", "El mejor que he probado, repetiré."}
+    };
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final long seed;
+    private final int productCount;
+    private final int userCount;
+    private final int orderCount;
+    private final int reviewCount;
+    private final double productSkew;
+    private final double customerSkew;
+    private final int days;
+    private final LocalDate endDate;
+    private final int batchSize;
+    
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder,
+                                  @Value("${synthetic-data.seed:42}") long seed,
+                                  @Value("${synthetic-data.products:50000}") int productCount,
+                                  @Value("${synthetic-data.users:200000}") int userCount,
+                                  @Value("${synthetic-data.orders:1000000}") int orderCount,
+                                  @Value("${synthetic-data.reviews:300000}") int reviewCount,
+                                  @Value("${synthetic-data.product-skew:1.0}") double productSkew,
+                                  @Value("${synthetic-data.customer-skew:0.6}") double customerSkew,
+                                  @Value("${synthetic-data.days:730}") int days,
+                                  @Value("${synthetic-data.end-date:}") String endDate,
+                                  @Value("${synthetic-data.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.seed = seed;
+        this.productCount = productCount;
+        this.userCount = userCount;
+        this.orderCount = orderCount;
+        this.reviewCount = reviewCount;
+        this.productSkew = productSkew;
+        this.customerSkew = customerSkew;
+        this.days = days;
+        // Sin fecha fija, la ventana termina hoy y las fechas se corren de un día a otro
+        this.endDate = endDate.isBlank() ? LocalDate.now() : LocalDate.parse(endDate);
+        this.batchSize = batchSize;
+    }
+    
+    @Override
+    public void run(String... args) {
+        Long products = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+        if (products != null && products > 0) {
+            log.info("Datos sintéticos omitidos: la base ya tiene {} productos", products);
+            return;
+        }
+        generate();
+    }
+    
+    public Summary generate() {
+        if (productCount <= 0 || userCount <= 0) {
+            throw new IllegalStateException("synthetic-data.products y synthetic-data.users deben ser mayores que cero");
+        }
+        long start = System.nanoTime();
+        boolean h2 = isH2();
+        if (h2) {
+            // Los datos son consistentes por construcción; revisar cada clave foránea cuesta ~15% de la carga
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        }
+        try {
+            return load(start);
+        } finally {
+            if (h2) {
+                jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            }
+        }
+    }
+    
+    private Summary load(long start) {
+        Catalog catalog = insertProducts();
+        log.debug("Productos sintéticos listos en {} ms", (System.nanoTime() - start) / 1_000_000);
+        Customers customers = insertUsers();
+        log.debug("Usuarios sintéticos listos en {} ms", (System.nanoTime() - start) / 1_000_000);
+        long items = insertOrders(catalog, customers);
+        log.debug("Pedidos sintéticos listos en {} ms", (System.nanoTime() - start) / 1_000_000);
+        insertReviews(catalog, customers);
+        
+        Summary summary = new Summary(productCount, userCount, orderCount, items, reviewCount,
+                (System.nanoTime() - start) / 1_000_000);
+        log.info("Datos sintéticos (semilla {}): {} productos, {} usuarios, {} pedidos, {} ítems y {} reseñas en {} ms",
+                seed, summary.products(), summary.users(), summary.orders(), summary.items(), summary.reviews(),
+                summary.millis());
+        return summary;
+    }
+    
+    private Catalog insertProducts() {
+        SplittableRandom random = new SplittableRandom(seed);
+        Weighted categories = new Weighted(CATEGORY);
+        Weighted origins = new Weighted(PRODUCE);
+        Catalog catalog = new Catalog(productCount);
+        LocalDateTime launchDate = endDate.minusDays(days).atStartOfDay();
+        Timestamp launch = Timestamp.valueOf(launchDate);
+        long launchMillis = launchDate.toInstant(ZoneOffset.UTC).toEpochMilli();
+        
+        batch("INSERT INTO products (id, name, description, price, old_price, stock, category, image_url, tag, origin, "
+                + "unit, is_organic, certifications, sustainable_practices, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", productCount, (statement, i) -> {
+            int category = categories.sample(random);
+            String[] names = PRODUCT_NAMES[category];
+            String name = names[random.nextInt(names.length)] + " " + QUALIFIERS[random.nextInt(QUALIFIERS.length)];
+            String origin = REGIONS[origins.sample(random)];
+            boolean organic = category == 2 || (category == 1 ? random.nextInt(10) < 6 : random.nextInt(10) < 2);
+            double[] range = PRICE_RANGE[category];
+            double price = Math.round((range[0] + random.nextDouble() * (range[1] - range[0])) / 10) * 10.0;
+            
+            catalog.ids[i] = uuid(launchMillis + i, 0, random);
+            catalog.names[i] = name;
+            catalog.prices[i] = price;
+            catalog.categories[i] = Product.ProductCategory.values()[category].name();
+            statement.setString(1, catalog.ids[i]);
+            statement.setString(2, name);
+            statement.setString(3, name + " de " + origin + ", cosecha de la temporada.");
+            statement.setDouble(4, price);
+            if (random.nextInt(100) < 15) {
+                statement.setDouble(5, Math.round(price * 1.2 / 10) * 10.0);
+            } else {
+                statement.setNull(5, Types.DOUBLE);
+            }
+            statement.setDouble(6, 500 + random.nextInt(4500));
+            statement.setString(7, catalog.categories[i]);
+            statement.setString(8, "product_" + (i % 64));
+            statement.setString(9, organic ? "Orgánico" : "Frescos");
+            statement.setString(10, origin);
+            statement.setString(11, UNITS[category]);
+            statement.setBoolean(12, organic);
+            statement.setString(13, organic ? "Certificación Orgánica" : "");
+            statement.setString(14, organic ? "Cultivo sin pesticidas" : "");
+            statement.setTimestamp(15, launch);
+            statement.setTimestamp(16, launch);
+        });
+        return catalog;
+    }
+    
+    private Customers insertUsers() {
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        Weighted regions = new Weighted(POPULATION);
+        Customers customers = new Customers(userCount);
+        String password = passwordEncoder.encode(PASSWORD);
+        LocalDateTime first = endDate.minusDays(days).atStartOfDay();
+        
+        batch("INSERT INTO users (email, password, full_name, phone, address, city, region, loyalty_points, is_active, "
+                + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", userCount, (statement, i) -> {
+            int region = regions.sample(random);
+            customers.emails[i] = "cliente" + i + "@correo.cl";
+            customers.names[i] = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            customers.regions[i] = (byte) region;
+            customers.addresses[i] = STREETS[random.nextInt(STREETS.length)] + " " + (1 + random.nextInt(3000));
+            Timestamp registered = Timestamp.valueOf(first.plusMinutes(random.nextLong((long) days * 24 * 60)));
+            statement.setString(1, customers.emails[i]);
+            statement.setString(2, password);
+            statement.setString(3, customers.names[i]);
+            statement.setString(4, "+569" + (10_000_000 + random.nextInt(90_000_000)));
+            statement.setString(5, customers.addresses[i]);
+            statement.setString(6, CITIES[region]);
+            statement.setString(7, REGIONS[region]);
+            statement.setInt(8, random.nextInt(2000));
+            statement.setBoolean(9, random.nextInt(100) < 97);
+            statement.setTimestamp(10, registered);
+            statement.setTimestamp(11, registered);
+        });
+        return customers;
+    }
+    
+    // Pedidos e ítems van en la misma conexión: cada lote de pedidos se ejecuta antes que sus ítems
+    private long insertOrders(Catalog catalog, Customers customers) {
+        SplittableRandom random = new SplittableRandom(seed + 2);
+        Zipf products = new Zipf(productCount, productSkew);
+        Zipf buyers = new Zipf(userCount, customerSkew);
+        Weighted itemCounts = new Weighted(ITEMS);
+        Weighted quantities = new Weighted(QUANTITY);
+        SeasonalCalendar calendar = new SeasonalCalendar(endDate, days);
+        // En orden cronológico, con ids que crecen con la fecha: cada inserción va al final del índice
+        long[] placedAt = new long[orderCount];
+        for (int i = 0; i < orderCount; i++) {
+            placedAt[i] = calendar.sample(random).toEpochSecond(ZoneOffset.UTC);
+        }
+        Arrays.sort(placedAt);
+        
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> inTransaction(connection, () -> {
+            long items = 0;
+            int[] picked = new int[ITEMS.length];
+            try (PreparedStatement orders = connection.prepareStatement("INSERT INTO orders (order_id, user_email, "
+                    + "order_date, status, total_amount, shipping_address, city, region, tracking_number, created_at, "
+                    + "updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+                 PreparedStatement orderItems = connection.prepareStatement("INSERT INTO order_items (order_item_id, "
+                         + "order_id, product_id, product_name, category, quantity, unit_price, total_price) "
+                         + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < orderCount; i++) {
+                    LocalDateTime orderDate = LocalDateTime.ofEpochSecond(placedAt[i], 0, ZoneOffset.UTC);
+                    long millis = placedAt[i] * 1000;
+                    String orderId = uuid(millis, 0, random);
+                    int customer = buyers.sample(random);
+                    Order.OrderStatus status = statusFor(calendar.ageInDays(orderDate), random);
+                    
+                    int count = itemCounts.sample(random) + 1;
+                    double total = 0;
+                    for (int j = 0; j < count; j++) {
+                        int product = distinctProduct(products, random, picked, j);
+                        int quantity = quantities.sample(random) + 1;
+                        double lineTotal = catalog.prices[product] * quantity;
+                        total += lineTotal;
+                        orderItems.setString(1, uuid(millis, j + 1, random));
+                        orderItems.setString(2, orderId);
+                        orderItems.setString(3, catalog.ids[product]);
+                        orderItems.setString(4, catalog.names[product]);
+                        orderItems.setString(5, catalog.categories[product]);
+                        orderItems.setInt(6, quantity);
+                        orderItems.setDouble(7, catalog.prices[product]);
+                        orderItems.setDouble(8, lineTotal);
+                        orderItems.addBatch();
+                    }
+                    items += count;
+                    
+                    Timestamp placed = Timestamp.valueOf(orderDate);
+                    int region = customers.regions[customer];
+                    orders.setString(1, orderId);
+                    orders.setString(2, customers.emails[customer]);
+                    orders.setTimestamp(3, placed);
+                    orders.setString(4, status.name());
+                    orders.setDouble(5, total);
+                    orders.setString(6, customers.addresses[customer]);
+                    orders.setString(7, CITIES[region]);
+                    orders.setString(8, REGIONS[region]);
+                    orders.setString(9, shipped(status) ? "HH" + (1_000_000_000L + random.nextLong(9_000_000_000L)) : null);
+                    orders.setTimestamp(10, placed);
+                    orders.setTimestamp(11, placed);
+                    orders.addBatch();
+                    
+                    if ((i + 1) % batchSize == 0 || i == orderCount - 1) {
+                        orders.executeBatch();
+                        orderItems.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            return items;
+        }));
+    }
+    
+    // Reseñas con la misma popularidad que las ventas: los productos más vendidos acumulan más opiniones
+    private void insertReviews(Catalog catalog, Customers customers) {
+        SplittableRandom random = new SplittableRandom(seed + 3);
+        Zipf products = new Zipf(productCount, productSkew);
+        Zipf reviewers = new Zipf(userCount, customerSkew);
+        Weighted ratings = new Weighted(RATING);
+        SeasonalCalendar calendar = new SeasonalCalendar(endDate, days);
+        
+        batch("INSERT INTO reviews (product_id, user_email, user_name, rating, comment, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", reviewCount, (statement, i) -> {
+            int product = products.sample(random);
+            int reviewer = reviewers.sample(random);
+            int rating = ratings.sample(random);
+            String[] comments = COMMENTS[rating];
+            Timestamp written = Timestamp.valueOf(calendar.sample(random));
+            statement.setString(1, catalog.ids[product]);
+            statement.setString(2, customers.emails[reviewer]);
+            statement.setString(3, customers.names[reviewer]);
+            statement.setInt(4, rating + 1);
+            statement.setString(5, comments[random.nextInt(comments.length)]);
+            statement.setTimestamp(6, written);
+            statement.setTimestamp(7, written);
+        });
+    }
+    
+    private static int distinctProduct(Zipf products, SplittableRandom random, int[] picked, int count) {
+        int candidate;
+        boolean repeated;
+        int attempts = 0;
+        do {
+            candidate = products.sample(random);
+            repeated = false;
+            for (int k = 0; k < count; k++) {
+                repeated |= picked[k] == candidate;
+            }
+        } while (repeated && ++attempts < 16);
+        picked[count] = candidate;
+        return candidate;
+    }
+    
+    // Lo reciente sigue en curso; lo antiguo ya se entregó o se canceló
+    private static Order.OrderStatus statusFor(long ageInDays, SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (ageInDays < 2) {
+            return roll < 40 ? Order.OrderStatus.PENDING
+                    : roll < 75 ? Order.OrderStatus.CONFIRMED : Order.OrderStatus.PREPARING;
+        }
+        if (ageInDays < 7) {
+            return roll < 30 ? Order.OrderStatus.SHIPPED
+                    : roll < 60 ? Order.OrderStatus.IN_TRANSIT
+                    : roll < 95 ? Order.OrderStatus.DELIVERED : Order.OrderStatus.CANCELLED;
+        }
+        return roll < 94 ? Order.OrderStatus.DELIVERED : Order.OrderStatus.CANCELLED;
+    }
+    
+    private static boolean shipped(Order.OrderStatus status) {
+        return status == Order.OrderStatus.SHIPPED || status == Order.OrderStatus.IN_TRANSIT
+                || status == Order.OrderStatus.DELIVERED;
+    }
+    
+    // UUID versión 7: milisegundos en los 48 bits altos, luego un contador de 12 bits y 62 bits aleatorios
+    private static String uuid(long millis, int counter, SplittableRandom random) {
+        long most = (millis << 16) | 0x7000L | (counter & 0xFFFL);
+        long least = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(most, least).toString();
+    }
+    
+    private boolean isH2() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "H2".equals(connection.getMetaData().getDatabaseProductName())));
+    }
+    
+    private void batch(String sql, int rows, RowWriter writer) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> inTransaction(connection, () -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < rows; i++) {
+                    writer.write(statement, i);
+                    statement.addBatch();
+                    if ((i + 1) % batchSize == 0 || i == rows - 1) {
+                        statement.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            return null;
+        }));
+    }
+    
+    private static <T> T inTransaction(Connection connection, SqlWork<T> work) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            return work.run();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    
+    public record Summary(int products, int users, int orders, long items, int reviews, long millis) {
+    }
+    
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(PreparedStatement statement, int row) throws SQLException;
+    }
+    
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+    
+    private static final class Catalog {
+        final String[] ids;
+        final String[] names;
+        final double[] prices;
+        final String[] categories;
+        
+        Catalog(int size) {
+            ids = new String[size];
+            names = new String[size];
+            prices = new double[size];
+            categories = new String[size];
+        }
+    }
+    
+    private static final class Customers {
+        final String[] emails;
+        final String[] names;
+        final String[] addresses;
+        final byte[] regions;
+        
+        Customers(int size) {
+            emails = new String[size];
+            names = new String[size];
+            addresses = new String[size];
+            regions = new byte[size];
+        }
+    }
+    
+    // Muestreo por inversión sobre la distribución acumulada
+    private static class Weighted {
+        private final double[] cumulative;
+        
+        Weighted(double[] weights) {
+            cumulative = new double[weights.length];
+            double sum = 0;
+            for (int i = 0; i < weights.length; i++) {
+                sum += weights[i];
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < cumulative.length; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+        
+        int sample(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index + 1 : -index - 1, cumulative.length - 1);
+        }
+    }
+    
+    // El elemento de rango k tiene peso 1/k^s; el índice es el rango
+    private static final class Zipf extends Weighted {
+        Zipf(int size, double exponent) {
+            super(weights(size, exponent));
+        }
+        
+        private static double[] weights(int size, double exponent) {
+            double[] weights = new double[size];
+            for (int k = 0; k < size; k++) {
+                weights[k] = 1 / Math.pow(k + 1, exponent);
+            }
+            return weights;
+        }
+    }
+    
+    // Días de la ventana ponderados por mes y día de la semana; la hora sigue la curva diaria de compras
+    private static final class SeasonalCalendar {
+        private final LocalDate first;
+        private final LocalDate end;
+        private final Weighted daysOfWindow;
+        private final Weighted hours = new Weighted(HOUR);
+        
+        SeasonalCalendar(LocalDate end, int days) {
+            this.end = end;
+            this.first = end.minusDays(days - 1L);
+            double[] weights = new double[days];
+            for (int i = 0; i < days; i++) {
+                LocalDate day = first.plusDays(i);
+                DayOfWeek weekday = day.getDayOfWeek();
+                weights[i] = MONTH[day.getMonthValue() - 1] * WEEKDAY[weekday.getValue() - 1];
+            }
+            daysOfWindow = new Weighted(weights);
+        }
+        
+        LocalDateTime sample(SplittableRandom random) {
+            return first.plusDays(daysOfWindow.sample(random))
+                    .atTime(hours.sample(random), random.nextInt(60), random.nextInt(60));
+        }
+        
+        long ageInDays(LocalDateTime date) {
+            return end.toEpochDay() - date.toLocalDate().toEpochDay();
+        }
+    }
+}
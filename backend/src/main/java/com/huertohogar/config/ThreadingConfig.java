@@ -0,0 +1,64 @@
+package com.huertohogar.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+// Modo de ejecución: spring.threads.virtual.enabled=true atiende peticiones, @Async y @Scheduled
+// en hilos virtuales (requiere Java 21). El resto de la aplicación no cambia entre modos
+@Slf4j
+@Configuration
+public class ThreadingConfig {
+    
+    static final String VIRTUAL_THREADS_PROPERTY = "spring.threads.virtual.enabled";
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportExecutionMode(ApplicationReadyEvent event) {
+        Environment environment = event.getApplicationContext().getEnvironment();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Modo de ejecución: hilos virtuales");
+        } else if (environment.getProperty(VIRTUAL_THREADS_PROPERTY, Boolean.class, false)) {
+            log.warn("{}=true requiere Java 21 o superior (Java {} en uso); se mantienen los hilos de plataforma",
+                    VIRTUAL_THREADS_PROPERTY, Runtime.version().feature());
+        } else {
+            log.info("Modo de ejecución: hilos de plataforma");
+        }
+    }
+    
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    static class VirtualThreadsConfig {
+        
+        @Bean
+        static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof HikariDataSource hikari)) {
+                        return bean;
+                    }
+                    long acquireTimeout = environment.getProperty(
+                            "jdbc.connection-limiter.acquire-timeout-ms", Long.class, 2000L);
+                    log.info("Acceso a la base de datos limitado a {} conexiones simultáneas", hikari.getMaximumPoolSize());
+                    return new ConnectionLimitingDataSource(hikari, hikari.getMaximumPoolSize(), acquireTimeout);
+                }
+            };
+        }
+        
+        @Bean
+        VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry, Environment environment) {
+            long thresholdMillis = environment.getProperty("threads.virtual.pinned-threshold-ms", Long.class, 20L);
+            return new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(thresholdMillis));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.huertohogar.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+// Escucha el evento JFR que emite la JVM cuando un hilo virtual queda fijado a su portador
+// (synchronized o código nativo durante una operación bloqueante) y lo reporta con su stack
+@Slf4j
+public class VirtualThreadPinningMonitor implements DisposableBean {
+    
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int REPORTED_FRAMES = 8;
+    
+    private final Counter pinnedCounter;
+    private final RecordingStream stream;
+    
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.pinnedCounter = Counter.builder("threads.virtual.pinned")
+                .description("Veces que un hilo virtual bloqueó a su hilo portador")
+                .register(meterRegistry);
+        this.stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::report);
+        stream.startAsync();
+    }
+    
+    private void report(RecordedEvent event) {
+        pinnedCounter.increment();
+        String frames = event.getStackTrace() == null ? "sin stack" : event.getStackTrace().getFrames().stream()
+                .limit(REPORTED_FRAMES)
+                .map(VirtualThreadPinningMonitor::describe)
+                .collect(Collectors.joining(" <- "));
+        log.warn("Hilo virtual fijado a su portador durante {} ms: {}", event.getDuration().toMillis(), frames);
+    }
+    
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+    
+    @Override
+    public void destroy() {
+        stream.close();
+    }
+}
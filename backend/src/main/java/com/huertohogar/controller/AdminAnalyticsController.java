@@ -0,0 +1,63 @@
+package com.huertohogar.controller;
+
+import com.huertohogar.model.dto.ApiResponse;
+import com.huertohogar.model.dto.SalesRollupDTO;
+import com.huertohogar.model.dto.SalesSummaryDTO;
+import com.huertohogar.model.entity.Order;
+import com.huertohogar.service.SalesAnalyticsService;
+import com.huertohogar.service.SalesRollupRepairJob;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Solo administradores: la regla está en SecurityConfig para todo /admin/**
+@RestController
+@RequestMapping("/admin/analytics")
+@RequiredArgsConstructor
+@Tag(name = "Analítica", description = "Reportes de ventas para el panel de administración")
+@CrossOrigin(origins = "*")
+public class AdminAnalyticsController {
+    
+    private static final int DEFAULT_DAYS = 30;
+    
+    private final SalesAnalyticsService salesAnalyticsService;
+    private final SalesRollupRepairJob salesRollupRepairJob;
+    
+    @GetMapping("/sales")
+    @Operation(summary = "Ventas agrupadas por día, categoría, región y/o estado (por defecto, los últimos 30 días)")
+    public ResponseEntity<ApiResponse<List<SalesRollupDTO>>> getSales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") List<String> groupBy,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) Order.OrderStatus status) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+        List<SalesRollupDTO> sales = salesAnalyticsService.getSales(start, end, groupBy, category, region, status);
+        return ResponseEntity.ok(ApiResponse.success(sales));
+    }
+    
+    @GetMapping("/summary")
+    @Operation(summary = "Totales del período: ingresos, unidades, pedidos y pedidos por estado")
+    public ResponseEntity<ApiResponse<SalesSummaryDTO>> getSummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+        return ResponseEntity.ok(ApiResponse.success(salesAnalyticsService.getSummary(start, end)));
+    }
+    
+    @PostMapping("/rebuild")
+    @Operation(summary = "Recalcular los acumulados de ventas desde los pedidos")
+    public ResponseEntity<ApiResponse<Integer>> rebuild() {
+        int cells = salesRollupRepairJob.rebuild();
+        return ResponseEntity.ok(ApiResponse.success("Acumulados recalculados", cells));
+    }
+}
@@ -13,6 +13,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
@@ -24,16 +26,16 @@ public class AuthController {
     
     @PostMapping("/register")
     @Operation(summary = "Registrar nuevo usuario")
-    public ResponseEntity<ApiResponse<AuthResponse>> register(@Valid @RequestBody RegisterRequest request) {
-        AuthResponse response = authService.register(request);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Usuario registrado exitosamente", response));
+    public CompletableFuture<ResponseEntity<ApiResponse<AuthResponse>>> register(@Valid @RequestBody RegisterRequest request) {
+        return authService.register(request)
+                .thenApply(response -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(ApiResponse.success("Usuario registrado exitosamente", response)));
     }
     
     @PostMapping("/login")
     @Operation(summary = "Iniciar sesión")
-    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody AuthRequest request) {
-        AuthResponse response = authService.login(request);
-        return ResponseEntity.ok(ApiResponse.success("Login exitoso", response));
+    public CompletableFuture<ResponseEntity<ApiResponse<AuthResponse>>> login(@Valid @RequestBody AuthRequest request) {
+        return authService.login(request)
+                .thenApply(response -> ResponseEntity.ok(ApiResponse.success("Login exitoso", response)));
     }
 }
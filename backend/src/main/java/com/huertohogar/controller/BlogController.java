@@ -3,13 +3,18 @@ package com.huertohogar.controller;
 import com.huertohogar.model.dto.ApiResponse;
 import com.huertohogar.model.dto.BlogPostDTO;
 import com.huertohogar.service.BlogPostService;
+import com.huertohogar.service.CollectionVersions;
+import com.huertohogar.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,26 +26,38 @@ import java.util.List;
 public class BlogController {
     
     private final BlogPostService blogPostService;
+    private final CollectionVersions collectionVersions;
     
     @GetMapping("/posts")
     @Operation(summary = "Obtener todos los posts")
-    public ResponseEntity<ApiResponse<List<BlogPostDTO>>> getAllPosts() {
+    public ResponseEntity<ApiResponse<List<BlogPostDTO>>> getAllPosts(WebRequest webRequest) {
+        if (isBlogNotModified(webRequest)) {
+            return null;
+        }
         List<BlogPostDTO> posts = blogPostService.getAllPosts();
-        return ResponseEntity.ok(ApiResponse.success(posts));
+        return revalidated().body(ApiResponse.success(posts));
     }
     
     @GetMapping("/posts/{id}")
     @Operation(summary = "Obtener post por ID")
-    public ResponseEntity<ApiResponse<BlogPostDTO>> getPostById(@PathVariable String id) {
+    public ResponseEntity<ApiResponse<BlogPostDTO>> getPostById(@PathVariable String id, WebRequest webRequest) {
         BlogPostDTO post = blogPostService.getPostById(id);
-        return ResponseEntity.ok(ApiResponse.success(post));
+        String etag = ETags.forRepresentation(ETags.fromUpdatedAt(post.getUpdatedAt()), webRequest);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return revalidated().body(ApiResponse.success(post));
     }
     
     @GetMapping("/posts/category/{category}")
     @Operation(summary = "Obtener posts por categoría")
-    public ResponseEntity<ApiResponse<List<BlogPostDTO>>> getPostsByCategory(@PathVariable String category) {
+    public ResponseEntity<ApiResponse<List<BlogPostDTO>>> getPostsByCategory(@PathVariable String category,
+                                                                             WebRequest webRequest) {
+        if (isBlogNotModified(webRequest)) {
+            return null;
+        }
         List<BlogPostDTO> posts = blogPostService.getPostsByCategory(category);
-        return ResponseEntity.ok(ApiResponse.success(posts));
+        return revalidated().body(ApiResponse.success(posts));
     }
     
     @PostMapping("/posts")
@@ -66,4 +83,16 @@ public class BlogController {
         blogPostService.deletePost(id);
         return ResponseEntity.ok(ApiResponse.success("Post eliminado exitosamente", null));
     }
+    
+    // Compara If-None-Match con la versión del blog antes de consultar nada
+    private boolean isBlogNotModified(WebRequest webRequest) {
+        String etag = collectionVersions.etag(CollectionVersions.Collection.BLOG_POSTS);
+        return webRequest.checkNotModified(ETags.forRepresentation(etag, webRequest));
+    }
+    
+    private static ResponseEntity.BodyBuilder revalidated() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT);
+    }
 }
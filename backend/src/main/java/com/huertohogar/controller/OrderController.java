@@ -3,17 +3,31 @@ package com.huertohogar.controller;
 import com.huertohogar.model.dto.ApiResponse;
 import com.huertohogar.model.dto.CreateOrderRequest;
 import com.huertohogar.model.dto.OrderDTO;
+import com.huertohogar.model.entity.CheckoutRequest;
 import com.huertohogar.model.entity.Order;
+import com.huertohogar.security.AuthenticatedUser;
+import com.huertohogar.service.CheckoutService;
+import com.huertohogar.service.OrderEventStreamHub;
 import com.huertohogar.service.OrderService;
+import com.huertohogar.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/orders")
@@ -22,32 +36,113 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class OrderController {
     
+    public static final String NEXT_PAGE_HEADER = "X-Next-Page";
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    public static final String PREFER_HEADER = "Prefer";
+    public static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    
     private final OrderService orderService;
+    private final OrderEventStreamHub orderEventStreamHub;
+    private final CheckoutService checkoutService;
     
     @PostMapping
-    @Operation(summary = "Crear nuevo pedido")
+    @Operation(summary = "Crear nuevo pedido",
+            description = "Con " + PREFER_HEADER + ": " + CheckoutService.RESPOND_ASYNC + " (si el checkout asíncrono está " +
+                    "habilitado) responde 202 con el id del pedido; el resultado se consulta en /orders/{orderId} " +
+                    "o en /orders/{orderId}/events")
     public ResponseEntity<ApiResponse<OrderDTO>> createOrder(
-            @RequestHeader("X-User-Email") String userEmail,
-            @Valid @RequestBody CreateOrderRequest request) {
-        OrderDTO order = orderService.createOrder(userEmail, request);
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Valid @RequestBody CreateOrderRequest request,
+            @RequestHeader(value = PREFER_HEADER, required = false) String prefer) {
+        if (checkoutService.isAsyncRequested(prefer)) {
+            OrderDTO accepted = checkoutService.accept(user, request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(ServletUriComponentsBuilder.fromCurrentRequestUri()
+                            .path("/{orderId}").buildAndExpand(accepted.getOrderId()).toUri())
+                    .header(PREFERENCE_APPLIED_HEADER, CheckoutService.RESPOND_ASYNC)
+                    .body(ApiResponse.success("Pedido recibido, se está procesando", accepted));
+        }
+        OrderDTO order = orderService.createOrder(user, request);
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Pedido creado exitosamente", order));
     }
     
     @GetMapping("/user/{email}")
-    @Operation(summary = "Obtener pedidos de un usuario")
-    public ResponseEntity<ApiResponse<List<OrderDTO>>> getOrdersByUser(@PathVariable String email) {
-        List<OrderDTO> orders = orderService.getOrdersByUser(email);
-        return ResponseEntity.ok(ApiResponse.success(orders));
+    @Operation(summary = "Obtener pedidos de un usuario",
+            description = "Ordenados por fecha descendente; con page y size responde una página y " +
+                    "entrega el número de la siguiente en " + NEXT_PAGE_HEADER)
+    public ResponseEntity<ApiResponse<List<OrderDTO>>> getOrdersByUser(
+            @PathVariable String email,
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        checkOwnerOrAdmin(email, user);
+        if (page != null && page < 0) {
+            throw new RuntimeException("La página no puede ser negativa");
+        }
+        if (size != null && size < 1) {
+            throw new RuntimeException("El tamaño de página debe ser al menos 1");
+        }
+        Pageable pageable = (page == null && size == null)
+                ? Pageable.unpaged()
+                : PageRequest.of(page != null ? page : 0, Math.min(size != null ? size : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE));
+        Slice<OrderDTO> orders = orderService.getOrdersByUser(email, pageable);
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (orders.hasNext()) {
+            response.header(NEXT_PAGE_HEADER, String.valueOf(orders.nextPageable().getPageNumber()));
+        }
+        return response.body(ApiResponse.success(orders.getContent()));
+    }
+    
+    @GetMapping(value = "/user/{email}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Seguir en vivo los pedidos de un usuario",
+            description = "Server-Sent Events con cada cambio de sus pedidos; reanuda con " + LAST_EVENT_ID_HEADER)
+    public SseEmitter streamUserOrderEvents(
+            @PathVariable String email,
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        checkOwnerOrAdmin(email, user);
+        return orderEventStreamHub.subscribeToUser(email, lastEventId);
     }
     
     @GetMapping("/{orderId}")
-    @Operation(summary = "Obtener pedido por ID")
+    @Operation(summary = "Obtener pedido por ID",
+            description = "Un pedido del checkout asíncrono responde 202 mientras se procesa y 400 con el motivo si se rechazó")
     public ResponseEntity<ApiResponse<OrderDTO>> getOrderById(
             @PathVariable String orderId,
-            @RequestHeader("X-User-Email") String userEmail) {
-        OrderDTO order = orderService.getOrderById(orderId, userEmail);
-        return ResponseEntity.ok(ApiResponse.success(order));
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        Optional<OrderDTO> order = orderService.findOrderById(orderId, user);
+        if (order.isPresent()) {
+            return ResponseEntity.ok(ApiResponse.success(order.get()));
+        }
+        Optional<CheckoutRequest> unfinished = checkoutService.findUnfinished(orderId, user);
+        if (unfinished.isEmpty()) {
+            // El worker crea el pedido y borra la solicitud en la misma transacción: pudo terminar entre ambas lecturas
+            return ResponseEntity.ok(ApiResponse.success(orderService.getOrderById(orderId, user)));
+        }
+        CheckoutRequest checkout = unfinished.get();
+        if (checkout.getStatus() == CheckoutRequest.Status.REJECTED) {
+            throw new RuntimeException("Pedido rechazado: " + checkout.getReason());
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Pedido en proceso", null));
+    }
+    
+    @GetMapping(value = "/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Seguir en vivo un pedido",
+            description = "Server-Sent Events con cada cambio de estado; reanuda con " + LAST_EVENT_ID_HEADER)
+    public SseEmitter streamOrderEvents(
+            @PathVariable String orderId,
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        // Valida que el pedido (o su checkout asíncrono) exista y sea del usuario antes de abrir el stream
+        if (orderService.findOrderById(orderId, user).isEmpty() && checkoutService.findUnfinished(orderId, user).isEmpty()) {
+            throw new RuntimeException("Pedido no encontrado: " + orderId);
+        }
+        return orderEventStreamHub.subscribeToOrder(orderId, lastEventId);
     }
     
     @PutMapping("/{orderId}/status")
@@ -58,4 +153,10 @@ public class OrderController {
         OrderDTO order = orderService.updateOrderStatus(orderId, status);
         return ResponseEntity.ok(ApiResponse.success("Estado actualizado exitosamente", order));
     }
+    
+    private void checkOwnerOrAdmin(String email, AuthenticatedUser user) {
+        if (!user.getEmail().equals(email) && !user.hasRole(JwtUtil.ADMIN_ROLE)) {
+            throw new AccessDeniedException("No tienes permiso para ver los pedidos de otro usuario");
+        }
+    }
 }
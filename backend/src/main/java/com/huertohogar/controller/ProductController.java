@@ -1,17 +1,31 @@
 package com.huertohogar.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.huertohogar.model.dto.ApiResponse;
+import com.huertohogar.model.dto.ProductChangesDTO;
 import com.huertohogar.model.dto.ProductDTO;
+import com.huertohogar.model.dto.ProductPageDTO;
 import com.huertohogar.model.entity.Product;
+import com.huertohogar.service.CollectionVersions;
 import com.huertohogar.service.ProductService;
+import com.huertohogar.service.ProductSuggestionIndex;
+import com.huertohogar.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -21,43 +35,122 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class ProductController {
     
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int SYNC_PAGE_SIZE = 500;
+    
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final CollectionVersions collectionVersions;
     
     @GetMapping
-    @Operation(summary = "Obtener todos los productos")
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> getAllProducts() {
-        List<ProductDTO> products = productService.getAllProducts();
-        return ResponseEntity.ok(ApiResponse.success(products));
+    @Operation(summary = "Obtener todos los productos",
+            description = "Con limit o cursor responde una página y entrega el cursor siguiente en " + NEXT_CURSOR_HEADER)
+    public ResponseEntity<ApiResponse<List<ProductDTO>>> getAllProducts(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+        if (isCatalogNotModified(webRequest)) {
+            return null;
+        }
+        if (limit == null && cursor == null) {
+            List<ProductDTO> products = productService.getAllProducts();
+            return revalidated().body(ApiResponse.success(products));
+        }
+        
+        ProductPageDTO page = productService.getProductsPage(cursor, limit != null ? limit : DEFAULT_PAGE_SIZE);
+        ResponseEntity.BodyBuilder response = revalidated();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(ApiResponse.success(page.getItems()));
+    }
+    
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Obtener todos los productos como NDJSON en streaming")
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        StreamingResponseBody body = outputStream -> productService.streamAllProducts(product -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(product));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
+    @GetMapping("/changes")
+    @Operation(summary = "Cambios del catálogo desde un token de sincronización",
+            description = "Sin since entrega el catálogo completo (reset). Con hasMore se vuelve a pedir con nextToken; "
+                    + "el último nextToken se guarda para la próxima sincronización")
+    public ResponseEntity<ApiResponse<ProductChangesDTO>> getProductChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "" + SYNC_PAGE_SIZE) int limit) {
+        ProductChangesDTO changes = productService.getProductChanges(since, limit);
+        return ResponseEntity.ok(ApiResponse.success(changes));
     }
     
     @GetMapping("/{id}")
     @Operation(summary = "Obtener producto por ID")
-    public ResponseEntity<ApiResponse<ProductDTO>> getProductById(@PathVariable String id) {
+    public ResponseEntity<ApiResponse<ProductDTO>> getProductById(@PathVariable String id, WebRequest webRequest) {
         ProductDTO product = productService.getProductById(id);
-        return ResponseEntity.ok(ApiResponse.success(product));
+        String etag = ETags.forRepresentation(ETags.fromUpdatedAt(product.getUpdatedAt()), webRequest);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return revalidated().body(ApiResponse.success(product));
     }
     
     @GetMapping("/category/{category}")
     @Operation(summary = "Obtener productos por categoría")
     public ResponseEntity<ApiResponse<List<ProductDTO>>> getProductsByCategory(
-            @PathVariable Product.ProductCategory category) {
+            @PathVariable Product.ProductCategory category,
+            WebRequest webRequest) {
+        if (isCatalogNotModified(webRequest)) {
+            return null;
+        }
         List<ProductDTO> products = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(ApiResponse.success(products));
+        return revalidated().body(ApiResponse.success(products));
     }
     
     @GetMapping("/search")
-    @Operation(summary = "Buscar productos")
+    @Operation(summary = "Buscar productos",
+            description = "Resultados ordenados por relevancia; el total de coincidencias va en " + TOTAL_COUNT_HEADER)
     public ResponseEntity<ApiResponse<List<ProductDTO>>> searchProducts(
-            @RequestParam String query) {
-        List<ProductDTO> products = productService.searchProducts(query);
-        return ResponseEntity.ok(ApiResponse.success(products));
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+            WebRequest webRequest) {
+        if (isCatalogNotModified(webRequest)) {
+            return null;
+        }
+        Page<ProductDTO> results = productService.searchProducts(query, page, size);
+        return revalidated()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(results.getTotalElements()))
+                .body(ApiResponse.success(results.getContent()));
+    }
+    
+    @GetMapping("/suggest")
+    @Operation(summary = "Sugerencias de búsqueda por prefijo, ordenadas por unidades vendidas")
+    public ResponseEntity<ApiResponse<List<String>>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "" + ProductSuggestionIndex.MAX_SUGGESTIONS) int limit) {
+        List<String> suggestions = productService.suggestProducts(prefix, limit);
+        return ResponseEntity.ok(ApiResponse.success(suggestions));
     }
     
     @GetMapping("/organic")
     @Operation(summary = "Obtener productos orgánicos")
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> getOrganicProducts() {
+    public ResponseEntity<ApiResponse<List<ProductDTO>>> getOrganicProducts(WebRequest webRequest) {
+        if (isCatalogNotModified(webRequest)) {
+            return null;
+        }
         List<ProductDTO> products = productService.getOrganicProducts();
-        return ResponseEntity.ok(ApiResponse.success(products));
+        return revalidated().body(ApiResponse.success(products));
     }
     
     @PostMapping
@@ -83,4 +176,19 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.ok(ApiResponse.success("Producto eliminado exitosamente", null));
     }
+    
+    // Compara If-None-Match con la versión del catálogo antes de consultar nada; si no coincide,
+    // deja el ETag puesto en la respuesta
+    private boolean isCatalogNotModified(WebRequest webRequest) {
+        String etag = collectionVersions.etag(CollectionVersions.Collection.PRODUCTS);
+        return webRequest.checkNotModified(ETags.forRepresentation(etag, webRequest));
+    }
+    
+    // El cliente puede guardar la respuesta pero debe revalidarla con el ETag antes de usarla;
+    // la representación depende de Accept (JSON, CBOR o Smile)
+    private static ResponseEntity.BodyBuilder revalidated() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT);
+    }
 }
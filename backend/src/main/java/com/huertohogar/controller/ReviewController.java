@@ -1,13 +1,17 @@
 package com.huertohogar.controller;
 
 import com.huertohogar.model.dto.ApiResponse;
+import com.huertohogar.model.dto.RatingSummaryDTO;
 import com.huertohogar.model.dto.ReviewDTO;
+import com.huertohogar.security.AuthenticatedUser;
+import com.huertohogar.service.RatingSummaryRepairJob;
 import com.huertohogar.service.ReviewService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -20,6 +24,7 @@ import java.util.List;
 public class ReviewController {
     
     private final ReviewService reviewService;
+    private final RatingSummaryRepairJob ratingSummaryRepairJob;
     
     @GetMapping("/product/{productId}")
     @Operation(summary = "Obtener reseñas de un producto")
@@ -35,14 +40,28 @@ public class ReviewController {
         return ResponseEntity.ok(ApiResponse.success(average));
     }
     
+    @GetMapping("/product/{productId}/summary")
+    @Operation(summary = "Obtener resumen de calificaciones de un producto (promedio, total y distribución por estrellas)")
+    public ResponseEntity<ApiResponse<RatingSummaryDTO>> getRatingSummary(@PathVariable String productId) {
+        RatingSummaryDTO summary = reviewService.getRatingSummary(productId);
+        return ResponseEntity.ok(ApiResponse.success(summary));
+    }
+    
+    @PostMapping("/summaries/rebuild")
+    @Operation(summary = "Recalcular los resúmenes de calificación desde las reseñas")
+    public ResponseEntity<ApiResponse<Integer>> rebuildRatingSummaries() {
+        int products = ratingSummaryRepairJob.rebuild();
+        return ResponseEntity.ok(ApiResponse.success("Resúmenes recalculados", products));
+    }
+    
     @PostMapping
     @Operation(summary = "Crear nueva reseña")
     public ResponseEntity<ApiResponse<ReviewDTO>> createReview(
-            @RequestHeader("X-User-Email") String userEmail,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestParam String productId,
             @RequestParam Integer rating,
             @RequestParam(required = false) String comment) {
-        ReviewDTO review = reviewService.createReview(productId, userEmail, rating, comment);
+        ReviewDTO review = reviewService.createReview(productId, user, rating, comment);
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Reseña creada exitosamente", review));
     }
@@ -51,10 +70,10 @@ public class ReviewController {
     @Operation(summary = "Actualizar reseña")
     public ResponseEntity<ApiResponse<ReviewDTO>> updateReview(
             @PathVariable Long reviewId,
-            @RequestHeader("X-User-Email") String userEmail,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @RequestParam Integer rating,
             @RequestParam(required = false) String comment) {
-        ReviewDTO review = reviewService.updateReview(reviewId, userEmail, rating, comment);
+        ReviewDTO review = reviewService.updateReview(reviewId, user, rating, comment);
         return ResponseEntity.ok(ApiResponse.success("Reseña actualizada exitosamente", review));
     }
     
@@ -62,8 +81,8 @@ public class ReviewController {
     @Operation(summary = "Eliminar reseña")
     public ResponseEntity<ApiResponse<Void>> deleteReview(
             @PathVariable Long reviewId,
-            @RequestHeader("X-User-Email") String userEmail) {
-        reviewService.deleteReview(reviewId, userEmail);
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        reviewService.deleteReview(reviewId, user);
         return ResponseEntity.ok(ApiResponse.success("Reseña eliminada exitosamente", null));
     }
 }
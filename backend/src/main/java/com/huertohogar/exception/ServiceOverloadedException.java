@@ -0,0 +1,9 @@
+package com.huertohogar.exception;
+
+// Se traduce a 503: el servidor rechaza trabajo antes de encolarlo sin límite
+public class ServiceOverloadedException extends RuntimeException {
+    
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -19,4 +19,5 @@ public class BlogPostDTO {
     private String category;
     private Integer readTime;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
 }
@@ -0,0 +1,60 @@
+package com.huertohogar.model.dto;
+
+import com.huertohogar.model.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEvent {
+    
+    // Id de la fila en outbox_events: creciente por pedido, lo asigna el relay al despachar
+    private Long eventId;
+    private Type type;
+    private String orderId;
+    private String userEmail;
+    private Order.OrderStatus previousStatus;
+    private Order.OrderStatus status;
+    private Double totalAmount;
+    private String region;
+    private String trackingNumber;
+    private String paymentId;
+    // Solo en ORDER_REJECTED: por qué el checkout asíncrono no pudo crear el pedido
+    private String reason;
+    private LocalDateTime occurredAt;
+    
+    public static OrderEvent of(Type type, Order order, Order.OrderStatus previousStatus) {
+        OrderEvent event = new OrderEvent();
+        event.setType(type);
+        event.setOrderId(order.getOrderId());
+        event.setUserEmail(order.getUser().getEmail());
+        event.setPreviousStatus(previousStatus);
+        event.setStatus(order.getStatus());
+        event.setTotalAmount(order.getTotalAmount());
+        event.setRegion(order.getRegion());
+        event.setTrackingNumber(order.getTrackingNumber());
+        event.setOccurredAt(LocalDateTime.now());
+        return event;
+    }
+    
+    public static OrderEvent rejected(String orderId, String userEmail, String reason) {
+        OrderEvent event = new OrderEvent();
+        event.setType(Type.ORDER_REJECTED);
+        event.setOrderId(orderId);
+        event.setUserEmail(userEmail);
+        event.setReason(reason);
+        event.setOccurredAt(LocalDateTime.now());
+        return event;
+    }
+    
+    public enum Type {
+        ORDER_CREATED,
+        ORDER_STATUS_CHANGED,
+        PAYMENT_PROCESSED,
+        ORDER_REJECTED
+    }
+}
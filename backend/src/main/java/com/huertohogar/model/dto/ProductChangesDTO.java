@@ -0,0 +1,21 @@
+package com.huertohogar.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangesDTO {
+    // Productos creados o modificados desde el token, y los eliminados
+    private List<ProductDTO> upserts;
+    private List<String> deletedIds;
+    private String nextToken;
+    // Hay más cambios: pedir de nuevo con nextToken antes de aplicar
+    private boolean hasMore;
+    // Sin token: la respuesta es el catálogo completo y reemplaza la copia local
+    private boolean reset;
+}
@@ -0,0 +1,17 @@
+package com.huertohogar.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingSummaryDTO {
+    private String productId;
+    private Double average;
+    private Long reviewCount;
+    private Map<Integer, Long> distribution;
+}
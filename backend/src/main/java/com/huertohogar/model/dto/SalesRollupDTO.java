@@ -0,0 +1,22 @@
+package com.huertohogar.model.dto;
+
+import com.huertohogar.model.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Fila del reporte de ventas; las dimensiones no agrupadas quedan en null
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollupDTO {
+    private LocalDate salesDate;
+    private String category;
+    private String region;
+    private Order.OrderStatus status;
+    private Double revenue;
+    private Long units;
+    private Long orders;
+}
@@ -0,0 +1,23 @@
+package com.huertohogar.model.dto;
+
+import com.huertohogar.model.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesSummaryDTO {
+    private LocalDate from;
+    private LocalDate to;
+    // Sin pedidos cancelados
+    private Double revenue;
+    private Long units;
+    private Long orders;
+    private Double averageOrderValue;
+    private Map<Order.OrderStatus, Long> ordersByStatus;
+}
@@ -0,0 +1,50 @@
+package com.huertohogar.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Pedido aceptado por el checkout asíncrono que aún no existe en orders.
+// Al crearse el pedido la fila se elimina; si se rechaza, queda con el motivo para consultarlo
+@Entity
+@Table(name = "checkout_requests", indexes = {
+        @Index(name = "idx_checkout_requests_status_created", columnList = "status, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutRequest {
+    
+    // Será el id del pedido: el cliente lo recibe en el 202
+    @Id
+    @Column(name = "order_id", length = 36)
+    private String orderId;
+    
+    @Column(name = "user_email", nullable = false, length = 100)
+    private String userEmail;
+    
+    // CreateOrderRequest en JSON
+    @Column(nullable = false, length = 4000)
+    private String payload;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+    
+    @Column(length = 500)
+    private String reason;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+    
+    public enum Status {
+        PENDING,
+        REJECTED
+    }
+}
@@ -0,0 +1,54 @@
+package com.huertohogar.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_records", indexes = {
+        @Index(name = "idx_idempotency_records_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    
+    // SHA-256 del usuario, la ruta y la Idempotency-Key
+    @Id
+    @Column(length = 64)
+    private String id;
+    
+    // SHA-256 del cuerpo: la misma clave con otro cuerpo es un error del cliente
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    
+    @Column(nullable = false)
+    private Boolean completed = false;
+    
+    @Column(name = "status_code")
+    private Integer statusCode;
+    
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+    
+    @Column(length = 500)
+    private String location;
+    
+    @Column(name = "preference_applied", length = 100)
+    private String preferenceApplied;
+    
+    @Lob
+    @Column(name = "response_body")
+    private byte[] responseBody;
+    
+    // Mientras está en curso es el plazo de la reserva; una vez completada, el fin del TTL
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    // null mientras no se ha insertado: save() hace persist y una clave duplicada falla
+    @Version
+    private Long version;
+}
@@ -6,7 +6,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_order_id", columnList = "order_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -26,6 +28,11 @@ public class OrderItem {
     @Column(name = "product_name", nullable = false, length = 200)
     private String productName;
     
+    // Categoría del producto al venderse; los acumulados de ventas usan esta y no la actual del producto
+    @Enumerated(EnumType.STRING)
+    @Column(length = 50)
+    private Product.ProductCategory category;
+    
     @Column(nullable = false)
     private Integer quantity;
     
@@ -0,0 +1,52 @@
+package com.huertohogar.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_pending", columnList = "dispatched_at, failed, id"),
+        @Index(name = "idx_outbox_events_aggregate_pending", columnList = "aggregate_id, dispatched_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "aggregate_id", nullable = false, length = 100)
+    private String aggregateId;
+    
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+    
+    @Column(nullable = false, length = 4000)
+    private String payload;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "dispatched_at")
+    private LocalDateTime dispatchedAt;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+    
+    // Plazo del relay que tomó el evento; vencido, otro relay lo puede volver a tomar
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+    
+    // Superó el máximo de intentos: deja de bloquear al resto de los eventos del pedido
+    @Column(nullable = false)
+    private Boolean failed = false;
+}
@@ -11,7 +11,12 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_products_updated_at_id", columnList = "updated_at, id"),
+    @Index(name = "idx_products_category", columnList = "category"),
+    @Index(name = "idx_products_is_organic", columnList = "is_organic")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
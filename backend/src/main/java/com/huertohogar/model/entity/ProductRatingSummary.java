@@ -0,0 +1,39 @@
+package com.huertohogar.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "product_rating_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRatingSummary {
+    
+    @Id
+    @Column(name = "product_id", length = 100)
+    private String productId;
+    
+    @Column(name = "review_count", nullable = false)
+    private Long reviewCount = 0L;
+    
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+    
+    @Column(name = "one_star", nullable = false)
+    private Long oneStar = 0L;
+    
+    @Column(name = "two_stars", nullable = false)
+    private Long twoStars = 0L;
+    
+    @Column(name = "three_stars", nullable = false)
+    private Long threeStars = 0L;
+    
+    @Column(name = "four_stars", nullable = false)
+    private Long fourStars = 0L;
+    
+    @Column(name = "five_stars", nullable = false)
+    private Long fiveStars = 0L;
+}
@@ -0,0 +1,27 @@
+package com.huertohogar.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Registro de un producto eliminado, para que la sincronización incremental lo informe.
+// Los IDs son UUID y no se reutilizan
+@Entity
+@Table(name = "product_tombstones", indexes = {
+    @Index(name = "idx_product_tombstones_deleted_at_id", columnList = "deleted_at, product_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductTombstone {
+    
+    @Id
+    @Column(name = "product_id")
+    private String productId;
+    
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,56 @@
+package com.huertohogar.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Ventas acumuladas por día × categoría × región × estado del pedido.
+// La categoría ALL_CATEGORIES suma el pedido completo: un pedido con productos de dos
+// categorías cuenta una vez en cada una y una vez en ALL_CATEGORIES
+@Entity
+@Table(name = "sales_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollup {
+    
+    public static final String ALL_CATEGORIES = "*";
+    public static final String UNKNOWN_CATEGORY = "DESCONOCIDA";
+    public static final String UNKNOWN_REGION = "Sin región";
+    
+    @EmbeddedId
+    private Key id;
+    
+    @Column(nullable = false)
+    private Double revenue = 0.0;
+    
+    @Column(nullable = false)
+    private Long units = 0L;
+    
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+    
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        
+        @Column(name = "sales_date", nullable = false)
+        private LocalDate salesDate;
+        
+        @Column(nullable = false, length = 50)
+        private String category;
+        
+        @Column(nullable = false, length = 100)
+        private String region;
+        
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false, length = 50)
+        private Order.OrderStatus status;
+    }
+}
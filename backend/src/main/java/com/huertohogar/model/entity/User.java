@@ -1,5 +1,6 @@
 package com.huertohogar.model.entity;
 
+import com.huertohogar.util.JwtUtil;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -46,6 +47,10 @@ public class User {
     @Column(name = "is_active")
     private Boolean isActive = true;
     
+    // Rol que el login firma en el token (USER o ADMIN)
+    @Column(nullable = false, length = 20)
+    private String role = JwtUtil.DEFAULT_ROLE;
+    
     @CreatedDate
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,36 @@
+package com.huertohogar.repository;
+
+import com.huertohogar.model.entity.CheckoutRequest;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CheckoutRequestRepository extends JpaRepository<CheckoutRequest, String> {
+    
+    // Reclama las solicitudes del lote: si otro proceso ya las tomó, no vuelven como pendientes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CheckoutRequest c WHERE c.orderId IN :ids AND c.status = 'PENDING' ORDER BY c.createdAt, c.orderId")
+    List<CheckoutRequest> findPendingForUpdate(@Param("ids") Collection<String> ids);
+    
+    @Query("SELECT c.orderId FROM CheckoutRequest c WHERE c.status = 'PENDING' AND c.createdAt < :before ORDER BY c.createdAt")
+    List<String> findPendingIdsCreatedBefore(@Param("before") LocalDateTime before, Limit limit);
+    
+    Optional<CheckoutRequest> findByOrderIdAndUserEmail(String orderId, String userEmail);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CheckoutRequest c WHERE c.status = 'REJECTED' AND c.processedAt < :before")
+    int deleteRejectedBefore(@Param("before") LocalDateTime before);
+}
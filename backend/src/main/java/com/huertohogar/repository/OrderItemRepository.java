@@ -1,11 +1,13 @@
 package com.huertohogar.repository;
 
 import com.huertohogar.model.entity.OrderItem;
+import com.huertohogar.model.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,4 +17,27 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, String> {
     
     @Query("SELECT oi FROM OrderItem oi WHERE oi.order.orderId = :orderId")
     List<OrderItem> findByOrderId(@Param("orderId") String orderId);
+    
+    @Query("SELECT oi FROM OrderItem oi WHERE oi.order.orderId IN :orderIds")
+    List<OrderItem> findByOrderIds(@Param("orderIds") Collection<String> orderIds);
+    
+    @Query("SELECT oi.productId AS productId, SUM(oi.quantity) AS unitsSold " +
+           "FROM OrderItem oi GROUP BY oi.productId")
+    List<ProductUnitsSold> sumUnitsSoldByProduct();
+    
+    // Totales de un pedido por categoría; null si el producto ya no existe
+    @Query("SELECT oi.category AS category, SUM(oi.totalPrice) AS revenue, SUM(oi.quantity) AS units " +
+           "FROM OrderItem oi WHERE oi.order.orderId = :orderId GROUP BY oi.category")
+    List<CategoryTotals> sumByCategoryForOrder(@Param("orderId") String orderId);
+    
+    interface ProductUnitsSold {
+        String getProductId();
+        Long getUnitsSold();
+    }
+    
+    interface CategoryTotals {
+        Product.ProductCategory getCategory();
+        Double getRevenue();
+        Long getUnits();
+    }
 }
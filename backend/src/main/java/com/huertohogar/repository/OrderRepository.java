@@ -2,7 +2,11 @@ package com.huertohogar.repository;
 
 import com.huertohogar.model.entity.Order;
 import com.huertohogar.model.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,7 +22,20 @@ public interface OrderRepository extends JpaRepository<Order, String> {
     @Query("SELECT o FROM Order o WHERE o.user.email = :email ORDER BY o.orderDate DESC")
     List<Order> findByUserEmailOrderByOrderDateDesc(@Param("email") String email);
     
+    // Slice evita la consulta COUNT: pide una fila extra para saber si hay página siguiente
+    @Query("SELECT o FROM Order o WHERE o.user.email = :email ORDER BY o.orderDate DESC, o.orderId DESC")
+    Slice<Order> findPageByUserEmail(@Param("email") String email, Pageable pageable);
+    
     Optional<Order> findByOrderIdAndUser(String orderId, User user);
     
+    @Query("SELECT o FROM Order o WHERE o.orderId = :orderId AND o.user.email = :email")
+    Optional<Order> findByOrderIdAndUserEmail(@Param("orderId") String orderId, @Param("email") String email);
+    
     List<Order> findByStatus(Order.OrderStatus status);
+    
+    // Cambios de estado concurrentes del mismo pedido se aplican uno tras otro: cada evento del outbox
+    // lleva como estado anterior el que dejó el cambio previo
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderId = :orderId")
+    Optional<Order> findByIdForUpdate(@Param("orderId") String orderId);
 }
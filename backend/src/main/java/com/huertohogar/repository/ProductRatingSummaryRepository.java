@@ -0,0 +1,32 @@
+package com.huertohogar.repository;
+
+import com.huertohogar.model.entity.ProductRatingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductRatingSummaryRepository extends JpaRepository<ProductRatingSummary, String> {
+    
+    // Ajuste atómico en la base de datos, sin leer la fila antes
+    @Modifying
+    @Query("UPDATE ProductRatingSummary s SET " +
+           "s.reviewCount = s.reviewCount + :countDelta, " +
+           "s.ratingSum = s.ratingSum + :sumDelta, " +
+           "s.oneStar = s.oneStar + :oneStar, " +
+           "s.twoStars = s.twoStars + :twoStars, " +
+           "s.threeStars = s.threeStars + :threeStars, " +
+           "s.fourStars = s.fourStars + :fourStars, " +
+           "s.fiveStars = s.fiveStars + :fiveStars " +
+           "WHERE s.productId = :productId")
+    int adjust(@Param("productId") String productId,
+               @Param("countDelta") long countDelta,
+               @Param("sumDelta") long sumDelta,
+               @Param("oneStar") long oneStar,
+               @Param("twoStars") long twoStars,
+               @Param("threeStars") long threeStars,
+               @Param("fourStars") long fourStars,
+               @Param("fiveStars") long fiveStars);
+}
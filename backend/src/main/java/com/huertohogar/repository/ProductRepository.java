@@ -1,17 +1,51 @@
 package com.huertohogar.repository;
 
 import com.huertohogar.model.entity.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, String> {
     
+    List<Product> findAllByOrderByCreatedAtAscIdAsc(Limit limit);
+    
+    @Query("SELECT p FROM Product p WHERE p.createdAt > :createdAt " +
+           "OR (p.createdAt = :createdAt AND p.id > :id) " +
+           "ORDER BY p.createdAt ASC, p.id ASC")
+    List<Product> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") String id,
+                                Limit limit);
+    
+    List<Product> findAllByOrderByUpdatedAtAscIdAsc(Limit limit);
+    
+    @Query("SELECT p FROM Product p WHERE p.updatedAt > :updatedAt " +
+           "OR (p.updatedAt = :updatedAt AND p.id > :id) " +
+           "ORDER BY p.updatedAt ASC, p.id ASC")
+    List<Product> findChangedAfter(@Param("updatedAt") LocalDateTime updatedAt,
+                                   @Param("id") String id,
+                                   Limit limit);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.createdAt ASC, p.id ASC")
+    Stream<Product> streamAllOrdered();
+    
     List<Product> findByCategory(Product.ProductCategory category);
     
     List<Product> findByIsOrganicTrue();
@@ -25,4 +59,9 @@ public interface ProductRepository extends JpaRepository<Product, String> {
     List<Product> findAvailableProducts();
     
     Optional<Product> findByIdAndStockGreaterThan(String id, Double stock);
+    
+    // Bloquea las filas en orden de ID para que pedidos concurrentes no se bloqueen mutuamente
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,22 @@
+package com.huertohogar.repository;
+
+import com.huertohogar.model.entity.ProductTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, String> {
+    
+    @Query("SELECT t FROM ProductTombstone t WHERE t.deletedAt > :deletedAt " +
+           "OR (t.deletedAt = :deletedAt AND t.productId > :productId) " +
+           "ORDER BY t.deletedAt ASC, t.productId ASC")
+    List<ProductTombstone> findDeletedAfter(@Param("deletedAt") LocalDateTime deletedAt,
+                                            @Param("productId") String productId,
+                                            Limit limit);
+}
@@ -3,7 +3,6 @@ package com.huertohogar.repository;
 import com.huertohogar.model.entity.Review;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,11 +13,25 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     
     List<Review> findByProductIdOrderByCreatedAtDesc(String productId);
     
-    @Query("SELECT AVG(r.rating) FROM Review r WHERE r.productId = :productId")
-    Double getAverageRatingByProductId(@Param("productId") String productId);
-    
     Optional<Review> findByProductIdAndUserEmail(String productId, String userEmail);
     
-    @Query("SELECT COUNT(r) FROM Review r WHERE r.productId = :productId")
-    Long countByProductId(@Param("productId") String productId);
+    @Query("SELECT r.productId AS productId, COUNT(r) AS reviewCount, SUM(r.rating) AS ratingSum, " +
+           "SUM(CASE WHEN r.rating = 1 THEN 1 ELSE 0 END) AS oneStar, " +
+           "SUM(CASE WHEN r.rating = 2 THEN 1 ELSE 0 END) AS twoStars, " +
+           "SUM(CASE WHEN r.rating = 3 THEN 1 ELSE 0 END) AS threeStars, " +
+           "SUM(CASE WHEN r.rating = 4 THEN 1 ELSE 0 END) AS fourStars, " +
+           "SUM(CASE WHEN r.rating = 5 THEN 1 ELSE 0 END) AS fiveStars " +
+           "FROM Review r GROUP BY r.productId")
+    List<RatingAggregate> aggregateRatingsByProduct();
+    
+    interface RatingAggregate {
+        String getProductId();
+        Long getReviewCount();
+        Long getRatingSum();
+        Long getOneStar();
+        Long getTwoStars();
+        Long getThreeStars();
+        Long getFourStars();
+        Long getFiveStars();
+    }
 }
@@ -0,0 +1,60 @@
+package com.huertohogar.repository;
+
+import com.huertohogar.model.entity.Order;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollup.Key> {
+    
+    // Ajuste atómico en la base de datos, sin leer la fila antes. Nativa: Hibernate tipa la suma
+    // de un parámetro double con un CAST que H2 no acepta
+    @Modifying
+    @Query(value = "UPDATE sales_rollups SET revenue = revenue + :revenue, units = units + :units, " +
+                   "order_count = order_count + :orders " +
+                   "WHERE sales_date = :salesDate AND category = :category AND region = :region AND status = :status",
+           nativeQuery = true)
+    int adjust(@Param("salesDate") LocalDate salesDate,
+               @Param("category") String category,
+               @Param("region") String region,
+               @Param("status") String status,
+               @Param("revenue") double revenue,
+               @Param("units") long units,
+               @Param("orders") long orders);
+    
+    // Reconstrucción desde orders y order_items: por categoría del ítem al venderse y por pedido completo
+    @Query("SELECT CAST(o.orderDate AS LocalDate) AS salesDate, oi.category AS category, o.region AS region, " +
+           "o.status AS status, SUM(oi.totalPrice) AS revenue, SUM(oi.quantity) AS units, " +
+           "COUNT(DISTINCT o.orderId) AS orders " +
+           "FROM OrderItem oi JOIN oi.order o " +
+           "GROUP BY CAST(o.orderDate AS LocalDate), oi.category, o.region, o.status")
+    List<CategoryRollupAggregate> aggregateByCategory();
+    
+    @Query("SELECT CAST(o.orderDate AS LocalDate) AS salesDate, o.region AS region, o.status AS status, " +
+           "SUM(oi.totalPrice) AS revenue, SUM(oi.quantity) AS units, COUNT(DISTINCT o.orderId) AS orders " +
+           "FROM OrderItem oi JOIN oi.order o " +
+           "GROUP BY CAST(o.orderDate AS LocalDate), o.region, o.status")
+    List<RollupAggregate> aggregateAllCategories();
+    
+    interface RollupAggregate {
+        LocalDate getSalesDate();
+        String getRegion();
+        Order.OrderStatus getStatus();
+        Double getRevenue();
+        Long getUnits();
+        Long getOrders();
+    }
+    
+    interface CategoryRollupAggregate extends RollupAggregate {
+        // Null en ítems anteriores a order_items.category cuyo producto ya no existía
+        Product.ProductCategory getCategory();
+    }
+}
@@ -2,7 +2,11 @@ package com.huertohogar.repository;
 
 import com.huertohogar.model.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -14,4 +18,12 @@ public interface UserRepository extends JpaRepository<User, String> {
     Boolean existsByEmail(String email);
     
     Optional<User> findByEmailAndIsActiveTrue(String email);
+    
+    // Solo reemplaza el hash si nadie lo cambió desde que se leyó
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.email = :email AND u.password = :currentHash")
+    int replacePassword(@Param("email") String email,
+                        @Param("currentHash") String currentHash,
+                        @Param("newHash") String newHash);
 }
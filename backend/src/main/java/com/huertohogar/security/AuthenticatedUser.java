@@ -0,0 +1,35 @@
+package com.huertohogar.security;
+
+import com.huertohogar.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import lombok.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+// Identidad tomada del JWT: no requiere consultar la tabla users
+@Value
+public class AuthenticatedUser {
+    
+    String email;
+    List<String> roles;
+    
+    public static AuthenticatedUser from(Claims claims) {
+        List<?> rawRoles = claims.get(JwtUtil.ROLES_CLAIM, List.class);
+        List<String> roles = rawRoles == null
+                ? List.of(JwtUtil.DEFAULT_ROLE)
+                : rawRoles.stream().map(String::valueOf).toList();
+        return new AuthenticatedUser(claims.getSubject(), roles);
+    }
+    
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+    
+    public List<GrantedAuthority> getAuthorities() {
+        return roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                .toList();
+    }
+}
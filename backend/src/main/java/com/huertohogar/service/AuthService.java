@@ -1,5 +1,6 @@
 package com.huertohogar.service;
 
+import com.huertohogar.exception.ServiceOverloadedException;
 import com.huertohogar.model.dto.AuthRequest;
 import com.huertohogar.model.dto.AuthResponse;
 import com.huertohogar.model.dto.RegisterRequest;
@@ -7,41 +8,70 @@ import com.huertohogar.model.dto.UserDTO;
 import com.huertohogar.model.entity.User;
 import com.huertohogar.repository.UserRepository;
 import com.huertohogar.util.JwtUtil;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Las consultas corren en el hilo de la petición; el hash, en PasswordHashingService.
+// Por eso no hay @Transactional de clase: la transacción terminaría antes que el hash.
+// Lo que sigue al hash vuelve a applicationTaskExecutor: una consulta lenta en el pool de hash
+// lo llenaría y /auth respondería 503 sin que BCrypt estuviera saturado
+@Slf4j
 @Service
-@RequiredArgsConstructor
-@Transactional
 public class AuthService {
     
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final TransactionTemplate transactionTemplate;
     private final JwtUtil jwtUtil;
+    private final Executor taskExecutor;
+    
+    public AuthService(UserRepository userRepository,
+                       PasswordHashingService passwordHashingService,
+                       TransactionTemplate transactionTemplate,
+                       JwtUtil jwtUtil,
+                       @Qualifier("applicationTaskExecutor") Executor taskExecutor) {
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.transactionTemplate = transactionTemplate;
+        this.jwtUtil = jwtUtil;
+        this.taskExecutor = taskExecutor;
+    }
     
-    public AuthResponse register(RegisterRequest request) {
+    public CompletableFuture<AuthResponse> register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("El email ya está registrado");
         }
         
-        User user = new User();
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setFullName(request.getFullName());
-        user.setLoyaltyPoints(0);
-        user.setIsActive(true);
-        
-        User saved = userRepository.save(user);
-        
-        String token = jwtUtil.generateToken(saved.getEmail());
-        UserDTO userDTO = toUserDTO(saved);
-        
-        return new AuthResponse(token, userDTO);
+        return passwordHashingService.encode(request.getPassword())
+                .thenApplyAsync(passwordHash -> transactionTemplate.execute(status -> {
+                    // Se vuelve a comprobar: otro registro pudo entrar mientras se calculaba el hash
+                    if (userRepository.existsByEmail(request.getEmail())) {
+                        throw new RuntimeException("El email ya está registrado");
+                    }
+                    
+                    User user = new User();
+                    user.setEmail(request.getEmail());
+                    user.setPassword(passwordHash);
+                    user.setFullName(request.getFullName());
+                    user.setLoyaltyPoints(0);
+                    user.setIsActive(true);
+                    
+                    User saved = userRepository.save(user);
+                    
+                    String token = jwtUtil.generateToken(saved.getEmail(), List.of(saved.getRole()));
+                    UserDTO userDTO = toUserDTO(saved);
+                    
+                    return new AuthResponse(token, userDTO);
+                }), taskExecutor);
     }
     
-    public AuthResponse login(AuthRequest request) {
+    public CompletableFuture<AuthResponse> login(AuthRequest request) {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("Credenciales inválidas"));
         
@@ -49,14 +79,35 @@ public class AuthService {
             throw new RuntimeException("Usuario inactivo");
         }
         
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            throw new RuntimeException("Credenciales inválidas");
+        String storedHash = user.getPassword();
+        return passwordHashingService.matches(request.getPassword(), storedHash)
+                .thenApplyAsync(matches -> {
+                    if (!matches) {
+                        throw new RuntimeException("Credenciales inválidas");
+                    }
+                    if (passwordHashingService.needsUpgrade(storedHash)) {
+                        upgradePasswordHash(user.getEmail(), storedHash, request.getPassword());
+                    }
+                    
+                    String token = jwtUtil.generateToken(user.getEmail(), List.of(user.getRole()));
+                    UserDTO userDTO = toUserDTO(user);
+                    
+                    return new AuthResponse(token, userDTO);
+                }, taskExecutor);
+    }
+    
+    // Rehace el hash con el costo vigente sin demorar la respuesta del login
+    private void upgradePasswordHash(String email, String currentHash, String rawPassword) {
+        try {
+            passwordHashingService.encode(rawPassword)
+                    .thenAcceptAsync(newHash -> userRepository.replacePassword(email, currentHash, newHash), taskExecutor)
+                    .exceptionally(e -> {
+                        log.warn("No se pudo actualizar el hash de contraseña de {}: {}", email, e.getMessage());
+                        return null;
+                    });
+        } catch (ServiceOverloadedException e) {
+            // Con la cola llena se posterga hasta el próximo login
         }
-        
-        String token = jwtUtil.generateToken(user.getEmail());
-        UserDTO userDTO = toUserDTO(user);
-        
-        return new AuthResponse(token, userDTO);
     }
     
     private UserDTO toUserDTO(User user) {
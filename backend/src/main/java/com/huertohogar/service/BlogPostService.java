@@ -1,5 +1,6 @@
 package com.huertohogar.service;
 
+import com.huertohogar.config.ReplicaRoutingDataSource;
 import com.huertohogar.model.dto.BlogPostDTO;
 import com.huertohogar.model.entity.BlogPost;
 import com.huertohogar.repository.BlogPostRepository;
@@ -17,23 +18,30 @@ import java.util.stream.Collectors;
 public class BlogPostService {
     
     private final BlogPostRepository blogPostRepository;
+    private final CollectionVersions collectionVersions;
     
+    // Los listados salen con el ETag del blog, que ya cuenta la última escritura: se leen de la primaria
+    @Transactional(readOnly = true)
     public List<BlogPostDTO> getAllPosts() {
-        return blogPostRepository.findAllOrderByPublishedDateDesc().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return ReplicaRoutingDataSource.readFromPrimary(() ->
+                blogPostRepository.findAllOrderByPublishedDateDesc().stream()
+                        .map(this::toDTO)
+                        .collect(Collectors.toList()));
     }
     
+    @Transactional(readOnly = true)
     public BlogPostDTO getPostById(String id) {
         BlogPost post = blogPostRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Post no encontrado: " + id));
         return toDTO(post);
     }
     
+    @Transactional(readOnly = true)
     public List<BlogPostDTO> getPostsByCategory(String category) {
-        return blogPostRepository.findByCategoryOrderByPublishedDateDesc(category).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return ReplicaRoutingDataSource.readFromPrimary(() ->
+                blogPostRepository.findByCategoryOrderByPublishedDateDesc(category).stream()
+                        .map(this::toDTO)
+                        .collect(Collectors.toList()));
     }
     
     public BlogPostDTO createPost(BlogPostDTO postDTO) {
@@ -42,6 +50,7 @@ public class BlogPostService {
             post.setPublishedDate(LocalDateTime.now());
         }
         BlogPost saved = blogPostRepository.save(post);
+        collectionVersions.bump(CollectionVersions.Collection.BLOG_POSTS);
         return toDTO(saved);
     }
     
@@ -57,6 +66,7 @@ public class BlogPostService {
         post.setReadTime(postDTO.getReadTime());
         
         BlogPost updated = blogPostRepository.save(post);
+        collectionVersions.bump(CollectionVersions.Collection.BLOG_POSTS);
         return toDTO(updated);
     }
     
@@ -65,6 +75,7 @@ public class BlogPostService {
             throw new RuntimeException("Post no encontrado: " + id);
         }
         blogPostRepository.deleteById(id);
+        collectionVersions.bump(CollectionVersions.Collection.BLOG_POSTS);
     }
     
     private BlogPostDTO toDTO(BlogPost post) {
@@ -78,6 +89,7 @@ public class BlogPostService {
         dto.setCategory(post.getCategory());
         dto.setReadTime(post.getReadTime());
         dto.setCreatedAt(post.getCreatedAt());
+        dto.setUpdatedAt(post.getUpdatedAt());
         return dto;
     }
     
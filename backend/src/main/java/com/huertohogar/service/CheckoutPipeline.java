@@ -0,0 +1,380 @@
+package com.huertohogar.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huertohogar.exception.ServiceOverloadedException;
+import com.huertohogar.model.dto.CreateOrderRequest;
+import com.huertohogar.model.dto.OrderEvent;
+import com.huertohogar.model.dto.OrderItemRequest;
+import com.huertohogar.model.entity.CheckoutRequest;
+import com.huertohogar.model.entity.Order;
+import com.huertohogar.model.entity.OrderItem;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.CheckoutRequestRepository;
+import com.huertohogar.util.TransactionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Segunda etapa del checkout asíncrono. Mientras un hilo procesa un lote, la API sigue
+// aceptando pedidos en la cola; el lote siguiente toma todo lo acumulado (hasta batch-size).
+// Por lote: una consulta bloquea todos los productos involucrados, cada pedido se evalúa
+// en orden de llegada contra el stock restante (todo o nada por pedido), y el stock, los
+// pedidos y sus ítems se escriben con un batch JDBC por tabla
+@Slf4j
+@Component
+public class CheckoutPipeline {
+    
+    private static final String INSERT_ORDER_SQL =
+            "INSERT INTO orders (order_id, user_email, order_date, status, total_amount, shipping_address, " +
+            "city, region, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ORDER_ITEM_SQL =
+            "INSERT INTO order_items (order_item_id, order_id, product_id, product_name, category, quantity, " +
+            "unit_price, total_price) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String PROCESSING_ERROR = "No se pudo procesar el pedido, intenta nuevamente";
+    private static final int MAX_REASON_LENGTH = 500;
+    
+    private final CheckoutRequestRepository checkoutRequestRepository;
+    private final StockReservationService stockReservationService;
+    private final OutboxService outboxService;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final SalesRollupService salesRollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<String> queue;
+    private final ExecutorService workers;
+    private final boolean enabled;
+    private final int workerCount;
+    private final int batchSize;
+    private final Duration recoverAfter;
+    private final Duration retention;
+    private volatile boolean running = true;
+    
+    private final Counter completedCounter;
+    private final Counter rejectedCounter;
+    private final Timer batchTimer;
+    
+    public CheckoutPipeline(CheckoutRequestRepository checkoutRequestRepository,
+                            StockReservationService stockReservationService,
+                            OutboxService outboxService,
+                            ProductCatalogCache productCatalogCache,
+                            ProductSuggestionIndex productSuggestionIndex,
+                            SalesRollupService salesRollupService,
+                            JdbcTemplate jdbcTemplate,
+                            ObjectMapper objectMapper,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${checkout.async.enabled:false}") boolean enabled,
+                            @Value("${checkout.async.queue-capacity:10000}") int queueCapacity,
+                            @Value("${checkout.async.workers:1}") int workerCount,
+                            @Value("${checkout.async.batch-size:200}") int batchSize,
+                            @Value("${checkout.async.recover-after:PT1M}") Duration recoverAfter,
+                            @Value("${checkout.async.retention:P1D}") Duration retention) {
+        this.checkoutRequestRepository = checkoutRequestRepository;
+        this.stockReservationService = stockReservationService;
+        this.outboxService = outboxService;
+        this.productCatalogCache = productCatalogCache;
+        this.productSuggestionIndex = productSuggestionIndex;
+        this.salesRollupService = salesRollupService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = Executors.newFixedThreadPool(workerCount, new CustomizableThreadFactory("checkout-worker-"));
+        this.enabled = enabled;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.recoverAfter = recoverAfter;
+        this.retention = retention;
+        
+        this.completedCounter = Counter.builder("checkout.async.completed")
+                .description("Pedidos creados por el checkout asíncrono")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("checkout.async.rejected")
+                .description("Pedidos rechazados por el checkout asíncrono")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("checkout.async.batch")
+                .description("Duración de cada lote del checkout asíncrono")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("checkout.async.queue", queue, BlockingQueue::size)
+                .description("Pedidos aceptados esperando a ser procesados")
+                .register(meterRegistry);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    // Se consulta antes de aceptar: con la cola llena la API responde 503 en vez de encolar
+    public void checkCapacity() {
+        if (queue.remainingCapacity() == 0) {
+            throw new ServiceOverloadedException("Demasiados pedidos en proceso, intenta nuevamente en unos segundos");
+        }
+    }
+    
+    // Si la cola se llenó entre la verificación y el commit, la recuperación periódica lo retoma
+    public void submit(String orderId) {
+        if (!queue.offer(orderId)) {
+            log.warn("Cola del checkout llena; el pedido {} se procesará en la próxima recuperación", orderId);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::work);
+        }
+        // Lo que quedó pendiente de una ejecución anterior se procesa sin esperar
+        recoverPending(LocalDateTime.now());
+    }
+    
+    // Solicitudes aceptadas que nadie procesó: la instancia cayó o la cola estaba llena
+    @Scheduled(fixedDelayString = "${checkout.async.recovery-interval-ms:30000}")
+    public void recover() {
+        if (enabled) {
+            recoverPending(LocalDateTime.now().minus(recoverAfter));
+        }
+    }
+    
+    @Scheduled(cron = "${checkout.async.purge-cron:0 45 * * * *}")
+    public void purgeRejected() {
+        int deleted = checkoutRequestRepository.deleteRejectedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Solicitudes de checkout rechazadas eliminadas: {}", deleted);
+        }
+    }
+    
+    private void recoverPending(LocalDateTime createdBefore) {
+        if (queue.remainingCapacity() == 0) {
+            return;
+        }
+        List<String> pending = checkoutRequestRepository.findPendingIdsCreatedBefore(
+                createdBefore, Limit.of(queue.remainingCapacity()));
+        pending.forEach(queue::offer);
+        if (!pending.isEmpty()) {
+            log.info("Solicitudes de checkout pendientes reencoladas: {}", pending.size());
+        }
+    }
+    
+    private void work() {
+        while (running) {
+            try {
+                String first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<String> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                batchTimer.record(() -> process(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en el checkout asíncrono", e);
+            }
+        }
+    }
+    
+    // Un error de base de datos en el lote no debe arrastrar a todos: se reintenta pedido a pedido
+    private void process(List<String> orderIds) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> processBatch(orderIds));
+        } catch (RuntimeException e) {
+            if (orderIds.size() > 1) {
+                log.warn("Falló un lote de {} pedidos, se reintenta de a uno: {}", orderIds.size(), e.toString());
+                orderIds.forEach(orderId -> process(List.of(orderId)));
+            } else {
+                log.error("No se pudo procesar el pedido {}", orderIds.get(0), e);
+                transactionTemplate.executeWithoutResult(status -> checkoutRequestRepository
+                        .findPendingForUpdate(orderIds)
+                        .forEach(checkout -> reject(checkout, PROCESSING_ERROR)));
+            }
+        }
+    }
+    
+    private void processBatch(List<String> orderIds) {
+        List<CheckoutRequest> claimed = checkoutRequestRepository.findPendingForUpdate(orderIds);
+        if (claimed.isEmpty()) {
+            return;
+        }
+        Map<String, CreateOrderRequest> requests = new HashMap<>();
+        TreeSet<String> productIds = new TreeSet<>();
+        for (CheckoutRequest checkout : claimed) {
+            CreateOrderRequest request = readPayload(checkout);
+            requests.put(checkout.getOrderId(), request);
+            request.getItems().forEach(item -> productIds.add(item.getProductId()));
+        }
+        
+        // Un solo bloqueo por producto para todo el lote, en orden de ID
+        Map<String, Product> products = stockReservationService.lock(productIds);
+        Map<String, Double> remaining = new HashMap<>();
+        products.forEach((productId, product) -> remaining.put(productId, product.getStock()));
+        
+        SortedMap<String, Integer> reserved = new TreeMap<>();
+        List<Order> orders = new ArrayList<>(claimed.size());
+        List<String> completed = new ArrayList<>(claimed.size());
+        for (CheckoutRequest checkout : claimed) {
+            CreateOrderRequest request = requests.get(checkout.getOrderId());
+            SortedMap<String, Integer> quantities = new TreeMap<>();
+            request.getItems().forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+            
+            String reason = checkStock(quantities, products, remaining);
+            if (reason != null) {
+                reject(checkout, reason);
+                continue;
+            }
+            quantities.forEach((productId, quantity) -> {
+                remaining.merge(productId, -quantity.doubleValue(), Double::sum);
+                reserved.merge(productId, quantity, Integer::sum);
+            });
+            orders.add(buildOrder(checkout, request, products));
+            completed.add(checkout.getOrderId());
+        }
+        
+        if (!orders.isEmpty()) {
+            stockReservationService.decrement(reserved, products);
+            insertOrders(orders);
+            orders.forEach(order -> {
+                outboxService.append(OrderEvent.of(OrderEvent.Type.ORDER_CREATED, order, null));
+                salesRollupService.recordCreated(order);
+            });
+            checkoutRequestRepository.deleteAllByIdInBatch(completed);
+            
+            productCatalogCache.evict(reserved.keySet().stream().map(products::get).toList());
+            productSuggestionIndex.recordSales(reserved);
+        }
+        int accepted = orders.size();
+        int rejected = claimed.size() - accepted;
+        TransactionUtils.afterCommit(() -> {
+            completedCounter.increment(accepted);
+            rejectedCounter.increment(rejected);
+        });
+    }
+    
+    private String checkStock(SortedMap<String, Integer> quantities, Map<String, Product> products,
+                              Map<String, Double> remaining) {
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+            if (product == null) {
+                return "Producto no encontrado: " + entry.getKey();
+            }
+            if (remaining.get(entry.getKey()) < entry.getValue()) {
+                return "Stock insuficiente para: " + product.getName();
+            }
+        }
+        return null;
+    }
+    
+    // Precio vigente al procesar, leído de la fila bloqueada, como en el checkout síncrono
+    private Order buildOrder(CheckoutRequest checkout, CreateOrderRequest request, Map<String, Product> products) {
+        User user = new User();
+        user.setEmail(checkout.getUserEmail());
+        
+        Order order = new Order();
+        order.setOrderId(checkout.getOrderId());
+        order.setUser(user);
+        order.setOrderDate(checkout.getCreatedAt());
+        order.setStatus(Order.OrderStatus.PENDING);
+        order.setShippingAddress(request.getShippingAddress());
+        order.setCity(request.getCity());
+        order.setRegion(request.getRegion());
+        
+        double totalAmount = 0.0;
+        List<OrderItem> items = new ArrayList<>(request.getItems().size());
+        for (OrderItemRequest itemRequest : request.getItems()) {
+            Product product = products.get(itemRequest.getProductId());
+            OrderItem item = new OrderItem();
+            item.setOrderItemId(UUID.randomUUID().toString());
+            item.setOrder(order);
+            item.setProductId(product.getId());
+            item.setProductName(product.getName());
+            item.setCategory(product.getCategory());
+            item.setQuantity(itemRequest.getQuantity());
+            item.setUnitPrice(product.getPrice());
+            item.setTotalPrice(product.getPrice() * itemRequest.getQuantity());
+            totalAmount += item.getTotalPrice();
+            items.add(item);
+        }
+        order.setItems(items);
+        order.setTotalAmount(totalAmount);
+        return order;
+    }
+    
+    private void insertOrders(List<Order> orders) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> orderRows = new ArrayList<>(orders.size());
+        List<Object[]> itemRows = new ArrayList<>();
+        for (Order order : orders) {
+            order.setCreatedAt(now);
+            order.setUpdatedAt(now);
+            orderRows.add(new Object[]{order.getOrderId(), order.getUser().getEmail(), order.getOrderDate(),
+                    order.getStatus().name(), order.getTotalAmount(), order.getShippingAddress(), order.getCity(),
+                    order.getRegion(), now, now});
+            for (OrderItem item : order.getItems()) {
+                itemRows.add(new Object[]{item.getOrderItemId(), order.getOrderId(), item.getProductId(),
+                        item.getProductName(), item.getCategory() != null ? item.getCategory().name() : null,
+                        item.getQuantity(), item.getUnitPrice(), item.getTotalPrice()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ORDER_SQL, orderRows);
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM_SQL, itemRows);
+    }
+    
+    private void reject(CheckoutRequest checkout, String reason) {
+        checkout.setStatus(CheckoutRequest.Status.REJECTED);
+        checkout.setReason(reason.substring(0, Math.min(reason.length(), MAX_REASON_LENGTH)));
+        checkout.setProcessedAt(LocalDateTime.now());
+        outboxService.append(OrderEvent.rejected(checkout.getOrderId(), checkout.getUserEmail(), checkout.getReason()));
+    }
+    
+    private CreateOrderRequest readPayload(CheckoutRequest checkout) {
+        try {
+            return objectMapper.readValue(checkout.getPayload(), CreateOrderRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Solicitud de checkout ilegible: " + checkout.getOrderId(), e);
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        // Lo que quede en la cola sigue pendiente en la tabla y se recupera al volver a iniciar
+        running = false;
+        workers.shutdownNow();
+    }
+}
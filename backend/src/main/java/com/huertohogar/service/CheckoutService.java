@@ -0,0 +1,81 @@
+package com.huertohogar.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huertohogar.model.dto.CreateOrderRequest;
+import com.huertohogar.model.dto.OrderDTO;
+import com.huertohogar.model.entity.CheckoutRequest;
+import com.huertohogar.repository.CheckoutRequestRepository;
+import com.huertohogar.security.AuthenticatedUser;
+import com.huertohogar.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+
+// Primera etapa del checkout asíncrono: valida, guarda la solicitud y la encola.
+// El pedido lo crea CheckoutPipeline; mientras tanto la solicitud se consulta por el id del pedido
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class CheckoutService {
+    
+    public static final String RESPOND_ASYNC = "respond-async";
+    private static final int MAX_PAYLOAD_LENGTH = 4000;
+    
+    private final CheckoutRequestRepository checkoutRequestRepository;
+    private final CheckoutPipeline checkoutPipeline;
+    private final ObjectMapper objectMapper;
+    
+    // El cliente lo pide con "Prefer: respond-async" y el modo debe estar habilitado
+    public boolean isAsyncRequested(String prefer) {
+        return checkoutPipeline.isEnabled() && prefer != null
+                && Arrays.stream(prefer.split("[,;]")).map(String::trim).anyMatch(RESPOND_ASYNC::equalsIgnoreCase);
+    }
+    
+    public OrderDTO accept(AuthenticatedUser principal, CreateOrderRequest request) {
+        checkoutPipeline.checkCapacity();
+        
+        CheckoutRequest checkout = new CheckoutRequest();
+        checkout.setOrderId(UUID.randomUUID().toString());
+        checkout.setUserEmail(principal.getEmail());
+        checkout.setPayload(writePayload(request));
+        checkout.setCreatedAt(LocalDateTime.now());
+        checkoutRequestRepository.save(checkout);
+        
+        String orderId = checkout.getOrderId();
+        TransactionUtils.afterCommit(() -> checkoutPipeline.submit(orderId));
+        
+        OrderDTO accepted = new OrderDTO();
+        accepted.setOrderId(orderId);
+        accepted.setUserEmail(principal.getEmail());
+        accepted.setOrderDate(checkout.getCreatedAt());
+        accepted.setShippingAddress(request.getShippingAddress());
+        accepted.setCity(request.getCity());
+        accepted.setRegion(request.getRegion());
+        return accepted;
+    }
+    
+    // Pendiente o rechazada; una vez creado el pedido la solicitud ya no existe
+    @Transactional(readOnly = true)
+    public Optional<CheckoutRequest> findUnfinished(String orderId, AuthenticatedUser principal) {
+        return checkoutRequestRepository.findByOrderIdAndUserEmail(orderId, principal.getEmail());
+    }
+    
+    private String writePayload(CreateOrderRequest request) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el pedido", e);
+        }
+        if (payload.length() > MAX_PAYLOAD_LENGTH) {
+            throw new RuntimeException("El pedido tiene demasiados productos para el checkout asíncrono");
+        }
+        return payload;
+    }
+}
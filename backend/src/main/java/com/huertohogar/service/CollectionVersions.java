@@ -0,0 +1,121 @@
+package com.huertohogar.service;
+
+import com.huertohogar.util.TransactionUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Versión de cada colección pública, para responder If-None-Match sin consultar la base.
+// La versión vigente está en la tabla collection_versions, compartida por todas las instancias;
+// cada una guarda una copia en memoria que sube con sus propias escrituras y se actualiza cada
+// refresh-interval-ms con las de las demás. Se incrementa después de confirmar: incrementarla
+// antes dejaría que un lector etiquetara el estado anterior con la versión nueva
+@Slf4j
+@Component
+public class CollectionVersions {
+    
+    public enum Collection {
+        PRODUCTS,
+        BLOG_POSTS
+    }
+    
+    private static final String BUMP_SQL = "UPDATE collection_versions SET version = version + 1 WHERE name = ?";
+    private static final String SELECT_SQL = "SELECT version FROM collection_versions WHERE name = ?";
+    private static final String SELECT_ALL_SQL = "SELECT name, version FROM collection_versions";
+    
+    private final JdbcTemplate jdbcTemplate;
+    // Al confirmar, la conexión de la escritura sigue tomada hasta que termina la transacción: el
+    // incremento lo hace otro hilo, así la escritura no pide una segunda conexión al pool
+    private final ExecutorService publisher;
+    private final Map<Collection, AtomicLong> versions = new EnumMap<>(Collection.class);
+    // Escrituras confirmadas que aún no suben la versión compartida
+    private final Map<Collection, AtomicInteger> unpublished = new EnumMap<>(Collection.class);
+    private volatile boolean loaded;
+    
+    public CollectionVersions(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("collection-versions-");
+        threadFactory.setDaemon(true);
+        this.publisher = Executors.newSingleThreadExecutor(threadFactory);
+        for (Collection collection : Collection.values()) {
+            versions.put(collection, new AtomicLong());
+            unpublished.put(collection, new AtomicInteger());
+        }
+    }
+    
+    public void bump(Collection collection) {
+        TransactionUtils.afterCommit(() -> {
+            if (unpublished.get(collection).getAndIncrement() == 0) {
+                publisher.execute(() -> publish(collection));
+            }
+        });
+    }
+    
+    // Trae las versiones que subieron otras instancias; ese intervalo es lo más que una instancia
+    // puede responder 304 sobre un estado que otra ya cambió
+    @Scheduled(fixedDelayString = "${collection-versions.refresh-interval-ms:1000}")
+    public void refresh() {
+        try {
+            jdbcTemplate.query(SELECT_ALL_SQL, row -> {
+                for (Collection collection : Collection.values()) {
+                    if (collection.name().equals(row.getString("name"))) {
+                        advance(collection, row.getLong("version"));
+                    }
+                }
+            });
+            loaded = true;
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron leer las versiones de las colecciones", e);
+        }
+    }
+    
+    // Débil: Tomcat solo comprime respuestas sin ETag fuerte, y gzip cambia los bytes pero no el contenido.
+    // null mientras una escritura de esta instancia no sube la versión: sin ETag no hay 304
+    public String etag(Collection collection) {
+        if (!loaded) {
+            refresh();
+        }
+        if (unpublished.get(collection).get() > 0) {
+            return null;
+        }
+        return "W/\"" + collection.name().toLowerCase() + "-" + versions.get(collection).get() + "\"";
+    }
+    
+    // Varias escrituras seguidas suben la versión una sola vez: basta con que cambie
+    private void publish(Collection collection) {
+        AtomicInteger pending = unpublished.get(collection);
+        int taken = pending.get();
+        try {
+            jdbcTemplate.update(BUMP_SQL, collection.name());
+            advance(collection, jdbcTemplate.queryForObject(SELECT_SQL, Long.class, collection.name()));
+        } catch (RuntimeException e) {
+            // Al menos esta instancia deja de validar el estado anterior
+            log.warn("No se pudo incrementar la versión compartida de {}", collection, e);
+            versions.get(collection).incrementAndGet();
+        }
+        if (pending.addAndGet(-taken) > 0) {
+            publisher.execute(() -> publish(collection));
+        }
+    }
+    
+    private void advance(Collection collection, Long shared) {
+        if (shared != null) {
+            versions.get(collection).accumulateAndGet(shared, Math::max);
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        publisher.shutdown();
+    }
+}
@@ -0,0 +1,293 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.entity.IdempotencyRecord;
+import com.huertohogar.repository.IdempotencyRecordRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Respuestas ya entregadas por clave de idempotencia.
+// En memoria: mapas divididos en franjas con su propio lock, donde un duplicado concurrente
+// espera el resultado de la ejecución en curso. En la tabla: una reserva que se inserta
+// antes de ejecutar (la clave primaria impide que otra instancia la ejecute también) y que
+// luego guarda la respuesta por el TTL completo. La reserva se renueva mientras la ejecución
+// sigue en curso, así un pedido lento no queda libre para que otra instancia lo repita
+@Slf4j
+@Component
+public class IdempotencyStore {
+    
+    private static final int STRIPES = 64;
+    
+    private final IdempotencyRecordRepository recordRepository;
+    private final Duration ttl;
+    private final Duration memoryTtl;
+    private final Duration lease;
+    private final int maxEntriesPerStripe;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final ScheduledExecutorService leaseRenewer;
+    
+    public IdempotencyStore(IdempotencyRecordRepository recordRepository,
+                            @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${idempotency.memory-ttl:PT10M}") Duration memoryTtl,
+                            @Value("${idempotency.lease:PT30S}") Duration lease,
+                            @Value("${idempotency.memory-max-entries:10000}") int memoryMaxEntries) {
+        this.recordRepository = recordRepository;
+        this.ttl = ttl;
+        this.memoryTtl = memoryTtl;
+        this.lease = lease;
+        this.maxEntriesPerStripe = Math.max(1, memoryMaxEntries / STRIPES);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("idempotency-lease-");
+        threadFactory.setDaemon(true);
+        this.leaseRenewer = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+    
+    // Ejecuta la acción una sola vez por clave; los reintentos reciben la misma respuesta
+    public StoredResponse execute(String id, String requestHash, Callable<StoredResponse> action) throws Exception {
+        Stripe stripe = stripes[Math.floorMod(id.hashCode(), STRIPES)];
+        InFlight mine = new InFlight(requestHash, System.nanoTime() + memoryTtl.toNanos());
+        InFlight existing;
+        boolean tracked = false;
+        synchronized (stripe) {
+            existing = stripe.entries.get(id);
+            if (existing != null && existing.result.isDone() && existing.isExpired()) {
+                stripe.entries.remove(id);
+                existing = null;
+            }
+            if (existing == null && stripe.makeRoom(maxEntriesPerStripe)) {
+                stripe.entries.put(id, mine);
+                tracked = true;
+            }
+        }
+        
+        if (existing != null) {
+            if (!existing.requestHash.equals(requestHash)) {
+                return StoredResponse.keyReused();
+            }
+            return await(existing.result);
+        }
+        
+        if (!tracked) {
+            // Franja llena de ejecuciones en curso: la reserva en la tabla sigue impidiendo el duplicado
+            return loadOrRun(id, requestHash, action);
+        }
+        
+        try {
+            StoredResponse response = loadOrRun(id, requestHash, action);
+            mine.result.complete(response);
+            if (!response.isStorable()) {
+                forget(stripe, id, mine);
+            }
+            return response;
+        } catch (Exception | Error e) {
+            forget(stripe, id, mine);
+            mine.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${idempotency.sweep-interval-ms:60000}")
+    public void sweep() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.entries.values().removeIf(entry -> entry.result.isDone() && entry.isExpired());
+            }
+        }
+        int deleted = recordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.debug("Registros de idempotencia expirados eliminados: {}", deleted);
+        }
+    }
+    
+    private StoredResponse loadOrRun(String id, String requestHash, Callable<StoredResponse> action) throws Exception {
+        IdempotencyRecord record = recordRepository.findById(id).orElse(null);
+        if (record != null && record.getExpiresAt().isAfter(LocalDateTime.now())) {
+            if (!record.getRequestHash().equals(requestHash)) {
+                return StoredResponse.keyReused();
+            }
+            if (record.getCompleted()) {
+                return new StoredResponse(record.getStatusCode(), record.getContentType(), record.getLocation(),
+                        record.getPreferenceApplied(), record.getResponseBody(), true);
+            }
+            // Reservada por otra instancia que aún no termina
+            return StoredResponse.inProgress();
+        }
+        
+        record = reserve(id, requestHash, record);
+        if (record == null) {
+            return StoredResponse.inProgress();
+        }
+        
+        long renewEvery = Math.max(1, lease.toMillis() / 3);
+        ScheduledFuture<?> renewal = leaseRenewer.scheduleWithFixedDelay(
+                () -> renewLease(id), renewEvery, renewEvery, TimeUnit.MILLISECONDS);
+        StoredResponse response;
+        try {
+            response = action.call();
+        } catch (Exception | Error e) {
+            renewal.cancel(false);
+            recordRepository.delete(record);
+            throw e;
+        }
+        renewal.cancel(false);
+        
+        if (response.isStorable()) {
+            record.setCompleted(true);
+            record.setStatusCode(response.getStatus());
+            record.setContentType(response.getContentType());
+            record.setLocation(response.getLocation());
+            record.setPreferenceApplied(response.getPreferenceApplied());
+            record.setResponseBody(response.getBody());
+            record.setExpiresAt(LocalDateTime.now().plus(ttl));
+            recordRepository.save(record);
+        } else {
+            recordRepository.delete(record);
+        }
+        return response;
+    }
+    
+    // Inserta la reserva (o reemplaza una vencida); null si otra instancia se adelantó
+    private IdempotencyRecord reserve(String id, String requestHash, IdempotencyRecord expired) {
+        try {
+            // Solo se borra si sigue vencida: pudo renovarse o reemplazarse después de leerla
+            if (expired != null && recordRepository.deleteIfExpired(id, LocalDateTime.now()) == 0) {
+                return null;
+            }
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setId(id);
+            record.setRequestHash(requestHash);
+            record.setCompleted(false);
+            record.setExpiresAt(LocalDateTime.now().plus(lease));
+            return recordRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException | ObjectOptimisticLockingFailureException e) {
+            return null;
+        }
+    }
+    
+    private void renewLease(String id) {
+        try {
+            recordRepository.renewLease(id, LocalDateTime.now().plus(lease));
+        } catch (RuntimeException e) {
+            log.warn("No se pudo renovar la reserva de idempotencia {}", id, e);
+        }
+    }
+    
+    private StoredResponse await(CompletableFuture<StoredResponse> result) throws Exception {
+        try {
+            return result.get(lease.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return StoredResponse.inProgress();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private void forget(Stripe stripe, String id, InFlight entry) {
+        synchronized (stripe) {
+            stripe.entries.remove(id, entry);
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        leaseRenewer.shutdownNow();
+    }
+    
+    @Getter
+    @AllArgsConstructor
+    public static final class StoredResponse {
+        
+        private final int status;
+        private final String contentType;
+        // Cabeceras que el cliente necesita al reintentar, p. ej. la del 202 del checkout asíncrono
+        private final String location;
+        private final String preferenceApplied;
+        private final byte[] body;
+        // Los 5xx y los conflictos de la propia clave no se guardan: el cliente puede reintentar
+        private final boolean storable;
+        
+        public static StoredResponse of(int status, String contentType, byte[] body) {
+            return of(status, contentType, null, null, body);
+        }
+        
+        public static StoredResponse of(int status, String contentType, String location, String preferenceApplied,
+                                        byte[] body) {
+            return new StoredResponse(status, contentType, location, preferenceApplied, body, status < 500);
+        }
+        
+        static StoredResponse inProgress() {
+            return error(HttpStatus.CONFLICT, "Ya hay una solicitud en curso con esta Idempotency-Key");
+        }
+        
+        static StoredResponse keyReused() {
+            return error(HttpStatus.UNPROCESSABLE_ENTITY, "La Idempotency-Key ya se usó con una solicitud distinta");
+        }
+        
+        private static StoredResponse error(HttpStatus status, String message) {
+            String json = "{\"success\":false,\"message\":\"" + message + "\",\"data\":null}";
+            return new StoredResponse(status.value(), MediaType.APPLICATION_JSON_VALUE, null, null,
+                    json.getBytes(StandardCharsets.UTF_8), false);
+        }
+    }
+    
+    private static final class InFlight {
+        private final String requestHash;
+        private final long expiresAtNanos;
+        private final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+        
+        private InFlight(String requestHash, long expiresAtNanos) {
+            this.requestHash = requestHash;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+        
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+    
+    private static final class Stripe {
+        // En orden de inserción: las primeras son las más antiguas
+        private final Map<String, InFlight> entries = new LinkedHashMap<>();
+        
+        // Descarta las respuestas ya entregadas más antiguas hasta dejar espacio; las que siguen
+        // en curso no se descartan porque hay reintentos esperándolas
+        private boolean makeRoom(int maxEntries) {
+            Iterator<InFlight> iterator = entries.values().iterator();
+            while (entries.size() >= maxEntries && iterator.hasNext()) {
+                if (iterator.next().result.isDone()) {
+                    iterator.remove();
+                }
+            }
+            return entries.size() < maxEntries;
+        }
+    }
+}
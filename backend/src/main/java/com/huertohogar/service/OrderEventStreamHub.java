@@ -0,0 +1,310 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.dto.OrderEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Reparte los eventos de pedidos a las conexiones SSE abiertas, por pedido y por usuario.
+// Una conexión inactiva no ocupa hilo: es una petición asíncrona de Tomcat más una cola.
+// Las escrituras las hace un pool chico, así el relay del outbox nunca espera a un cliente lento.
+// Cada canal guarda sus últimos eventos para reanudar con Last-Event-ID. Solo hay canal para los
+// pedidos y usuarios con alguien suscrito, o que se desconectó hace menos que la retención
+@Slf4j
+@Component
+public class OrderEventStreamHub implements OrderEventSubscriber {
+    
+    public static final String RESYNC_EVENT = "RESYNC";
+    
+    // Marcas en la cola de una conexión: un comentario SSE y el aviso de eventos perdidos
+    private static final Frame HEARTBEAT = new Frame(null, null);
+    private static final Frame RESYNC = new Frame(null, null);
+    private static final AtomicLong EPOCHS = new AtomicLong(System.currentTimeMillis());
+    
+    private final Map<String, Channel> byOrder = new ConcurrentHashMap<>();
+    private final Map<String, Channel> byUser = new ConcurrentHashMap<>();
+    private final ExecutorService sender;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final int replaySize;
+    private final int maxPendingPerConnection;
+    private final long timeoutMillis;
+    private final long retentionMillis;
+    
+    public OrderEventStreamHub(MeterRegistry meterRegistry,
+                               @Value("${order-stream.replay-size:32}") int replaySize,
+                               @Value("${order-stream.max-pending-per-connection:64}") int maxPendingPerConnection,
+                               @Value("${order-stream.sender-threads:2}") int senderThreads,
+                               @Value("${order-stream.timeout:PT30M}") Duration timeout,
+                               @Value("${order-stream.retention:PT30M}") Duration retention) {
+        this.sender = Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("order-stream-"));
+        this.replaySize = replaySize;
+        this.maxPendingPerConnection = maxPendingPerConnection;
+        this.timeoutMillis = timeout.toMillis();
+        this.retentionMillis = retention.toMillis();
+        
+        Gauge.builder("orders.stream.connections", openConnections, AtomicInteger::get)
+                .description("Conexiones SSE abiertas de seguimiento de pedidos")
+                .register(meterRegistry);
+        Gauge.builder("orders.stream.channels", this, OrderEventStreamHub::getOpenChannels)
+                .description("Canales con eventos en memoria para reanudar")
+                .register(meterRegistry);
+    }
+    
+    public SseEmitter subscribeToOrder(String orderId, String lastEventId) {
+        return subscribe(byOrder, orderId, lastEventId);
+    }
+    
+    public SseEmitter subscribeToUser(String email, String lastEventId) {
+        return subscribe(byUser, email, lastEventId);
+    }
+    
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        publish(byOrder, event.getOrderId(), event);
+        publish(byUser, event.getUserEmail(), event);
+    }
+    
+    // Mantiene vivas las conexiones ante proxies y detecta clientes que ya se fueron;
+    // de paso descarta los canales sin conexiones ni eventos recientes
+    @Scheduled(fixedDelayString = "${order-stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        long idleSince = System.currentTimeMillis() - retentionMillis;
+        for (Map<String, Channel> channels : List.of(byOrder, byUser)) {
+            for (String key : channels.keySet()) {
+                channels.computeIfPresent(key, (k, channel) -> channel.isIdleSince(idleSince) ? null : channel);
+            }
+            channels.values().forEach(channel -> channel.connections().forEach(connection -> connection.enqueue(HEARTBEAT)));
+        }
+    }
+    
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+    
+    public int getOpenChannels() {
+        return byOrder.size() + byUser.size();
+    }
+    
+    public int getOrderConnections(String orderId) {
+        Channel channel = byOrder.get(orderId);
+        return channel != null ? channel.connectionCount() : 0;
+    }
+    
+    private SseEmitter subscribe(Map<String, Channel> channels, String key, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection = new Connection(emitter);
+        // compute bloquea la clave: la limpieza no puede descartar el canal mientras se adjunta
+        Channel channel = channels.compute(key, (k, existing) -> {
+            Channel target = existing != null ? existing : new Channel();
+            target.attach(connection, lastEventId);
+            return target;
+        });
+        openConnections.incrementAndGet();
+        emitter.onCompletion(() -> connection.close(channel));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> connection.close(channel));
+        return emitter;
+    }
+    
+    // Sin suscriptor no se guarda nada: quien se conecte después consulta el pedido y sigue desde ahí
+    private void publish(Map<String, Channel> channels, String key, OrderEvent event) {
+        if (key != null) {
+            channels.computeIfPresent(key, (k, existing) -> {
+                existing.append(event);
+                return existing;
+            });
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        for (Map<String, Channel> channels : List.of(byOrder, byUser)) {
+            channels.values().forEach(channel -> channel.connections().forEach(connection -> connection.emitter.complete()));
+        }
+        sender.shutdown();
+    }
+    
+    // Evento pendiente de escribir con su id SSE
+    private record Frame(String id, OrderEvent event) {
+    }
+    
+    // Los ids SSE son "<época del canal>-<secuencia>": el id del outbox no crece dentro de un canal
+    // de usuario (pedidos distintos se despachan en paralelo) y un canal recreado reinicia la secuencia
+    private final class Channel {
+        
+        private final long epoch = EPOCHS.incrementAndGet();
+        private final ArrayDeque<Frame> ring = new ArrayDeque<>();
+        private final Set<Connection> connections = new LinkedHashSet<>();
+        private long sequence;
+        // El anillo contiene todo evento con secuencia mayor que este valor
+        private long replayFloor;
+        // Última conexión o desconexión: los eventos no prolongan un canal sin suscriptores
+        private long lastActivity = System.currentTimeMillis();
+        
+        synchronized void append(OrderEvent event) {
+            // El outbox entrega al menos una vez: un evento repetido ya está en el anillo
+            for (Frame frame : ring) {
+                if (frame.event().getEventId().equals(event.getEventId())) {
+                    return;
+                }
+            }
+            Frame frame = new Frame(epoch + "-" + (++sequence), event);
+            ring.addLast(frame);
+            if (ring.size() > replaySize) {
+                ring.removeFirst();
+                replayFloor++;
+            }
+            connections.forEach(connection -> connection.enqueue(frame));
+        }
+        
+        synchronized void attach(Connection connection, String lastEventId) {
+            lastActivity = System.currentTimeMillis();
+            // El primer comentario envía los headers sin esperar al primer evento
+            connection.enqueue(HEARTBEAT);
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                long resumeFrom = resumePoint(lastEventId.trim());
+                if (resumeFrom < 0) {
+                    connection.enqueue(RESYNC);
+                } else {
+                    ring.stream()
+                            .skip(resumeFrom - replayFloor)
+                            .forEach(connection::enqueue);
+                }
+            }
+            connections.add(connection);
+        }
+        
+        synchronized void detach(Connection connection) {
+            lastActivity = System.currentTimeMillis();
+            connections.remove(connection);
+        }
+        
+        synchronized List<Connection> connections() {
+            return new ArrayList<>(connections);
+        }
+        
+        synchronized int connectionCount() {
+            return connections.size();
+        }
+        
+        synchronized boolean isIdleSince(long timestamp) {
+            return connections.isEmpty() && lastActivity < timestamp;
+        }
+        
+        // Secuencia desde la que se puede reanudar, o -1 si el anillo ya no cubre el hueco
+        private long resumePoint(String lastEventId) {
+            int separator = lastEventId.indexOf('-');
+            try {
+                long lastEpoch = Long.parseLong(lastEventId.substring(0, Math.max(separator, 0)));
+                long lastSequence = Long.parseLong(lastEventId.substring(separator + 1));
+                if (lastEpoch != epoch || lastSequence < replayFloor || lastSequence > sequence) {
+                    return -1;
+                }
+                return lastSequence;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+    
+    // Cola propia por conexión: el publicador solo encola y, si nadie la está vaciando, agenda el envío
+    private final class Connection {
+        
+        private final SseEmitter emitter;
+        private final Queue<Frame> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean closed;
+        
+        private Connection(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+        
+        void enqueue(Frame frame) {
+            if (closed) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > maxPendingPerConnection) {
+                // Cliente lento: se corta y reanuda desde el anillo al reconectar
+                log.debug("Conexión SSE cerrada por acumular más de {} eventos sin enviar", maxPendingPerConnection);
+                closed = true;
+                emitter.complete();
+                return;
+            }
+            pending.add(frame);
+            scheduleDrain();
+        }
+        
+        void close(Channel channel) {
+            closed = true;
+            if (released.compareAndSet(false, true)) {
+                openConnections.decrementAndGet();
+                channel.detach(this);
+            }
+        }
+        
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+        
+        private void drain() {
+            Frame frame;
+            while (!closed && (frame = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                try {
+                    emitter.send(toSse(frame));
+                } catch (IOException | IllegalStateException e) {
+                    // El contenedor avisa por onError/onCompletion y ahí se suelta la conexión
+                    closed = true;
+                    pending.clear();
+                }
+            }
+            draining.set(false);
+            if (!closed && !pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+        
+        private SseEmitter.SseEventBuilder toSse(Frame frame) {
+            if (frame == HEARTBEAT) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            if (frame == RESYNC) {
+                return SseEmitter.event()
+                        .name(RESYNC_EVENT)
+                        .data("Se perdieron eventos; vuelve a consultar el pedido");
+            }
+            return SseEmitter.event()
+                    .id(frame.id())
+                    .name(frame.event().getType().name())
+                    .data(frame.event(), MediaType.APPLICATION_JSON);
+        }
+    }
+}
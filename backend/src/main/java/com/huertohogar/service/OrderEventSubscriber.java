@@ -0,0 +1,10 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.dto.OrderEvent;
+
+// Recibe los eventos de pedidos desde el outbox. La entrega es al menos una vez y en orden
+// por pedido: un evento puede repetirse tras un fallo, así que la implementación debe tolerarlo
+public interface OrderEventSubscriber {
+    
+    void onOrderEvent(OrderEvent event);
+}
@@ -4,16 +4,21 @@ import com.huertohogar.model.dto.*;
 import com.huertohogar.model.entity.Order;
 import com.huertohogar.model.entity.OrderItem;
 import com.huertohogar.model.entity.Product;
-import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.OrderItemRepository;
 import com.huertohogar.repository.OrderRepository;
-import com.huertohogar.repository.ProductRepository;
 import com.huertohogar.repository.UserRepository;
+import com.huertohogar.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,72 +27,90 @@ import java.util.stream.Collectors;
 public class OrderService {
     
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final UserRepository userRepository;
-    private final ProductRepository productRepository;
+    private final StockReservationService stockReservationService;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final OutboxService outboxService;
+    private final SalesRollupService salesRollupService;
     
-    public OrderDTO createOrder(String userEmail, CreateOrderRequest request) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + userEmail));
-        
+    public OrderDTO createOrder(AuthenticatedUser principal, CreateOrderRequest request) {
         Order order = new Order();
-        order.setUser(user);
+        // El token ya acredita al usuario: basta una referencia para la clave foránea, sin SELECT
+        order.setUser(userRepository.getReferenceById(principal.getEmail()));
         order.setOrderDate(LocalDateTime.now());
         order.setStatus(Order.OrderStatus.PENDING);
         order.setShippingAddress(request.getShippingAddress());
         order.setCity(request.getCity());
         order.setRegion(request.getRegion());
         
+        // Reserva el stock de todo el carrito en lote antes de armar los ítems
+        Map<String, Product> products = stockReservationService.reserve(request.getItems());
+        productCatalogCache.evict(products.values());
+        
         double totalAmount = 0.0;
+        List<OrderItem> items = new ArrayList<>(request.getItems().size());
         
         for (OrderItemRequest itemRequest : request.getItems()) {
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + itemRequest.getProductId()));
-            
-            if (product.getStock() < itemRequest.getQuantity()) {
-                throw new RuntimeException("Stock insuficiente para: " + product.getName());
-            }
+            Product product = products.get(itemRequest.getProductId());
             
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
             orderItem.setProductId(product.getId());
             orderItem.setProductName(product.getName());
+            orderItem.setCategory(product.getCategory());
             orderItem.setQuantity(itemRequest.getQuantity());
             orderItem.setUnitPrice(product.getPrice());
             orderItem.setTotalPrice(product.getPrice() * itemRequest.getQuantity());
             
             totalAmount += orderItem.getTotalPrice();
-            
-            // Reducir stock
-            product.setStock(product.getStock() - itemRequest.getQuantity());
-            productRepository.save(product);
+            items.add(orderItem);
         }
         
+        order.setItems(items);
         order.setTotalAmount(totalAmount);
         
         Order saved = orderRepository.save(order);
+        outboxService.append(OrderEvent.of(OrderEvent.Type.ORDER_CREATED, saved, null));
+        salesRollupService.recordCreated(saved);
+        productSuggestionIndex.recordSales(request.getItems().stream()
+                .collect(Collectors.toMap(OrderItemRequest::getProductId, OrderItemRequest::getQuantity, Integer::sum)));
         return toDTO(saved);
     }
     
-    public List<OrderDTO> getOrdersByUser(String userEmail) {
-        return orderRepository.findByUserEmailOrderByOrderDateDesc(userEmail).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    // Dos consultas en total: la página de pedidos y los ítems de todos ellos en lote
+    @Transactional(readOnly = true)
+    public Slice<OrderDTO> getOrdersByUser(String userEmail, Pageable pageable) {
+        Slice<Order> orders = orderRepository.findPageByUserEmail(userEmail, pageable);
+        if (!orders.hasContent()) {
+            return orders.map(order -> toDTO(order, List.of()));
+        }
+        
+        List<String> orderIds = orders.map(Order::getOrderId).getContent();
+        Map<String, List<OrderItem>> itemsByOrder = orderItemRepository.findByOrderIds(orderIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getOrder().getOrderId()));
+        
+        return orders.map(order -> toDTO(order, itemsByOrder.getOrDefault(order.getOrderId(), List.of())));
     }
     
-    public OrderDTO getOrderById(String orderId, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        
-        Order order = orderRepository.findByOrderIdAndUser(orderId, user)
+    @Transactional(readOnly = true)
+    public OrderDTO getOrderById(String orderId, AuthenticatedUser principal) {
+        return findOrderById(orderId, principal)
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + orderId));
-        
-        return toDTO(order);
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<OrderDTO> findOrderById(String orderId, AuthenticatedUser principal) {
+        return orderRepository.findByOrderIdAndUserEmail(orderId, principal.getEmail())
+                .map(OrderService::toDTO);
     }
     
     public OrderDTO updateOrderStatus(String orderId, Order.OrderStatus status) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + orderId));
         
+        Order.OrderStatus previousStatus = order.getStatus();
         order.setStatus(status);
         
         if (status == Order.OrderStatus.SHIPPED) {
@@ -95,10 +118,19 @@ public class OrderService {
         }
         
         Order updated = orderRepository.save(order);
+        if (previousStatus != status) {
+            outboxService.append(OrderEvent.of(OrderEvent.Type.ORDER_STATUS_CHANGED, updated, previousStatus));
+            salesRollupService.recordStatusChange(updated, previousStatus);
+        }
         return toDTO(updated);
     }
     
-    private OrderDTO toDTO(Order order) {
+    private static OrderDTO toDTO(Order order) {
+        return toDTO(order, order.getItems());
+    }
+    
+    // Estático y sin dependencias: el módulo benchmarks lo mide directamente
+    static OrderDTO toDTO(Order order, List<OrderItem> items) {
         OrderDTO dto = new OrderDTO();
         dto.setOrderId(order.getOrderId());
         dto.setUserEmail(order.getUser().getEmail());
@@ -111,16 +143,16 @@ public class OrderService {
         dto.setTrackingNumber(order.getTrackingNumber());
         dto.setCreatedAt(order.getCreatedAt());
         
-        if (order.getItems() != null) {
-            dto.setItems(order.getItems().stream()
-                    .map(this::itemToDTO)
+        if (items != null) {
+            dto.setItems(items.stream()
+                    .map(OrderService::itemToDTO)
                     .collect(Collectors.toList()));
         }
         
         return dto;
     }
     
-    private OrderItemDTO itemToDTO(OrderItem item) {
+    private static OrderItemDTO itemToDTO(OrderItem item) {
         OrderItemDTO dto = new OrderItemDTO();
         dto.setOrderItemId(item.getOrderItemId());
         dto.setProductId(item.getProductId());
@@ -0,0 +1,193 @@
+package com.huertohogar.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huertohogar.model.dto.OrderEvent;
+import com.huertohogar.model.entity.OutboxEvent;
+import com.huertohogar.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Lee el outbox por lotes y entrega cada evento a los suscriptores.
+// Los eventos de un mismo pedido van en orden por un solo hilo; pedidos distintos en paralelo,
+// hasta "concurrency" a la vez. Un evento se marca despachado solo después de entregarse:
+// si el proceso cae antes, se vuelve a entregar (al menos una vez).
+// Cada lote se reclama antes de entregarlo, así dos instancias no entregan el mismo evento
+// ni reparten entre ellas los eventos de un pedido
+@Slf4j
+@Component
+public class OutboxRelay {
+    
+    private static final int MAX_ERROR_LENGTH = 1000;
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<OrderEventSubscriber> subscribers;
+    private final ExecutorService dispatcher;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration claimLease;
+    private final Duration retention;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final Counter dispatchedCounter;
+    private final Counter failureCounter;
+    private final Timer deliveryLag;
+    private final AtomicLong oldestPendingAgeMillis = new AtomicLong();
+    
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       ObjectMapper objectMapper,
+                       ObjectProvider<OrderEventSubscriber> subscribers,
+                       MeterRegistry meterRegistry,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${outbox.relay.concurrency:4}") int concurrency,
+                       @Value("${outbox.relay.max-attempts:10}") int maxAttempts,
+                       @Value("${outbox.relay.claim-lease:PT1M}") Duration claimLease,
+                       @Value("${outbox.retention:P7D}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.subscribers = subscribers;
+        this.dispatcher = Executors.newFixedThreadPool(concurrency, new CustomizableThreadFactory("outbox-relay-"));
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.claimLease = claimLease;
+        this.retention = retention;
+        this.transactionTemplate = transactionTemplate;
+        
+        this.dispatchedCounter = Counter.builder("outbox.events.dispatched")
+                .description("Eventos del outbox entregados a los suscriptores")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("outbox.events.failures")
+                .description("Entregas fallidas que se reintentarán")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder("outbox.relay.delivery.lag")
+                .description("Tiempo entre el commit del evento y su entrega")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.lag", oldestPendingAgeMillis, age -> age.get() / 1000.0)
+                .description("Antigüedad del evento pendiente más antiguo")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:250}")
+    public void relay() {
+        // Mientras los lotes vengan llenos y se entreguen completos, hay más esperando
+        int delivered;
+        do {
+            delivered = relayBatch();
+        } while (delivered == batchSize);
+        LocalDateTime oldestPending = outboxEventRepository.findOldestPendingCreatedAt();
+        oldestPendingAgeMillis.set(oldestPending == null ? 0
+                : Duration.between(oldestPending, LocalDateTime.now()).toMillis());
+    }
+    
+    @Scheduled(cron = "${outbox.purge-cron:0 15 * * * *}")
+    public void purgeDispatched() {
+        int deleted = outboxEventRepository.deleteDispatchedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Eventos despachados eliminados del outbox: {}", deleted);
+        }
+    }
+    
+    // Devuelve cuántos eventos del lote se entregaron
+    private int relayBatch() {
+        List<OutboxEvent> batch = claimBatch();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        Map<String, List<OutboxEvent>> byOrder = batch.stream()
+                .collect(Collectors.groupingBy(OutboxEvent::getAggregateId, LinkedHashMap::new, Collectors.toList()));
+        List<OrderEventSubscriber> targets = subscribers.orderedStream().toList();
+        List<CompletableFuture<List<Long>>> deliveries = byOrder.values().stream()
+                .map(events -> CompletableFuture.supplyAsync(() -> deliverInOrder(events, targets), dispatcher))
+                .toList();
+        
+        List<Long> delivered = deliveries.stream()
+                .flatMap(delivery -> delivery.join().stream())
+                .toList();
+        if (!delivered.isEmpty()) {
+            outboxEventRepository.markDispatched(delivered, LocalDateTime.now());
+            dispatchedCounter.increment(delivered.size());
+        }
+        // Lo que quedó detrás de un fallo se suelta para el próximo ciclo sin esperar el plazo
+        Set<Long> deliveredIds = new HashSet<>(delivered);
+        List<Long> undelivered = batch.stream()
+                .map(OutboxEvent::getId)
+                .filter(id -> !deliveredIds.contains(id))
+                .toList();
+        if (!undelivered.isEmpty()) {
+            outboxEventRepository.releaseClaims(undelivered);
+        }
+        return delivered.size();
+    }
+    
+    // Si la instancia cae con el lote reclamado, otra lo retoma al vencer el plazo
+    private List<OutboxEvent> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            outboxEventRepository.lockClaims();
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> batch = outboxEventRepository.findClaimable(now, Limit.of(batchSize));
+            if (!batch.isEmpty()) {
+                outboxEventRepository.claim(batch.stream().map(OutboxEvent::getId).toList(), now.plus(claimLease));
+            }
+            return batch;
+        });
+    }
+    
+    private List<Long> deliverInOrder(List<OutboxEvent> events, List<OrderEventSubscriber> targets) {
+        List<Long> delivered = new ArrayList<>(events.size());
+        for (OutboxEvent outboxEvent : events) {
+            try {
+                OrderEvent event = objectMapper.readValue(outboxEvent.getPayload(), OrderEvent.class);
+                event.setEventId(outboxEvent.getId());
+                for (OrderEventSubscriber subscriber : targets) {
+                    subscriber.onOrderEvent(event);
+                }
+                delivered.add(outboxEvent.getId());
+                deliveryLag.record(Duration.between(outboxEvent.getCreatedAt(), LocalDateTime.now()));
+            } catch (Exception e) {
+                failureCounter.increment();
+                String error = String.valueOf(e);
+                outboxEventRepository.recordFailure(outboxEvent.getId(),
+                        error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH)), maxAttempts);
+                log.warn("Falló la entrega del evento {} del pedido {} (intento {}): {}", outboxEvent.getId(),
+                        outboxEvent.getAggregateId(), outboxEvent.getAttempts() + 1, error);
+                // Los eventos siguientes del pedido esperan al próximo ciclo para no perder el orden
+                break;
+            }
+        }
+        return delivered;
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdown();
+    }
+}
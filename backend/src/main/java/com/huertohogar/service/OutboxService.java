@@ -0,0 +1,36 @@
+package com.huertohogar.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huertohogar.model.dto.OrderEvent;
+import com.huertohogar.model.entity.OutboxEvent;
+import com.huertohogar.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// Se escribe en la misma transacción que el cambio del pedido: se guardan ambos o ninguno
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    
+    public void append(OrderEvent event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setAggregateId(event.getOrderId());
+        outboxEvent.setEventType(event.getType().name());
+        outboxEvent.setCreatedAt(LocalDateTime.now());
+        try {
+            outboxEvent.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento del pedido " + event.getOrderId(), e);
+        }
+        outboxEventRepository.save(outboxEvent);
+    }
+}
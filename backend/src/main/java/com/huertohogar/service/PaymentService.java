@@ -1,5 +1,6 @@
 package com.huertohogar.service;
 
+import com.huertohogar.model.dto.OrderEvent;
 import com.huertohogar.model.dto.PaymentRequest;
 import com.huertohogar.model.dto.PaymentResponse;
 import com.huertohogar.model.entity.Order;
@@ -16,9 +17,11 @@ import java.util.UUID;
 public class PaymentService {
     
     private final OrderRepository orderRepository;
+    private final OutboxService outboxService;
+    private final SalesRollupService salesRollupService;
     
     public PaymentResponse processPayment(PaymentRequest request) {
-        Order order = orderRepository.findById(request.getOrderId())
+        Order order = orderRepository.findByIdForUpdate(request.getOrderId())
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + request.getOrderId()));
         
         if (!order.getTotalAmount().equals(request.getAmount())) {
@@ -31,6 +34,8 @@ public class PaymentService {
         String paymentId = UUID.randomUUID().toString();
         String transactionId = "TXN-" + System.currentTimeMillis();
         
+        Order.OrderStatus previousStatus = order.getStatus();
+        
         // Simular diferentes resultados según método de pago
         String status;
         String message;
@@ -64,6 +69,13 @@ public class PaymentService {
         
         if ("success".equals(status)) {
             orderRepository.save(order);
+            if (previousStatus != order.getStatus()) {
+                outboxService.append(OrderEvent.of(OrderEvent.Type.ORDER_STATUS_CHANGED, order, previousStatus));
+                salesRollupService.recordStatusChange(order, previousStatus);
+            }
+            OrderEvent paid = OrderEvent.of(OrderEvent.Type.PAYMENT_PROCESSED, order, previousStatus);
+            paid.setPaymentId(paymentId);
+            outboxService.append(paid);
         }
         
         return new PaymentResponse(paymentId, status, transactionId, message);
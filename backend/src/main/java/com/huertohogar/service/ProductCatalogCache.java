@@ -0,0 +1,58 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.entity.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class ProductCatalogCache {
+    
+    public static final String PRODUCT_BY_ID = "productById";
+    public static final String PRODUCTS_BY_CATEGORY = "productsByCategory";
+    public static final String PRODUCT_LISTS = "productLists";
+    
+    private final CacheManager cacheManager;
+    private final CollectionVersions collectionVersions;
+    
+    public void evict(String productId, Product.ProductCategory... categories) {
+        evict(List.of(productId), Arrays.asList(categories));
+    }
+    
+    public void evict(Collection<Product> products) {
+        Set<Product.ProductCategory> categories = EnumSet.noneOf(Product.ProductCategory.class);
+        products.forEach(product -> categories.add(product.getCategory()));
+        evict(products.stream().map(Product::getId).toList(), categories);
+    }
+    
+    // Las invalidaciones se aplican al confirmar la transacción, para que una lectura
+    // concurrente no vuelva a cachear el estado anterior al cambio. Todo cambio de un producto,
+    // incluido el stock descontado por un pedido, pasa por aquí y cambia el ETag del catálogo
+    private void evict(Collection<String> productIds, Collection<Product.ProductCategory> categories) {
+        Cache byId = cache(PRODUCT_BY_ID);
+        productIds.forEach(byId::evict);
+        
+        Cache byCategory = cache(PRODUCTS_BY_CATEGORY);
+        categories.forEach(byCategory::evict);
+        
+        cache(PRODUCT_LISTS).clear();
+        collectionVersions.bump(CollectionVersions.Collection.PRODUCTS);
+    }
+    
+    private Cache cache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("Caché no configurada: " + name);
+        }
+        return new TransactionAwareCacheDecorator(cache);
+    }
+}
@@ -0,0 +1,241 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.repository.ProductRepository;
+import com.huertohogar.util.TextNormalizer;
+import com.huertohogar.util.TransactionUtils;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Índice invertido en memoria sobre el catálogo, con ranking BM25 ponderado por campo
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+    
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double TAG_WEIGHT = 2.0;
+    private static final double ORIGIN_WEIGHT = 1.5;
+    private static final double CERTIFICATIONS_WEIGHT = 1.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    
+    // El último término de la consulta también se completa por prefijo ("manz" -> "manzanas")
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final double PREFIX_MATCH_BOOST = 0.7;
+    
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<String, Double>> postings = new TreeMap<>();
+    private final Map<String, IndexedProduct> documents = new HashMap<>();
+    private double totalLength;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<IndexedProduct> analyzed = new ArrayList<>();
+        try (Stream<Product> products = productRepository.streamAllOrdered()) {
+            products.forEach(product -> {
+                analyzed.add(analyze(product));
+                entityManager.detach(product);
+            });
+        }
+        
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            analyzed.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de búsqueda reconstruido: {} productos, {} términos en {} ms",
+                analyzed.size(), postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    public void index(Product product) {
+        IndexedProduct document = analyze(product);
+        TransactionUtils.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeDocument(document.getId());
+                add(document);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+    
+    public void remove(String productId) {
+        TransactionUtils.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeDocument(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+    
+    public Page<String> search(String query, Pageable pageable) {
+        List<String> terms = TextNormalizer.tokenize(query);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        
+        Map<String, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return Page.empty(pageable);
+            }
+            double averageLength = totalLength / documentCount;
+            
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                Map<String, Double> termScores = new HashMap<>();
+                if (i == terms.size() - 1) {
+                    int expansions = 0;
+                    for (Map.Entry<String, Map<String, Double>> entry
+                            : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                        double boost = entry.getKey().equals(term) ? 1.0 : PREFIX_MATCH_BOOST;
+                        scoreTerm(entry.getValue(), boost, documentCount, averageLength, termScores);
+                        if (++expansions >= MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                    }
+                } else {
+                    Map<String, Double> posting = postings.get(term);
+                    if (posting != null) {
+                        scoreTerm(posting, 1.0, documentCount, averageLength, termScores);
+                    }
+                }
+                termScores.forEach((id, score) -> scores.merge(id, score, Double::sum));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        // Selección top-k con un heap acotado en vez de ordenar todas las coincidencias
+        long wanted = pageable.getOffset() + pageable.getPageSize();
+        if (wanted > Integer.MAX_VALUE || pageable.getOffset() >= scores.size()) {
+            return new PageImpl<>(List.of(), pageable, scores.size());
+        }
+        Comparator<Map.Entry<String, Double>> byRelevance = Map.Entry.<String, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        PriorityQueue<Map.Entry<String, Double>> top = new PriorityQueue<>((int) wanted + 1, byRelevance);
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            if (top.size() < wanted) {
+                top.add(entry);
+            } else if (byRelevance.compare(entry, top.peek()) > 0) {
+                top.poll();
+                top.add(entry);
+            }
+        }
+        
+        List<String> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ranked.add(top.poll().getKey());
+        }
+        Collections.reverse(ranked);
+        ranked = ranked.subList((int) pageable.getOffset(), ranked.size());
+        return new PageImpl<>(ranked, pageable, scores.size());
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Un producto que calza con varios términos expandidos conserva solo su mejor puntaje
+    private void scoreTerm(Map<String, Double> posting, double boost, int documentCount,
+                           double averageLength, Map<String, Double> termScores) {
+        int documentFrequency = posting.size();
+        double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        posting.forEach((id, frequency) -> {
+            double length = documents.get(id).getLength();
+            double norm = K1 * (1 - B + B * length / averageLength);
+            double score = boost * idf * frequency * (K1 + 1) / (frequency + norm);
+            termScores.merge(id, score, Math::max);
+        });
+    }
+    
+    private IndexedProduct analyze(Product product) {
+        Map<String, Double> frequencies = new HashMap<>();
+        double length = 0;
+        length += analyzeField(product.getName(), NAME_WEIGHT, frequencies);
+        length += analyzeField(product.getTag(), TAG_WEIGHT, frequencies);
+        length += analyzeField(product.getOrigin(), ORIGIN_WEIGHT, frequencies);
+        length += analyzeField(product.getCertifications(), CERTIFICATIONS_WEIGHT, frequencies);
+        length += analyzeField(product.getDescription(), DESCRIPTION_WEIGHT, frequencies);
+        return new IndexedProduct(product.getId(), frequencies, length);
+    }
+    
+    private double analyzeField(String text, double weight, Map<String, Double> frequencies) {
+        List<String> tokens = TextNormalizer.tokenize(text);
+        tokens.forEach(token -> frequencies.merge(token, weight, Double::sum));
+        return tokens.size() * weight;
+    }
+    
+    private void add(IndexedProduct document) {
+        documents.put(document.getId(), document);
+        totalLength += document.getLength();
+        document.getFrequencies().forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new HashMap<>()).put(document.getId(), frequency));
+    }
+    
+    private void removeDocument(String productId) {
+        IndexedProduct document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        totalLength -= document.getLength();
+        for (String term : document.getFrequencies().keySet()) {
+            Map<String, Double> posting = postings.get(term);
+            posting.remove(productId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+    
+    @Value
+    private static class IndexedProduct {
+        String id;
+        Map<String, Double> frequencies;
+        double length;
+    }
+}
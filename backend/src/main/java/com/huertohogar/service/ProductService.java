@@ -1,61 +1,228 @@
 package com.huertohogar.service;
 
+import com.huertohogar.config.ReplicaRoutingDataSource;
+import com.huertohogar.model.dto.ProductChangesDTO;
 import com.huertohogar.model.dto.ProductDTO;
+import com.huertohogar.model.dto.ProductPageDTO;
 import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.ProductTombstone;
 import com.huertohogar.repository.ProductRepository;
+import com.huertohogar.repository.ProductTombstoneRepository;
+import com.huertohogar.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class ProductService {
     
+    private static final int MAX_PAGE_SIZE = 500;
+    // Una transacción que todavía no confirma puede tener un updatedAt anterior a cambios ya visibles.
+    // El token final nunca avanza más allá de este margen: esos cambios llegan en la sincronización siguiente
+    private static final Duration COMMIT_WINDOW = Duration.ofSeconds(10);
+    private static final Comparator<KeysetCursor> POSITION_ORDER = Comparator
+            .comparing(KeysetCursor::getTimestamp)
+            .thenComparing(KeysetCursor::getId);
+    
     private final ProductRepository productRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final EntityManager entityManager;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestionIndex productSuggestionIndex;
     
+    // Las lecturas que llenan la caché o que salen con el ETag del catálogo van a la primaria: el ETag
+    // ya es el posterior a la última escritura, y una réplica atrasada entregaría el estado anterior con él
+    @Cacheable(cacheNames = ProductCatalogCache.PRODUCT_LISTS, key = "'all'")
+    @Transactional(readOnly = true)
     public List<ProductDTO> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return ReplicaRoutingDataSource.readFromPrimary(() -> productRepository.findAll().stream()
+                .map(ProductService::toDTO)
+                .collect(Collectors.toList()));
+    }
+    
+    @Transactional(readOnly = true)
+    public ProductPageDTO getProductsPage(String cursor, int limit) {
+        if (limit < 1) {
+            throw new RuntimeException("El límite debe ser al menos 1");
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        // Se pide una fila extra para saber si existe una página siguiente
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        
+        List<Product> rows = ReplicaRoutingDataSource.readFromPrimary(() -> {
+            if (cursor == null || cursor.isBlank()) {
+                return productRepository.findAllByOrderByCreatedAtAscIdAsc(fetchLimit);
+            }
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            return productRepository.findPageAfter(after.getTimestamp(), after.getId(), fetchLimit);
+        });
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<Product> page = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        String nextCursor = null;
+        if (hasMore) {
+            Product last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        
+        return new ProductPageDTO(
+                page.stream().map(ProductService::toDTO).collect(Collectors.toList()),
+                nextCursor);
     }
     
+    // Cambios del catálogo desde un token, en orden de (updatedAt, id) mezclando productos y eliminaciones
+    @Transactional(readOnly = true)
+    public ProductChangesDTO getProductChanges(String since, int limit) {
+        if (limit < 1) {
+            throw new RuntimeException("El límite debe ser al menos 1");
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        KeysetCursor after = since == null || since.isBlank() ? null : KeysetCursor.decode(since);
+        
+        List<Product> changed;
+        List<ProductTombstone> deleted;
+        if (after == null) {
+            changed = productRepository.findAllByOrderByUpdatedAtAscIdAsc(fetchLimit);
+            deleted = List.of();
+        } else {
+            changed = productRepository.findChangedAfter(after.getTimestamp(), after.getId(), fetchLimit);
+            deleted = productTombstoneRepository.findDeletedAfter(after.getTimestamp(), after.getId(), fetchLimit);
+        }
+        
+        List<ProductDTO> upserts = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+        KeysetCursor last = after;
+        int i = 0;
+        int j = 0;
+        while (upserts.size() + deletedIds.size() < pageSize && (i < changed.size() || j < deleted.size())) {
+            KeysetCursor nextChanged = i < changed.size()
+                    ? new KeysetCursor(changed.get(i).getUpdatedAt(), changed.get(i).getId()) : null;
+            KeysetCursor nextDeleted = j < deleted.size()
+                    ? new KeysetCursor(deleted.get(j).getDeletedAt(), deleted.get(j).getProductId()) : null;
+            if (nextDeleted == null || (nextChanged != null && POSITION_ORDER.compare(nextChanged, nextDeleted) <= 0)) {
+                upserts.add(toDTO(changed.get(i++)));
+                last = nextChanged;
+            } else {
+                deletedIds.add(deleted.get(j++).getProductId());
+                last = nextDeleted;
+            }
+        }
+        
+        boolean hasMore = i < changed.size() || j < deleted.size();
+        KeysetCursor next = last;
+        if (!hasMore) {
+            KeysetCursor settled = new KeysetCursor(LocalDateTime.now().minus(COMMIT_WINDOW), "");
+            if (next == null || POSITION_ORDER.compare(next, settled) > 0) {
+                next = settled;
+            }
+        }
+        return new ProductChangesDTO(upserts, deletedIds, next.encode(), hasMore, after == null);
+    }
+    
+    // Recorre el catálogo fila a fila sin materializar la lista completa
+    @Transactional(readOnly = true)
+    public void streamAllProducts(Consumer<ProductDTO> consumer) {
+        try (Stream<Product> products = productRepository.streamAllOrdered()) {
+            products.forEach(product -> {
+                consumer.accept(toDTO(product));
+                entityManager.detach(product);
+            });
+        }
+    }
+    
+    @Cacheable(cacheNames = ProductCatalogCache.PRODUCT_BY_ID, key = "#id")
+    @Transactional(readOnly = true)
     public ProductDTO getProductById(String id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + id));
-        return toDTO(product);
+        return ReplicaRoutingDataSource.readFromPrimary(() -> productRepository.findById(id)
+                .map(ProductService::toDTO)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + id)));
     }
     
+    @Cacheable(cacheNames = ProductCatalogCache.PRODUCTS_BY_CATEGORY, key = "#category")
+    @Transactional(readOnly = true)
     public List<ProductDTO> getProductsByCategory(Product.ProductCategory category) {
-        return productRepository.findByCategory(category).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return ReplicaRoutingDataSource.readFromPrimary(() -> productRepository.findByCategory(category).stream()
+                .map(ProductService::toDTO)
+                .collect(Collectors.toList()));
     }
     
-    public List<ProductDTO> searchProducts(String query) {
-        return productRepository.searchProducts(query).stream()
-                .map(this::toDTO)
+    @Transactional(readOnly = true)
+    public Page<ProductDTO> searchProducts(String query, int page, int size) {
+        if (page < 0) {
+            throw new RuntimeException("La página no puede ser negativa");
+        }
+        if (size < 1) {
+            throw new RuntimeException("El tamaño de página debe ser al menos 1");
+        }
+        Pageable pageable = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE));
+        Page<String> hits = productSearchIndex.search(query, pageable);
+        if (hits.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, hits.getTotalElements());
+        }
+        
+        // El índice entrega el orden; la base de datos, los datos vigentes de cada producto
+        Map<String, Product> products = ReplicaRoutingDataSource.readFromPrimary(() ->
+                productRepository.findAllById(hits.getContent()).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity())));
+        List<ProductDTO> content = hits.getContent().stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(ProductService::toDTO)
                 .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, hits.getTotalElements());
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<String> suggestProducts(String prefix, int limit) {
+        return productSuggestionIndex.suggest(prefix, limit);
     }
     
+    @Cacheable(cacheNames = ProductCatalogCache.PRODUCT_LISTS, key = "'organic'")
+    @Transactional(readOnly = true)
     public List<ProductDTO> getOrganicProducts() {
-        return productRepository.findByIsOrganicTrue().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return ReplicaRoutingDataSource.readFromPrimary(() -> productRepository.findByIsOrganicTrue().stream()
+                .map(ProductService::toDTO)
+                .collect(Collectors.toList()));
     }
     
     public ProductDTO createProduct(ProductDTO productDTO) {
         Product product = toEntity(productDTO);
         Product saved = productRepository.save(product);
+        productCatalogCache.evict(saved.getId(), saved.getCategory());
+        productSearchIndex.index(saved);
+        productSuggestionIndex.index(saved);
         return toDTO(saved);
     }
     
     public ProductDTO updateProduct(String id, ProductDTO productDTO) {
         Product existing = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + id));
+        Product.ProductCategory previousCategory = existing.getCategory();
         
         existing.setName(productDTO.getName());
         existing.setDescription(productDTO.getDescription());
@@ -72,17 +239,24 @@ public class ProductService {
         existing.setSustainablePractices(productDTO.getSustainablePractices());
         
         Product updated = productRepository.save(existing);
+        productCatalogCache.evict(id, previousCategory, updated.getCategory());
+        productSearchIndex.index(updated);
+        productSuggestionIndex.index(updated);
         return toDTO(updated);
     }
     
     public void deleteProduct(String id) {
-        if (!productRepository.existsById(id)) {
-            throw new RuntimeException("Producto no encontrado: " + id);
-        }
-        productRepository.deleteById(id);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + id));
+        productRepository.delete(product);
+        productTombstoneRepository.save(new ProductTombstone(id, LocalDateTime.now()));
+        productCatalogCache.evict(id, product.getCategory());
+        productSearchIndex.remove(id);
+        productSuggestionIndex.remove(id);
     }
     
-    private ProductDTO toDTO(Product product) {
+    // Estático y sin dependencias: el módulo benchmarks lo mide directamente
+    static ProductDTO toDTO(Product product) {
         ProductDTO dto = new ProductDTO();
         dto.setId(product.getId());
         dto.setName(product.getName());
@@ -0,0 +1,337 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.repository.OrderItemRepository;
+import com.huertohogar.repository.ProductRepository;
+import com.huertohogar.util.TextNormalizer;
+import com.huertohogar.util.TransactionUtils;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Autocompletado por prefijo: trie comprimido donde cada nodo guarda el top-k de su subárbol,
+// así una consulta solo recorre el prefijo y devuelve la lista ya ordenada
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSuggestionIndex {
+    
+    public static final int MAX_SUGGESTIONS = 10;
+    
+    private static final Comparator<Suggestion> BY_WEIGHT = Comparator
+            .comparingLong(Suggestion::weight).reversed()
+            .thenComparing(suggestion -> suggestion.text);
+    
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final EntityManager entityManager;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+    private final Map<String, Set<Suggestion>> suggestionsByProduct = new HashMap<>();
+    private final Map<String, Long> unitsSold = new HashMap<>();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        Map<String, Long> sales = new HashMap<>();
+        orderItemRepository.sumUnitsSoldByProduct()
+                .forEach(row -> sales.put(row.getProductId(), row.getUnitsSold()));
+        
+        Map<String, List<String>> texts = new HashMap<>();
+        try (Stream<Product> products = productRepository.streamAllOrdered()) {
+            products.forEach(product -> {
+                texts.put(product.getId(), suggestionTexts(product));
+                entityManager.detach(product);
+            });
+        }
+        
+        lock.writeLock().lock();
+        try {
+            root.children.clear();
+            root.terminals.clear();
+            root.top = List.of();
+            suggestions.clear();
+            suggestionsByProduct.clear();
+            unitsSold.clear();
+            unitsSold.putAll(sales);
+            texts.forEach(this::addProduct);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de sugerencias reconstruido: {} sugerencias en {} ms",
+                suggestions.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    public void index(Product product) {
+        String productId = product.getId();
+        List<String> texts = suggestionTexts(product);
+        TransactionUtils.afterCommit(() -> write(() -> {
+            removeProduct(productId);
+            addProduct(productId, texts);
+        }));
+    }
+    
+    public void remove(String productId) {
+        TransactionUtils.afterCommit(() -> write(() -> removeProduct(productId)));
+    }
+    
+    public void recordSales(Map<String, Integer> quantities) {
+        Map<String, Integer> sold = Map.copyOf(quantities);
+        TransactionUtils.afterCommit(() -> write(() -> sold.forEach((productId, quantity) -> {
+            unitsSold.merge(productId, quantity.longValue(), Long::sum);
+            for (Suggestion suggestion : suggestionsByProduct.getOrDefault(productId, Set.of())) {
+                suggestion.weight += quantity;
+                suggestion.keys.forEach(this::refreshPath);
+            }
+        })));
+    }
+    
+    public List<String> suggest(String prefix, int limit) {
+        String key = String.join(" ", TextNormalizer.words(prefix));
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int position = 0;
+            while (position < key.length()) {
+                Node child = node.children.get(key.charAt(position));
+                if (child == null) {
+                    return List.of();
+                }
+                int matched = commonPrefixLength(child.label, key, position);
+                if (position + matched < key.length() && matched < child.label.length()) {
+                    return List.of();
+                }
+                position += matched;
+                node = child;
+            }
+            return node.top.stream()
+                    .limit(Math.min(limit, MAX_SUGGESTIONS))
+                    .map(suggestion -> suggestion.text)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Nombre, origen y etiqueta del producto son candidatos a sugerencia
+    private List<String> suggestionTexts(Product product) {
+        List<String> texts = new ArrayList<>(3);
+        for (String text : new String[]{product.getName(), product.getOrigin(), product.getTag()}) {
+            if (text != null && !text.isBlank()) {
+                texts.add(text.trim());
+            }
+        }
+        return texts;
+    }
+    
+    private void addProduct(String productId, List<String> texts) {
+        long weight = 1 + unitsSold.getOrDefault(productId, 0L);
+        Set<Suggestion> contributed = new LinkedHashSet<>();
+        for (String text : texts) {
+            List<String> words = TextNormalizer.words(text);
+            if (words.isEmpty()) {
+                continue;
+            }
+            String normalized = String.join(" ", words);
+            Suggestion suggestion = suggestions.get(normalized);
+            boolean created = suggestion == null;
+            if (created) {
+                suggestion = new Suggestion(text, keysFor(words));
+                suggestions.put(normalized, suggestion);
+            }
+            if (!contributed.add(suggestion)) {
+                continue;
+            }
+            suggestion.weight += weight;
+            if (created) {
+                for (String key : suggestion.keys) {
+                    insert(key, suggestion);
+                }
+            } else {
+                suggestion.keys.forEach(this::refreshPath);
+            }
+        }
+        suggestionsByProduct.put(productId, contributed);
+    }
+    
+    private void removeProduct(String productId) {
+        Set<Suggestion> contributed = suggestionsByProduct.remove(productId);
+        if (contributed == null) {
+            return;
+        }
+        long weight = 1 + unitsSold.getOrDefault(productId, 0L);
+        for (Suggestion suggestion : contributed) {
+            suggestion.weight -= weight;
+            if (suggestion.weight <= 0) {
+                suggestions.remove(String.join(" ", TextNormalizer.words(suggestion.text)));
+                suggestion.keys.forEach(key -> delete(key, suggestion));
+            } else {
+                suggestion.keys.forEach(this::refreshPath);
+            }
+        }
+    }
+    
+    // "Manzanas Fuji" también se sugiere al escribir "fuji"
+    private List<String> keysFor(List<String> words) {
+        List<String> keys = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            if (i == 0 || !TextNormalizer.isStopword(words.get(i))) {
+                keys.add(String.join(" ", words.subList(i, words.size())));
+            }
+        }
+        return keys;
+    }
+    
+    private void insert(String key, Suggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int position = 0;
+        while (position < key.length()) {
+            char next = key.charAt(position);
+            Node child = node.children.get(next);
+            if (child == null) {
+                child = new Node(key.substring(position));
+                node.children.put(next, child);
+                position = key.length();
+            } else {
+                int matched = commonPrefixLength(child.label, key, position);
+                if (matched < child.label.length()) {
+                    // Divide la arista en el punto donde las claves divergen
+                    Node split = new Node(child.label.substring(0, matched));
+                    child.label = child.label.substring(matched);
+                    split.children.put(child.label.charAt(0), child);
+                    split.top = child.top;
+                    node.children.put(next, split);
+                    child = split;
+                }
+                position += matched;
+            }
+            node = child;
+            path.add(node);
+        }
+        node.terminals.add(suggestion);
+        refresh(path);
+    }
+    
+    private void delete(String key, Suggestion suggestion) {
+        List<Node> path = findPath(key);
+        if (path == null) {
+            return;
+        }
+        path.get(path.size() - 1).terminals.remove(suggestion);
+        // Poda las hojas que quedaron vacías
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            if (!node.terminals.isEmpty() || !node.children.isEmpty()) {
+                break;
+            }
+            path.get(i - 1).children.remove(node.label.charAt(0));
+        }
+        refresh(path);
+    }
+    
+    private void refreshPath(String key) {
+        List<Node> path = findPath(key);
+        if (path != null) {
+            refresh(path);
+        }
+    }
+    
+    private List<Node> findPath(String key) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int position = 0;
+        while (position < key.length()) {
+            Node child = node.children.get(key.charAt(position));
+            if (child == null || !key.startsWith(child.label, position)) {
+                return null;
+            }
+            position += child.label.length();
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+    
+    // Recalcula el top-k de abajo hacia arriba a partir de los hijos y las sugerencias propias
+    private void refresh(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            Set<Suggestion> candidates = new LinkedHashSet<>(node.terminals);
+            for (Node child : node.children.values()) {
+                candidates.addAll(child.top);
+            }
+            node.top = candidates.stream()
+                    .sorted(BY_WEIGHT)
+                    .limit(MAX_SUGGESTIONS)
+                    .toList();
+        }
+    }
+    
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+    
+    private static final class Node {
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>();
+        private final Set<Suggestion> terminals = new LinkedHashSet<>();
+        private List<Suggestion> top = List.of();
+        
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+    
+    private static final class Suggestion {
+        private final String text;
+        private final List<String> keys;
+        private long weight;
+        
+        private Suggestion(String text, List<String> keys) {
+            this.text = text;
+            this.keys = keys;
+        }
+        
+        private long weight() {
+            return weight;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.entity.ProductRatingSummary;
+import com.huertohogar.repository.ProductRatingSummaryRepository;
+import com.huertohogar.repository.ReviewRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Recalcula los resúmenes de calificación desde la tabla reviews
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RatingSummaryRepairJob {
+    
+    private final ReviewRepository reviewRepository;
+    private final ProductRatingSummaryRepository ratingSummaryRepository;
+    private final EntityManager entityManager;
+    
+    // Datos existentes antes de que hubiera resúmenes
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initializeIfMissing() {
+        if (ratingSummaryRepository.count() == 0 && reviewRepository.count() > 0) {
+            rebuild();
+        }
+    }
+    
+    @Scheduled(cron = "${reviews.rating-summary.repair-cron:0 30 4 * * *}")
+    @Transactional
+    public int rebuild() {
+        lockRatingSummaries();
+        List<ReviewRepository.RatingAggregate> aggregates = reviewRepository.aggregateRatingsByProduct();
+        
+        ratingSummaryRepository.deleteAllInBatch();
+        for (ReviewRepository.RatingAggregate aggregate : aggregates) {
+            entityManager.persist(new ProductRatingSummary(
+                    aggregate.getProductId(),
+                    aggregate.getReviewCount(),
+                    aggregate.getRatingSum(),
+                    aggregate.getOneStar(),
+                    aggregate.getTwoStars(),
+                    aggregate.getThreeStars(),
+                    aggregate.getFourStars(),
+                    aggregate.getFiveStars()));
+        }
+        log.info("Resúmenes de calificación recalculados para {} productos", aggregates.size());
+        return aggregates.size();
+    }
+    
+    // Bloquea los resúmenes hasta el commit, antes de agregar: una reseña que llegue durante el recálculo
+    // espera y aplica su ajuste sobre los resúmenes ya reconstruidos, en vez de perderse con el borrado
+    private void lockRatingSummaries() {
+        Session session = entityManager.unwrap(Session.class);
+        String database = session.doReturningWork(connection -> connection.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equals(database)) {
+            session.createNativeMutationQuery("LOCK TABLE product_rating_summaries IN SHARE ROW EXCLUSIVE MODE")
+                    .executeUpdate();
+        } else {
+            // H2 no tiene LOCK TABLE: se bloquean los resúmenes existentes, que son los que ajustan las reseñas
+            session.createNativeQuery("SELECT product_id FROM product_rating_summaries FOR UPDATE", Object.class)
+                    .getResultList();
+        }
+    }
+}
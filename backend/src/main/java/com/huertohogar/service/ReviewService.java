@@ -1,15 +1,26 @@
 package com.huertohogar.service;
 
+import com.huertohogar.model.dto.RatingSummaryDTO;
 import com.huertohogar.model.dto.ReviewDTO;
+import com.huertohogar.model.entity.ProductRatingSummary;
 import com.huertohogar.model.entity.Review;
 import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.ProductRatingSummaryRepository;
 import com.huertohogar.repository.ReviewRepository;
 import com.huertohogar.repository.UserRepository;
+import com.huertohogar.security.AuthenticatedUser;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,21 +28,53 @@ import java.util.stream.Collectors;
 @Transactional
 public class ReviewService {
     
+    private static final String INSERT_SUMMARY = "INSERT INTO product_rating_summaries (product_id, review_count, " +
+            "rating_sum, one_star, two_stars, three_stars, four_stars, five_stars) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    // SQLSTATE 23xxx: clave duplicada y demás violaciones de integridad
+    private static final String INTEGRITY_VIOLATION_CLASS = "23";
+    
     private final ReviewRepository reviewRepository;
     private final UserRepository userRepository;
+    private final ProductRatingSummaryRepository ratingSummaryRepository;
+    private final EntityManager entityManager;
     
+    @Transactional(readOnly = true)
     public List<ReviewDTO> getReviewsByProduct(String productId) {
         return reviewRepository.findByProductIdOrderByCreatedAtDesc(productId).stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public Double getAverageRating(String productId) {
-        Double average = reviewRepository.getAverageRatingByProductId(productId);
-        return average != null ? average : 0.0;
+        return ratingSummaryRepository.findById(productId)
+                .map(this::average)
+                .orElse(0.0);
+    }
+    
+    @Transactional(readOnly = true)
+    public RatingSummaryDTO getRatingSummary(String productId) {
+        ProductRatingSummary summary = ratingSummaryRepository.findById(productId)
+                .orElseGet(() -> {
+                    ProductRatingSummary empty = new ProductRatingSummary();
+                    empty.setProductId(productId);
+                    return empty;
+                });
+        
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        distribution.put(1, summary.getOneStar());
+        distribution.put(2, summary.getTwoStars());
+        distribution.put(3, summary.getThreeStars());
+        distribution.put(4, summary.getFourStars());
+        distribution.put(5, summary.getFiveStars());
+        
+        return new RatingSummaryDTO(productId, average(summary), summary.getReviewCount(), distribution);
     }
     
-    public ReviewDTO createReview(String productId, String userEmail, Integer rating, String comment) {
+    public ReviewDTO createReview(String productId, AuthenticatedUser principal, Integer rating, String comment) {
+        validateRating(rating);
+        String userEmail = principal.getEmail();
+        // El nombre visible no viaja en el token; se lee solo al publicar la reseña
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
         
@@ -43,17 +86,22 @@ public class ReviewService {
         review.setComment(comment);
         
         Review saved = reviewRepository.save(review);
+        adjustRatingSummary(productId, null, rating);
         return toDTO(saved);
     }
     
-    public ReviewDTO updateReview(Long reviewId, String userEmail, Integer rating, String comment) {
+    public ReviewDTO updateReview(Long reviewId, AuthenticatedUser principal, Integer rating, String comment) {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Reseña no encontrada"));
         
-        if (!review.getUserEmail().equals(userEmail)) {
+        if (!review.getUserEmail().equals(principal.getEmail())) {
             throw new RuntimeException("No tienes permiso para modificar esta reseña");
         }
+        validateRating(rating);
         
+        if (!rating.equals(review.getRating())) {
+            adjustRatingSummary(review.getProductId(), review.getRating(), rating);
+        }
         review.setRating(rating);
         review.setComment(comment);
         
@@ -61,15 +109,78 @@ public class ReviewService {
         return toDTO(updated);
     }
     
-    public void deleteReview(Long reviewId, String userEmail) {
+    public void deleteReview(Long reviewId, AuthenticatedUser principal) {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Reseña no encontrada"));
         
-        if (!review.getUserEmail().equals(userEmail)) {
+        if (!review.getUserEmail().equals(principal.getEmail())) {
             throw new RuntimeException("No tienes permiso para eliminar esta reseña");
         }
         
         reviewRepository.delete(review);
+        adjustRatingSummary(review.getProductId(), review.getRating(), null);
+    }
+    
+    // Mantiene el resumen de calificaciones en la misma transacción que la reseña
+    private void adjustRatingSummary(String productId, Integer removedRating, Integer addedRating) {
+        long[] stars = new long[6];
+        long countDelta = 0;
+        long sumDelta = 0;
+        if (removedRating != null) {
+            stars[removedRating]--;
+            countDelta--;
+            sumDelta -= removedRating;
+        }
+        if (addedRating != null) {
+            stars[addedRating]++;
+            countDelta++;
+            sumDelta += addedRating;
+        }
+        
+        int updated = ratingSummaryRepository.adjust(productId, countDelta, sumDelta,
+                stars[1], stars[2], stars[3], stars[4], stars[5]);
+        // Primera reseña del producto: se crea el resumen. Si falta en otros casos lo corrige la reparación.
+        // Si otra primera reseña lo crea a la vez, el ajuste se repite sobre esa fila
+        if (updated == 0 && removedRating == null && !insertRatingSummary(productId, sumDelta, stars)) {
+            ratingSummaryRepository.adjust(productId, countDelta, sumDelta,
+                    stars[1], stars[2], stars[3], stars[4], stars[5]);
+        }
+    }
+    
+    // El INSERT va dentro de un savepoint: una clave duplicada en PostgreSQL abortaría la transacción entera
+    private boolean insertRatingSummary(String productId, long ratingSum, long[] stars) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_SUMMARY)) {
+                insert.setString(1, productId);
+                insert.setLong(2, 1);
+                insert.setLong(3, ratingSum);
+                for (int star = 1; star <= 5; star++) {
+                    insert.setLong(3 + star, stars[star]);
+                }
+                insert.executeUpdate();
+                connection.releaseSavepoint(savepoint);
+                return true;
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                if (e.getSQLState() == null || !e.getSQLState().startsWith(INTEGRITY_VIOLATION_CLASS)) {
+                    throw e;
+                }
+                return false;
+            }
+        });
+    }
+    
+    private void validateRating(Integer rating) {
+        if (rating == null || rating < 1 || rating > 5) {
+            throw new RuntimeException("La calificación debe estar entre 1 y 5");
+        }
+    }
+    
+    private Double average(ProductRatingSummary summary) {
+        return summary.getReviewCount() > 0
+                ? (double) summary.getRatingSum() / summary.getReviewCount()
+                : 0.0;
     }
     
     private ReviewDTO toDTO(Review review) {
@@ -0,0 +1,161 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.dto.SalesRollupDTO;
+import com.huertohogar.model.dto.SalesSummaryDTO;
+import com.huertohogar.model.entity.Order;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.SalesRollup;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Reportes del panel de administración leídos solo de sales_rollups: el costo depende de
+// días × categorías × regiones × estados, no de la cantidad de pedidos
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class SalesAnalyticsService {
+    
+    public enum Dimension {
+        DAY("r.id.salesDate"),
+        CATEGORY("r.id.category"),
+        REGION("r.id.region"),
+        STATUS("r.id.status");
+        
+        private final String path;
+        
+        Dimension(String path) {
+            this.path = path;
+        }
+    }
+    
+    private final EntityManager entityManager;
+    
+    public List<SalesRollupDTO> getSales(LocalDate from, LocalDate to, Collection<String> groupBy,
+                                         String category, String region, Order.OrderStatus status) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("La fecha inicial es posterior a la final");
+        }
+        // Solo dimensiones conocidas llegan al JPQL
+        EnumSet<Dimension> dimensions = EnumSet.noneOf(Dimension.class);
+        for (String name : groupBy) {
+            dimensions.add(parseDimension(name));
+        }
+        String groupPaths = dimensions.stream().map(dimension -> dimension.path).collect(Collectors.joining(", "));
+        
+        StringBuilder jpql = new StringBuilder("SELECT ");
+        if (!dimensions.isEmpty()) {
+            jpql.append(groupPaths).append(", ");
+        }
+        jpql.append("SUM(r.revenue), SUM(r.units), SUM(r.orderCount) FROM SalesRollup r ")
+                .append("WHERE r.id.salesDate BETWEEN :from AND :to");
+        // Sin filtro ni agrupación por categoría se usa la fila del pedido completo, que no duplica pedidos
+        if (category != null) {
+            jpql.append(" AND r.id.category = :category");
+        } else if (dimensions.contains(Dimension.CATEGORY)) {
+            jpql.append(" AND r.id.category <> :allCategories");
+        } else {
+            jpql.append(" AND r.id.category = :allCategories");
+        }
+        if (region != null) {
+            jpql.append(" AND r.id.region = :region");
+        }
+        if (status != null) {
+            jpql.append(" AND r.id.status = :status");
+        }
+        if (!dimensions.isEmpty()) {
+            // Las celdas que los cambios de estado dejaron en cero no se reportan
+            jpql.append(" GROUP BY ").append(groupPaths)
+                    .append(" HAVING SUM(r.orderCount) <> 0")
+                    .append(" ORDER BY ").append(groupPaths);
+        }
+        
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setParameter("from", from)
+                .setParameter("to", to);
+        if (category != null) {
+            query.setParameter("category", parseCategory(category));
+        } else {
+            query.setParameter("allCategories", SalesRollup.ALL_CATEGORIES);
+        }
+        if (region != null) {
+            query.setParameter("region", SalesRollupService.regionOf(region));
+        }
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        
+        List<SalesRollupDTO> rows = new ArrayList<>();
+        for (Object[] row : query.getResultList()) {
+            rows.add(toDTO(dimensions, row));
+        }
+        return rows;
+    }
+    
+    public SalesSummaryDTO getSummary(LocalDate from, LocalDate to) {
+        Map<Order.OrderStatus, Long> ordersByStatus = new EnumMap<>(Order.OrderStatus.class);
+        double revenue = 0.0;
+        long units = 0;
+        long orders = 0;
+        for (SalesRollupDTO row : getSales(from, to, List.of(Dimension.STATUS.name()), null, null, null)) {
+            ordersByStatus.put(row.getStatus(), row.getOrders());
+            if (row.getStatus() != Order.OrderStatus.CANCELLED) {
+                revenue += row.getRevenue();
+                units += row.getUnits();
+                orders += row.getOrders();
+            }
+        }
+        return new SalesSummaryDTO(from, to, revenue, units, orders, orders > 0 ? revenue / orders : 0.0, ordersByStatus);
+    }
+    
+    private SalesRollupDTO toDTO(EnumSet<Dimension> dimensions, Object[] row) {
+        SalesRollupDTO dto = new SalesRollupDTO();
+        int column = 0;
+        for (Dimension dimension : dimensions) {
+            Object value = row[column++];
+            switch (dimension) {
+                case DAY -> dto.setSalesDate((LocalDate) value);
+                case CATEGORY -> dto.setCategory((String) value);
+                case REGION -> dto.setRegion((String) value);
+                case STATUS -> dto.setStatus((Order.OrderStatus) value);
+            }
+        }
+        // Sin filas en el rango las sumas vienen en null
+        dto.setRevenue(row[column] != null ? ((Number) row[column]).doubleValue() : 0.0);
+        dto.setUnits(row[column + 1] != null ? ((Number) row[column + 1]).longValue() : 0L);
+        dto.setOrders(row[column + 2] != null ? ((Number) row[column + 2]).longValue() : 0L);
+        return dto;
+    }
+    
+    private Dimension parseDimension(String name) {
+        try {
+            return Dimension.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Dimensión no válida: " + name);
+        }
+    }
+    
+    private String parseCategory(String category) {
+        String normalized = category.trim().toUpperCase(Locale.ROOT);
+        if (normalized.equals(SalesRollup.UNKNOWN_CATEGORY)) {
+            return normalized;
+        }
+        try {
+            return Product.ProductCategory.valueOf(normalized).name();
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Categoría no válida: " + category);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.entity.SalesRollup;
+import com.huertohogar.repository.OrderRepository;
+import com.huertohogar.repository.SalesRollupRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Recalcula los acumulados de ventas desde orders y order_items
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SalesRollupRepairJob {
+    
+    private final OrderRepository orderRepository;
+    private final SalesRollupRepository salesRollupRepository;
+    private final EntityManager entityManager;
+    
+    // Pedidos existentes antes de que hubiera acumulados
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initializeIfMissing() {
+        if (salesRollupRepository.count() == 0 && orderRepository.count() > 0) {
+            rebuild();
+        }
+    }
+    
+    @Scheduled(cron = "${analytics.rollup.repair-cron:0 45 4 * * *}")
+    @Transactional
+    public int rebuild() {
+        lockRollups();
+        
+        // Regiones escritas distinto pueden caer en la misma celda al normalizarse
+        Map<SalesRollup.Key, SalesRollup> cells = new HashMap<>();
+        for (SalesRollupRepository.CategoryRollupAggregate aggregate : salesRollupRepository.aggregateByCategory()) {
+            fold(cells, SalesRollupService.categoryOf(aggregate.getCategory()), aggregate);
+        }
+        for (SalesRollupRepository.RollupAggregate aggregate : salesRollupRepository.aggregateAllCategories()) {
+            fold(cells, SalesRollup.ALL_CATEGORIES, aggregate);
+        }
+        
+        salesRollupRepository.deleteAllInBatch();
+        cells.values().forEach(entityManager::persist);
+        log.info("Acumulados de ventas recalculados: {} celdas", cells.size());
+        return cells.size();
+    }
+    
+    // Bloquea sales_rollups hasta el commit, antes de agregar: un pedido que llegue durante el recálculo
+    // espera y aplica su ajuste sobre las celdas ya reconstruidas, en vez de perderse con el borrado
+    private void lockRollups() {
+        Session session = entityManager.unwrap(Session.class);
+        String database = session.doReturningWork(connection -> connection.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equals(database)) {
+            session.createNativeMutationQuery("LOCK TABLE sales_rollups IN SHARE ROW EXCLUSIVE MODE").executeUpdate();
+        } else {
+            // H2 no tiene LOCK TABLE: se bloquean las celdas existentes, que son las que disputan los pedidos
+            session.createNativeQuery("SELECT sales_date FROM sales_rollups FOR UPDATE", Object.class).getResultList();
+        }
+    }
+    
+    private void fold(Map<SalesRollup.Key, SalesRollup> cells, String category,
+                      SalesRollupRepository.RollupAggregate aggregate) {
+        SalesRollup.Key key = new SalesRollup.Key(aggregate.getSalesDate(), category,
+                SalesRollupService.regionOf(aggregate.getRegion()), aggregate.getStatus());
+        SalesRollup cell = cells.computeIfAbsent(key, k -> new SalesRollup(k, 0.0, 0L, 0L));
+        cell.setRevenue(cell.getRevenue() + aggregate.getRevenue());
+        cell.setUnits(cell.getUnits() + aggregate.getUnits());
+        cell.setOrderCount(cell.getOrderCount() + aggregate.getOrders());
+    }
+}
@@ -0,0 +1,188 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.entity.Order;
+import com.huertohogar.model.entity.OrderItem;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.SalesRollup;
+import com.huertohogar.repository.OrderItemRepository;
+import com.huertohogar.repository.SalesRollupRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Mantiene sales_rollups en la misma transacción que crea el pedido o cambia su estado.
+// Los ajustes se acumulan por celda y se aplican justo antes del commit, en orden de clave:
+// las celdas más disputadas (hoy, región, PENDING) quedan bloqueadas el menor tiempo posible
+// y un lote del checkout asíncrono hace un UPDATE por celda, no uno por pedido
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class SalesRollupService {
+    
+    private static final int MAX_REGION_LENGTH = 100;
+    private static final String INSERT_CELL = "INSERT INTO sales_rollups " +
+            "(sales_date, category, region, status, revenue, units, order_count) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    // SQLSTATE 23xxx: clave duplicada y demás violaciones de integridad
+    private static final String INTEGRITY_VIOLATION_CLASS = "23";
+    private static final Comparator<SalesRollup.Key> KEY_ORDER = Comparator
+            .comparing(SalesRollup.Key::getSalesDate)
+            .thenComparing(SalesRollup.Key::getCategory)
+            .thenComparing(SalesRollup.Key::getRegion)
+            .thenComparing(SalesRollup.Key::getStatus);
+    
+    private final SalesRollupRepository salesRollupRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final EntityManager entityManager;
+    
+    // La categoría es siempre la del ítem al venderse, así un cambio de estado o el recálculo
+    // mueven el pedido entre las mismas celdas aunque el producto cambie de categoría
+    public void recordCreated(Order order) {
+        Map<String, Totals> byCategory = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            String category = categoryOf(item.getCategory());
+            byCategory.merge(category, new Totals(item.getTotalPrice(), item.getQuantity(), 1), Totals::plusItem);
+        }
+        add(order, order.getStatus(), byCategory, 1);
+    }
+    
+    public void recordStatusChange(Order order, Order.OrderStatus previousStatus) {
+        if (previousStatus == order.getStatus()) {
+            return;
+        }
+        Map<String, Totals> byCategory = new HashMap<>();
+        for (OrderItemRepository.CategoryTotals totals : orderItemRepository.sumByCategoryForOrder(order.getOrderId())) {
+            String category = categoryOf(totals.getCategory());
+            byCategory.merge(category, new Totals(totals.getRevenue(), totals.getUnits(), 1), Totals::plusItem);
+        }
+        add(order, previousStatus, byCategory, -1);
+        add(order, order.getStatus(), byCategory, 1);
+    }
+    
+    public static String categoryOf(Product.ProductCategory category) {
+        return category != null ? category.name() : SalesRollup.UNKNOWN_CATEGORY;
+    }
+    
+    public static String regionOf(String region) {
+        if (region == null || region.isBlank()) {
+            return SalesRollup.UNKNOWN_REGION;
+        }
+        String trimmed = region.trim();
+        return trimmed.substring(0, Math.min(trimmed.length(), MAX_REGION_LENGTH));
+    }
+    
+    private void add(Order order, Order.OrderStatus status, Map<String, Totals> byCategory, int sign) {
+        if (byCategory.isEmpty()) {
+            return;
+        }
+        LocalDate salesDate = order.getOrderDate().toLocalDate();
+        String region = regionOf(order.getRegion());
+        Map<SalesRollup.Key, Totals> pending = pendingDeltas();
+        
+        Totals wholeOrder = new Totals(0.0, 0, 1);
+        for (Map.Entry<String, Totals> entry : byCategory.entrySet()) {
+            pending.merge(new SalesRollup.Key(salesDate, entry.getKey(), region, status),
+                    entry.getValue().times(sign), Totals::plus);
+            wholeOrder = wholeOrder.plusItem(entry.getValue());
+        }
+        pending.merge(new SalesRollup.Key(salesDate, SalesRollup.ALL_CATEGORIES, region, status),
+                wholeOrder.times(sign), Totals::plus);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<SalesRollup.Key, Totals> pendingDeltas() {
+        Map<SalesRollup.Key, Totals> pending =
+                (Map<SalesRollup.Key, Totals>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        Map<SalesRollup.Key, Totals> deltas = new TreeMap<>(KEY_ORDER);
+        TransactionSynchronizationManager.bindResource(this, deltas);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                deltas.forEach(SalesRollupService.this::apply);
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(SalesRollupService.this);
+            }
+        });
+        return deltas;
+    }
+    
+    private void apply(SalesRollup.Key key, Totals delta) {
+        if (delta.isZero()) {
+            return;
+        }
+        if (adjust(key, delta) > 0) {
+            return;
+        }
+        // Primera venta de la celda. Si otra transacción la crea a la vez, el INSERT falla dentro
+        // de un savepoint (PostgreSQL abortaría la transacción entera) y el ajuste se repite
+        // sobre la fila ya creada
+        boolean inserted = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_CELL)) {
+                insert.setObject(1, key.getSalesDate());
+                insert.setString(2, key.getCategory());
+                insert.setString(3, key.getRegion());
+                insert.setString(4, key.getStatus().name());
+                insert.setDouble(5, delta.revenue());
+                insert.setLong(6, delta.units());
+                insert.setLong(7, delta.orders());
+                insert.executeUpdate();
+                connection.releaseSavepoint(savepoint);
+                return true;
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                if (e.getSQLState() == null || !e.getSQLState().startsWith(INTEGRITY_VIOLATION_CLASS)) {
+                    throw e;
+                }
+                return false;
+            }
+        });
+        if (!inserted) {
+            adjust(key, delta);
+        }
+    }
+    
+    private int adjust(SalesRollup.Key key, Totals delta) {
+        return salesRollupRepository.adjust(key.getSalesDate(), key.getCategory(), key.getRegion(), key.getStatus().name(),
+                delta.revenue(), delta.units(), delta.orders());
+    }
+    
+    private record Totals(double revenue, long units, long orders) {
+        
+        // Suma ítems de un mismo pedido: el pedido cuenta una sola vez
+        Totals plusItem(Totals other) {
+            return new Totals(revenue + other.revenue, units + other.units, orders);
+        }
+        
+        Totals plus(Totals other) {
+            return new Totals(revenue + other.revenue, units + other.units, orders + other.orders);
+        }
+        
+        Totals times(int sign) {
+            return new Totals(revenue * sign, units * sign, orders * sign);
+        }
+        
+        boolean isZero() {
+            return Math.abs(revenue) < 1e-9 && units == 0 && orders == 0;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.dto.OrderItemRequest;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class StockReservationService {
+    
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET stock = stock - ?, updated_at = ? WHERE id = ? AND stock >= ?";
+    
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    
+    // Una consulta carga y bloquea los productos en orden de ID, y un único batch
+    // de UPDATE condicionales descuenta el stock. Corre dentro de la transacción
+    // del pedido, así que cualquier fallo revierte la reserva completa.
+    public Map<String, Product> reserve(List<OrderItemRequest> items) {
+        SortedMap<String, Integer> quantities = new TreeMap<>();
+        for (OrderItemRequest item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        
+        Map<String, Product> products = lock(quantities.keySet());
+        
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+            if (product == null) {
+                throw new RuntimeException("Producto no encontrado: " + entry.getKey());
+            }
+            if (product.getStock() < entry.getValue()) {
+                throw new RuntimeException("Stock insuficiente para: " + product.getName());
+            }
+        }
+        
+        decrement(quantities, products);
+        return Collections.unmodifiableMap(products);
+    }
+    
+    // Los productos que no existen simplemente no aparecen en el resultado
+    public Map<String, Product> lock(Collection<String> productIds) {
+        return productRepository.findAllByIdForUpdate(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+    }
+    
+    public void decrement(SortedMap<String, Integer> quantities, Map<String, Product> products) {
+        // updated_at a mano: el UPDATE directo no pasa por la auditoría de JPA y el ETag del producto sale de ahí
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batchArgs = new ArrayList<>(quantities.size());
+        List<String> batchIds = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            batchArgs.add(new Object[]{quantity, now, productId, quantity});
+            batchIds.add(productId);
+        });
+        
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, batchArgs);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new RuntimeException("Stock insuficiente para: " + products.get(batchIds.get(i)).getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.huertohogar.util;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+public final class BCryptCostCalibrator {
+    
+    public static final int MIN_STRENGTH = 10;
+    public static final int MAX_STRENGTH = 16;
+    
+    private static final int SAMPLES = 3;
+    private static final String PROBE = "calibracion-huertohogar";
+    
+    private BCryptCostCalibrator() {
+    }
+    
+    // Mide el costo mínimo en esta máquina; cada punto de costo duplica el tiempo del hash
+    public static int calibrate(Duration target) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_STRENGTH);
+        probe.encode(PROBE);
+        
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            probe.encode(PROBE);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        
+        int strength = MIN_STRENGTH;
+        long estimate = samples[SAMPLES / 2];
+        while (strength < MAX_STRENGTH && estimate * 2 <= target.toNanos()) {
+            strength++;
+            estimate *= 2;
+        }
+        return strength;
+    }
+}
@@ -0,0 +1,62 @@
+package com.huertohogar.util;
+
+import com.huertohogar.config.WireFormatConfig;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+public final class ETags {
+    
+    private ETags() {
+    }
+    
+    // ETag débil (la respuesta puede ir comprimida) a partir de la última modificación, con precisión de microsegundos
+    public static String fromUpdatedAt(LocalDateTime updatedAt) {
+        if (updatedAt == null) {
+            return null;
+        }
+        long micros = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000;
+        return "W/\"" + Long.toHexString(micros) + "\"";
+    }
+    
+    // El mismo recurso en CBOR o Smile lleva un sufijo en el ETag, así un cliente que cambia de formato
+    // no recibe 304 por el cuerpo que guardó en otro.
+    // Sigue el orden de los convertidores: con */* o sin Accept se responde JSON
+    public static String forRepresentation(String etag, WebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (etag == null || accept == null) {
+            return etag;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(accepted);
+        } catch (IllegalArgumentException e) {
+            return etag;
+        }
+        for (MediaType mediaType : accepted) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return etag;
+            }
+            if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+                return withSuffix(etag, "cbor");
+            }
+            if (mediaType.equalsTypeAndSubtype(WireFormatConfig.APPLICATION_SMILE)) {
+                return withSuffix(etag, "smile");
+            }
+        }
+        return etag;
+    }
+    
+    private static String withSuffix(String etag, String suffix) {
+        return etag.substring(0, etag.length() - 1) + "-" + suffix + "\"";
+    }
+}
@@ -0,0 +1,55 @@
+package com.huertohogar.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public final class TextNormalizer {
+    
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+    
+    private static final Set<String> STOPWORDS = Set.of(
+            "de", "del", "la", "las", "el", "los", "y", "o", "en", "con", "sin",
+            "para", "por", "un", "una", "al", "es", "se", "su", "sus");
+    
+    private TextNormalizer() {
+    }
+    
+    // "Orgánica" y "organica" producen el mismo término
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+    
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : words(text)) {
+            if (token.length() > 1 && !isStopword(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    // Todas las palabras normalizadas, en orden y sin filtrar
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : NON_ALPHANUMERIC.split(normalize(text))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+    
+    public static boolean isStopword(String word) {
+        return STOPWORDS.contains(word);
+    }
+}
@@ -0,0 +1,176 @@
+-- Esquema tal como lo generaba Hibernate antes de usar migraciones (ddl-auto: update).
+-- Las bases existentes se marcan en esta versión con spring.flyway.baseline-on-migrate
+
+create table blog_posts (
+    read_time integer,
+    created_at timestamp(6),
+    published_date timestamp(6) not null,
+    updated_at timestamp(6),
+    category varchar(100),
+    author varchar(200) not null,
+    title varchar(200) not null,
+    image_url varchar(500),
+    content varchar(10000),
+    id varchar(255) not null,
+    primary key (id)
+);
+
+create table checkout_requests (
+    created_at timestamp(6) not null,
+    processed_at timestamp(6),
+    status varchar(20) not null check (status in ('PENDING','REJECTED')),
+    order_id varchar(36) not null,
+    user_email varchar(100) not null,
+    reason varchar(500),
+    payload varchar(4000) not null,
+    primary key (order_id)
+);
+
+create table idempotency_records (
+    completed boolean not null,
+    status_code integer,
+    expires_at timestamp(6) not null,
+    version bigint,
+    id varchar(64) not null,
+    request_hash varchar(64) not null,
+    content_type varchar(100),
+    response_body ${binary_lob},
+    primary key (id)
+);
+
+create table order_items (
+    quantity integer not null,
+    total_price float(53) not null,
+    unit_price float(53) not null,
+    product_id varchar(100) not null,
+    product_name varchar(200) not null,
+    order_id varchar(255) not null,
+    order_item_id varchar(255) not null,
+    primary key (order_item_id)
+);
+
+create table orders (
+    total_amount float(53) not null,
+    created_at timestamp(6),
+    order_date timestamp(6) not null,
+    updated_at timestamp(6),
+    status varchar(50) not null check (status in ('PENDING','CONFIRMED','PREPARING','SHIPPED','IN_TRANSIT','DELIVERED','CANCELLED')),
+    city varchar(100),
+    region varchar(100),
+    tracking_number varchar(100),
+    user_email varchar(100) not null,
+    shipping_address varchar(500),
+    order_id varchar(255) not null,
+    primary key (order_id)
+);
+
+create table outbox_events (
+    attempts integer not null,
+    failed boolean not null,
+    created_at timestamp(6) not null,
+    dispatched_at timestamp(6),
+    id bigint generated by default as identity,
+    event_type varchar(50) not null,
+    aggregate_id varchar(100) not null,
+    last_error varchar(1000),
+    payload varchar(4000) not null,
+    primary key (id)
+);
+
+create table product_rating_summaries (
+    five_stars bigint not null,
+    four_stars bigint not null,
+    one_star bigint not null,
+    rating_sum bigint not null,
+    review_count bigint not null,
+    three_stars bigint not null,
+    two_stars bigint not null,
+    product_id varchar(100) not null,
+    primary key (product_id)
+);
+
+create table product_tombstones (
+    deleted_at timestamp(6) not null,
+    product_id varchar(255) not null,
+    primary key (product_id)
+);
+
+create table products (
+    is_organic boolean,
+    old_price float(53),
+    price float(53) not null,
+    stock float(53) not null,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    unit varchar(20),
+    category varchar(50) not null check (category in ('FRUTAS_FRESCAS','VERDURAS_ORGANICAS','PRODUCTOS_ORGANICOS','PRODUCTOS_LACTEOS')),
+    tag varchar(50),
+    name varchar(200) not null,
+    origin varchar(200),
+    certifications varchar(500),
+    image_url varchar(500),
+    sustainable_practices varchar(500),
+    description varchar(2000),
+    id varchar(255) not null,
+    primary key (id)
+);
+
+create table reviews (
+    rating integer not null,
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    updated_at timestamp(6),
+    product_id varchar(100) not null,
+    user_email varchar(100) not null,
+    user_name varchar(200) not null,
+    comment varchar(1000),
+    primary key (id)
+);
+
+create table sales_rollups (
+    revenue float(53) not null,
+    sales_date date not null,
+    order_count bigint not null,
+    units bigint not null,
+    category varchar(50) not null,
+    status varchar(50) not null check (status in ('PENDING','CONFIRMED','PREPARING','SHIPPED','IN_TRANSIT','DELIVERED','CANCELLED')),
+    region varchar(100) not null,
+    primary key (sales_date, category, status, region)
+);
+
+create table store_locations (
+    latitude float(53) not null,
+    longitude float(53) not null,
+    phone varchar(20),
+    email varchar(200),
+    name varchar(200) not null,
+    opening_hours varchar(200),
+    address varchar(500) not null,
+    id varchar(255) not null,
+    primary key (id)
+);
+
+create table users (
+    is_active boolean,
+    loyalty_points integer,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    phone varchar(20),
+    city varchar(100),
+    email varchar(100) not null,
+    region varchar(100),
+    full_name varchar(200) not null,
+    address varchar(500),
+    password varchar(255) not null,
+    primary key (email)
+);
+
+create index idx_checkout_requests_status_created on checkout_requests (status, created_at);
+create index idx_idempotency_records_expires_at on idempotency_records (expires_at);
+create index idx_outbox_events_pending on outbox_events (dispatched_at, failed, id);
+create index idx_product_tombstones_deleted_at_id on product_tombstones (deleted_at, product_id);
+create index idx_products_created_at_id on products (created_at, id);
+create index idx_products_updated_at_id on products (updated_at, id);
+
+alter table order_items add constraint fk_order_items_order foreign key (order_id) references orders (order_id);
+alter table orders add constraint fk_orders_user foreign key (user_email) references users (email);
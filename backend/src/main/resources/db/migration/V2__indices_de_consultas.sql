@@ -0,0 +1,20 @@
+-- Índices para las consultas de los repositorios que recorrían la tabla completa
+
+-- Pedidos de un usuario, del más reciente al más antiguo (OrderRepository.findPageByUserEmail y afines)
+create index idx_orders_user_email_order_date on orders (user_email, order_date);
+
+-- Pedidos por estado (OrderRepository.findByStatus)
+create index idx_orders_status on orders (status);
+
+-- Ítems de un pedido; PostgreSQL no indexa las claves foráneas por sí solo
+create index idx_order_items_order_id on order_items (order_id);
+
+-- Reseñas de un producto, de la más reciente a la más antigua, y sus conteos y promedios
+create index idx_reviews_product_id_created_at on reviews (product_id, created_at);
+
+-- Catálogo por categoría y productos orgánicos
+create index idx_products_category on products (category);
+create index idx_products_is_organic on products (is_organic);
+
+-- Artículos del blog por categoría, del más reciente al más antiguo
+create index idx_blog_posts_category_published_date on blog_posts (category, published_date);
@@ -0,0 +1,3 @@
+-- Rol persistido que el login firma en el token. Los usuarios existentes quedan como USER;
+-- un administrador se asigna con: update users set role = 'ADMIN' where email = '...'
+alter table users add column role varchar(20) default 'USER' not null;
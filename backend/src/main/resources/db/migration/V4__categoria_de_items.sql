@@ -0,0 +1,6 @@
+-- Categoría del producto al momento de la venta: los acumulados de ventas la usan al crear el pedido,
+-- en cada cambio de estado y al recalcular, aunque el producto cambie de categoría después
+alter table order_items add column category varchar(50);
+
+-- Los ítems existentes toman la categoría actual del producto (null si ya no existe)
+update order_items set category = (select p.category from products p where p.id = order_items.product_id);
@@ -0,0 +1,4 @@
+-- Cabeceras que se repiten junto con la respuesta guardada: el Location y el Preference-Applied
+-- del 202 del checkout asíncrono
+alter table idempotency_records add column location varchar(500);
+alter table idempotency_records add column preference_applied varchar(100);
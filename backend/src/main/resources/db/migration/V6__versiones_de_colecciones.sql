@@ -0,0 +1,10 @@
+-- Versión de cada colección pública para los ETag: compartida por todas las instancias, así un 304
+-- de una instancia no valida un estado que otra ya cambió
+create table collection_versions (
+    name varchar(50) not null,
+    version bigint not null,
+    primary key (name)
+);
+
+insert into collection_versions (name, version) values ('PRODUCTS', 0);
+insert into collection_versions (name, version) values ('BLOG_POSTS', 0);
@@ -0,0 +1,12 @@
+-- Reclamo de lotes del outbox: cada relay marca los eventos que va a entregar y los demás los saltan
+alter table outbox_events add column claimed_until timestamp(6);
+
+create index idx_outbox_events_aggregate_pending on outbox_events (aggregate_id, dispatched_at);
+
+-- Una sola fila: los relays la bloquean por turnos mientras reclaman su lote
+create table outbox_relay_lock (
+    id integer not null,
+    primary key (id)
+);
+
+insert into outbox_relay_lock (id) values (1);
@@ -0,0 +1,93 @@
+package com.huertohogar;
+
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.UserRepository;
+import com.huertohogar.util.JwtUtil;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+// Lo que comparten los benchmarks de carga HTTP: cliente sembrado, carga con N peticiones en vuelo y percentiles
+public final class BenchmarkSupport {
+    
+    private BenchmarkSupport() {
+    }
+    
+    // Crea un cliente sin contraseña, deja stock de sobra para no agotarlo y devuelve su token
+    public static String seedCustomer(ApplicationContext context, String email, String fullName) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("sin-login");
+        user.setFullName(fullName);
+        user.setIsActive(true);
+        context.getBean(UserRepository.class).save(user);
+        context.getBean(JdbcTemplate.class).update("UPDATE products SET stock = 1000000");
+        return context.getBean(JwtUtil.class).generateToken(email);
+    }
+    
+    // Envía "requests" peticiones manteniendo a lo sumo "concurrency" en vuelo
+    public static Result run(HttpClient client, int requests, int concurrency, IntFunction<HttpRequest> requestFactory) {
+        Semaphore inFlight = new Semaphore(concurrency);
+        List<Long> latencies = new CopyOnWriteArrayList<>();
+        Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(requests);
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquireUninterruptibly();
+            long sent = System.nanoTime();
+            futures.add(client.sendAsync(requestFactory.apply(i), HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        latencies.add(System.nanoTime() - sent);
+                        statuses.computeIfAbsent(response.statusCode(), status -> new AtomicInteger()).incrementAndGet();
+                    })
+                    .whenComplete((ignored, error) -> inFlight.release()));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        return new Result(latencies, statuses, System.nanoTime() - start);
+    }
+    
+    // Percentil en milisegundos de latencias en nanosegundos; 0 si no hay muestras
+    public static double percentile(List<Long> nanos, double quantile) {
+        if (nanos.isEmpty()) {
+            return 0.0;
+        }
+        List<Long> sorted = new ArrayList<>(nanos);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1_000_000.0;
+    }
+    
+    public static URI uri(int port, String path) {
+        return URI.create("http://localhost:" + port + "/api/v1" + path);
+    }
+    
+    public record Result(List<Long> latencies, Map<Integer, AtomicInteger> statuses, long elapsedNanos) {
+        
+        public double requestsPerSecond() {
+            return latencies.size() / (elapsedNanos / 1e9);
+        }
+        
+        public double percentile(double quantile) {
+            return BenchmarkSupport.percentile(latencies, quantile);
+        }
+        
+        public int count(int status) {
+            return statuses.getOrDefault(status, new AtomicInteger()).get();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.huertohogar.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionLimitingDataSourceTest {
+    
+    private ConnectionLimitingDataSource dataSource;
+    
+    @BeforeEach
+    void setup() {
+        dataSource = new ConnectionLimitingDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:connection-limit", "sa", ""), 2, 50);
+    }
+    
+    @Test
+    void shouldRejectConnectionsBeyondLimit() throws Exception {
+        // Given
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            
+            // When / Then
+            long start = System.nanoTime();
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+            assertTrue((System.nanoTime() - start) / 1_000_000 < 1_000);
+        }
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+    
+    @Test
+    void shouldReleasePermitOnlyOnceWhenClosedTwice() throws Exception {
+        // Given
+        Connection connection = dataSource.getConnection();
+        
+        // When
+        connection.close();
+        connection.close();
+        
+        // Then
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+}
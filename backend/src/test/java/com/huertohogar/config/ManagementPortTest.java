@@ -0,0 +1,50 @@
+package com.huertohogar.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:management-port",
+        "spring.jpa.show-sql=false",
+        "management.server.port=0",
+        "outbox.relay.poll-interval-ms=3600000",
+        "idempotency.sweep-interval-ms=3600000"
+})
+@AutoConfigureObservability
+class ManagementPortTest {
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void shouldServePrometheusWithoutTokenOnlyOnTheManagementPort() throws Exception {
+        // When
+        HttpResponse<String> scrape = get("http://localhost:" + managementPort + "/actuator/prometheus");
+        HttpResponse<String> publicScrape = get("http://localhost:" + port + "/api/v1/actuator/prometheus");
+
+        // Then
+        assertEquals(200, scrape.statusCode());
+        assertTrue(scrape.body().contains("hikaricp_connections_max"));
+        assertEquals(401, publicScrape.statusCode());
+    }
+
+    private HttpResponse<String> get(String url) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
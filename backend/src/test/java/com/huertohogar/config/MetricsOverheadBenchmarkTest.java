@@ -0,0 +1,218 @@
+package com.huertohogar.config;
+
+import com.huertohogar.HuertohogarApplication;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.repository.ProductRepository;
+import com.huertohogar.service.PasswordHashingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.boot.actuate.metrics.data.MetricsRepositoryMethodInvocationListener;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocationResult;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import static com.huertohogar.BenchmarkSupport.seedCustomer;
+import static com.huertohogar.BenchmarkSupport.uri;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Costo de la instrumentación en los caminos calientes.
+// Comparar dos instancias de la aplicación (con y sin métricas) no sirve para un margen de 1%: dos instancias
+// idénticas ya difieren en más que eso. En su lugar se mide en nanosegundos cada punto instrumentado
+// (filtro HTTP, aspecto de servicio, listener de repositorio), se cuenta cuántos dispara cada petición
+// según los propios contadores, y el producto se compara con la latencia medida de la petición
+@Tag("benchmark")
+class MetricsOverheadBenchmarkTest {
+    
+    private static final int ROUNDS = 21;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int OPERATIONS_PER_ROUND = 100_000;
+    private static final int REQUESTS_PER_ROUND = 100;
+    private static final double MAX_OVERHEAD = 0.01;
+    private static final String EMAIL = "metricas@huertohogar.cl";
+    private static final List<String> INSTRUMENTED_TIMERS = List.of(
+            "http.server.requests", ServiceMetricsAspect.METRIC_NAME, "spring.data.repository.invocations");
+    
+    private final HttpClient client = HttpClient.newHttpClient();
+    
+    @Test
+    void measureInstrumentationOverhead() throws Exception {
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(HuertohogarApplication.class).run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:metrics-overhead",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.com.huertohogar=INFO")) {
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            double[] costs = {httpFilterNanos(context), serviceAspectNanos(context), repositoryListenerNanos(context)};
+            System.out.println("Costo por punto instrumentado");
+            System.out.printf("  http.server.requests             %6.0f ns%n", costs[0]);
+            System.out.printf("  service.invocations              %6.0f ns%n", costs[1]);
+            System.out.printf("  spring.data.repository.invocations %4.0f ns%n", costs[2]);
+            
+            int port = context.getWebServer().getPort();
+            String token = seedCustomer(context, EMAIL, "Cliente Métricas");
+            String productId = context.getBean(ProductRepository.class).findAll().stream()
+                    .map(Product::getId)
+                    .sorted()
+                    .findFirst()
+                    .orElseThrow();
+            
+            System.out.println("Sobrecosto por petición");
+            assertOverhead("GET /products/{id}", meterRegistry, costs,
+                    () -> send(HttpRequest.newBuilder(uri(port, "/products/" + productId)).GET().build()));
+            assertOverhead("GET /products/search", meterRegistry, costs,
+                    () -> send(HttpRequest.newBuilder(uri(port, "/products/search?query=manzana")).GET().build()));
+            assertOverhead("POST /orders", meterRegistry, costs,
+                    () -> send(HttpRequest.newBuilder(uri(port, "/orders"))
+                            .header("Authorization", "Bearer " + token)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"items\":[{\"productId\":\"" + productId
+                                    + "\",\"quantity\":1}],\"shippingAddress\":\"Av. Grecia 900\",\"city\":\"Santiago\","
+                                    + "\"region\":\"Región Metropolitana\"}"))
+                            .build()));
+        }
+    }
+    
+    private void assertOverhead(String label, MeterRegistry meterRegistry, double[] costs, IntSupplier request) {
+        long[] before = counts(meterRegistry);
+        double latencyNanos = median(() -> {
+            for (int i = 0; i < REQUESTS_PER_ROUND; i++) {
+                assertTrue(request.getAsInt() < 300);
+            }
+        }) / REQUESTS_PER_ROUND;
+        long[] after = counts(meterRegistry);
+        
+        long requests = after[0] - before[0];
+        double instrumentationNanos = 0;
+        double[] perRequest = new double[costs.length];
+        for (int i = 0; i < costs.length; i++) {
+            perRequest[i] = (double) (after[i] - before[i]) / requests;
+            instrumentationNanos += perRequest[i] * costs[i];
+        }
+        double overhead = instrumentationNanos / latencyNanos;
+        System.out.printf("  %-22s %8.1f µs  %.0f filtro + %.1f servicio + %.1f repositorio = %5.2f µs  (%.3f%%)%n",
+                label, latencyNanos / 1_000, perRequest[0], perRequest[1], perRequest[2],
+                instrumentationNanos / 1_000, overhead * 100);
+        assertTrue(overhead < MAX_OVERHEAD, label + ": " + overhead * 100 + "%");
+    }
+    
+    // Filtro de observación HTTP completo sobre una petición de prueba, menos el mismo recorrido sin filtro
+    private double httpFilterNanos(ServletWebServerApplicationContext context) throws Exception {
+        Filter filter = context.getBean("webMvcObservationFilter", FilterRegistrationBean.class).getFilter();
+        FilterChain handler = (request, response) -> ServerHttpObservationFilter
+                .findObservationContext((jakarta.servlet.http.HttpServletRequest) request)
+                .ifPresent(observation -> observation.setPathPattern("/products/{id}"));
+        double filtered = median(() -> {
+            for (int i = 0; i < OPERATIONS_PER_ROUND; i++) {
+                try {
+                    filter.doFilter(new MockHttpServletRequest("GET", "/products/1"), new MockHttpServletResponse(), handler);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        double bare = median(() -> {
+            for (int i = 0; i < OPERATIONS_PER_ROUND; i++) {
+                try {
+                    handler.doFilter(new MockHttpServletRequest("GET", "/products/1"), new MockHttpServletResponse());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        return (filtered - bare) / OPERATIONS_PER_ROUND;
+    }
+    
+    // Un método barato de un @Service llamado por el proxy (aspecto + Timer) y directo sobre el objeto
+    private double serviceAspectNanos(ServletWebServerApplicationContext context) throws Exception {
+        PasswordHashingService proxy = context.getBean(PasswordHashingService.class);
+        PasswordHashingService target = (PasswordHashingService) ((Advised) proxy).getTargetSource().getTarget();
+        String hash = "$2a$10$abcdefghijklmnopqrstuv";
+        int[] sink = new int[1];
+        double advised = median(() -> {
+            for (int i = 0; i < OPERATIONS_PER_ROUND; i++) {
+                sink[0] += proxy.needsUpgrade(hash) ? 1 : 0;
+            }
+        });
+        double direct = median(() -> {
+            for (int i = 0; i < OPERATIONS_PER_ROUND; i++) {
+                sink[0] += target.needsUpgrade(hash) ? 1 : 0;
+            }
+        });
+        return (advised - direct) / OPERATIONS_PER_ROUND;
+    }
+    
+    // Lo que Spring Boot hace al terminar cada llamada a un repositorio
+    private double repositoryListenerNanos(ServletWebServerApplicationContext context) throws Exception {
+        MetricsRepositoryMethodInvocationListener listener = context.getBean(MetricsRepositoryMethodInvocationListener.class);
+        RepositoryMethodInvocationResult success = new RepositoryMethodInvocationResult() {
+            @Override
+            public State getState() {
+                return State.SUCCESS;
+            }
+            
+            @Override
+            public Throwable getError() {
+                return null;
+            }
+        };
+        RepositoryMethodInvocation invocation = new RepositoryMethodInvocation(ProductRepository.class,
+                ProductRepository.class.getMethod("findById", Object.class), success, 1_000);
+        return median(() -> {
+            for (int i = 0; i < OPERATIONS_PER_ROUND; i++) {
+                listener.afterInvocation(invocation);
+            }
+        }) / OPERATIONS_PER_ROUND;
+    }
+    
+    private static long[] counts(MeterRegistry meterRegistry) {
+        return INSTRUMENTED_TIMERS.stream()
+                .mapToLong(name -> meterRegistry.find(name).timers().stream().mapToLong(Timer::count).sum())
+                .toArray();
+    }
+    
+    private static double median(Runnable round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run();
+        }
+        long[] nanos = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            round.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[ROUNDS / 2];
+    }
+    
+    private int send(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.huertohogar.config;
+
+import com.huertohogar.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:metrics",
+        "spring.jpa.show-sql=false"
+})
+// Los tests de Spring Boot desactivan la exportación de métricas salvo que se pida
+@AutoConfigureObservability
+class MetricsTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void shouldExposeEndpointServiceRepositoryAndPoolMetrics() throws Exception {
+        // Given
+        assertEquals(200, get("/products/search?query=manzanas-unicas-123").statusCode());
+        assertEquals(400, get("/products/no-existe-456").statusCode());
+
+        // When
+        HttpResponse<String> scrape = get("/actuator/prometheus",
+                jwtUtil.generateToken("admin@huertohogar.cl", List.of(JwtUtil.ADMIN_ROLE)));
+
+        // Then
+        assertEquals(200, scrape.statusCode());
+        String metrics = scrape.body();
+        assertTrue(hasSample(metrics, "http_server_requests_seconds_count", "uri=\"/products/search\""));
+        assertTrue(hasSample(metrics, "http_server_requests_seconds_bucket", "uri=\"/products/search\""));
+        assertTrue(hasSample(metrics, "service_invocations_seconds_count",
+                "class=\"ProductService\"", "method=\"searchProducts\"", "outcome=\"success\""));
+        assertTrue(hasSample(metrics, "service_invocations_seconds_count",
+                "method=\"getProductById\"", "outcome=\"error\"", "exception=\"RuntimeException\""));
+        assertTrue(hasSample(metrics, "spring_data_repository_invocations_seconds_count", "repository=\"ProductRepository\""));
+        assertTrue(hasSample(metrics, "hikaricp_connections_active"));
+        assertTrue(hasSample(metrics, "hikaricp_connections_max"));
+        // Ni la consulta ni el id llegan a los tags
+        assertFalse(metrics.contains("manzanas-unicas-123"));
+        assertFalse(metrics.contains("no-existe-456"));
+    }
+
+    @Test
+    void shouldOnlyExposeHealthAnonymouslyOnThePublicPort() throws Exception {
+        // When
+        int health = get("/actuator/health").statusCode();
+        int anonymousScrape = get("/actuator/prometheus").statusCode();
+        int userScrape = get("/actuator/prometheus", jwtUtil.generateToken("cliente@huertohogar.cl")).statusCode();
+
+        // Then
+        assertEquals(200, health);
+        assertEquals(401, anonymousScrape);
+        assertEquals(403, userScrape);
+    }
+
+    private static boolean hasSample(String metrics, String name, String... labels) {
+        return Arrays.stream(metrics.split("\n"))
+                .filter(line -> line.startsWith(name + "{") || line.startsWith(name + " "))
+                .anyMatch(line -> Arrays.stream(labels).allMatch(line::contains));
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return get(path, null);
+    }
+
+    private HttpResponse<String> get(String path, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1" + path)).GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,61 @@
+package com.huertohogar.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:plan-check",
+        "spring.jpa.show-sql=false",
+        "outbox.relay.poll-interval-ms=3600000",
+        "idempotency.sweep-interval-ms=3600000"
+})
+class QueryPlanCheckTest {
+    
+    @Autowired
+    private QueryPlanCheck queryPlanCheck;
+    
+    @Test
+    void shouldFindNoUnexpectedTableScans() {
+        // When
+        List<QueryPlanCheck.Finding> findings = queryPlanCheck.check();
+        
+        // Then
+        assertFalse(findings.isEmpty());
+        assertEquals(List.of(), findings.stream().filter(QueryPlanCheck.Finding::unexpectedScan).toList());
+    }
+    
+    @Test
+    void shouldUseTheQueryIndexes() {
+        // When
+        Map<String, QueryPlanCheck.Finding> findings = queryPlanCheck.check().stream()
+                .collect(Collectors.toMap(QueryPlanCheck.Finding::method, Function.identity()));
+        
+        // Then: las consultas que cubren los índices de V2 no recorren la tabla
+        for (String method : List.of(
+                "OrderRepository.findPageByUserEmail",
+                "OrderRepository.findByUserOrderByOrderDateDesc",
+                "OrderRepository.findByStatus",
+                "OrderItemRepository.findByOrderIds",
+                "ReviewRepository.findByProductIdOrderByCreatedAtDesc",
+                "ProductRepository.findByCategory",
+                "ProductRepository.findByIsOrganicTrue",
+                "BlogPostRepository.findByCategoryOrderByPublishedDateDesc")) {
+            assertEquals(List.of(), findings.get(method).scannedTables(), method);
+        }
+        
+        // Then: un recorrido permitido se reporta como esperado
+        QueryPlanCheck.Finding search = findings.get("ProductRepository.searchProducts");
+        assertEquals(List.of("products"), search.scannedTables());
+        assertTrue(search.expected());
+    }
+}
@@ -0,0 +1,222 @@
+package com.huertohogar.config;
+
+import com.huertohogar.model.dto.BlogPostDTO;
+import com.huertohogar.model.dto.UserDTO;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.ProductRepository;
+import com.huertohogar.repository.UserRepository;
+import com.huertohogar.security.AuthenticatedUser;
+import com.huertohogar.service.BlogPostService;
+import com.huertohogar.service.ProductService;
+import com.huertohogar.service.UserService;
+import com.huertohogar.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "datasource.replica.enabled=true",
+        "datasource.replica.url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "datasource.replica.read-your-writes-window=PT2S",
+        "spring.jpa.show-sql=false",
+        "outbox.relay.poll-interval-ms=3600000",
+        "idempotency.sweep-interval-ms=3600000"
+})
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica";
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primary;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private BlogPostService blogPostService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldSendOnlyReadOnlyTransactionsToTheReplica() throws Exception {
+        // Given: la réplica al día y después una escritura que todavía no le llega
+        String email = "replica@correo.cl";
+        createUser(email, "Nombre Original");
+        replicate(primary);
+        new JdbcTemplate(primary).update("UPDATE users SET full_name = ? WHERE email = ?", "Nombre Nuevo", email);
+
+        // When
+        String readOnly = userService.getUserByEmail(email).getFullName();
+        String readWrite = new TransactionTemplate(transactionManager)
+                .execute(status -> userRepository.findByEmail(email).orElseThrow().getFullName());
+
+        // Then
+        assertEquals("Nombre Original", readOnly);
+        assertEquals("Nombre Nuevo", readWrite);
+    }
+
+    @Test
+    void shouldReadOwnWritesFromThePrimaryDuringTheWindow() throws Exception {
+        // Given
+        String email = "ana@correo.cl";
+        createUser(email, "Ana Pérez");
+        replicate(primary);
+
+        // When: la usuaria actualiza su perfil
+        authenticate(email);
+        UserDTO profile = userService.getUserByEmail(email);
+        profile.setFullName("Ana Pérez Soto");
+        userService.updateUser(email, profile);
+
+        // Then: ella ve su cambio; otro usuario sigue leyendo la réplica atrasada
+        assertEquals("Ana Pérez Soto", userService.getUserByEmail(email).getFullName());
+        authenticate("otro@correo.cl");
+        assertEquals("Ana Pérez", userService.getUserByEmail(email).getFullName());
+
+        // Then: pasada la ventana, también ella vuelve a la réplica
+        authenticate(email);
+        Thread.sleep(2_200);
+        assertEquals("Ana Pérez", userService.getUserByEmail(email).getFullName());
+    }
+
+    @Test
+    void shouldFillTheCatalogCacheFromThePrimary() throws Exception {
+        // Given: la réplica todavía no recibe el cambio de precio
+        Product product = new Product();
+        product.setName("Frambuesas");
+        product.setPrice(2500.0);
+        product.setStock(20.0);
+        product.setCategory(Product.ProductCategory.FRUTAS_FRESCAS);
+        product.setUnit("kg");
+        product.setIsOrganic(true);
+        product = productRepository.save(product);
+        replicate(primary);
+        new JdbcTemplate(primary).update("UPDATE products SET price = ? WHERE id = ?", 2800.0, product.getId());
+
+        // When: una lectura anónima llena la caché
+        double cached = productService.getProductById(product.getId()).getPrice();
+
+        // Then: la caché queda con el precio de la primaria, no con el atrasado
+        assertEquals(2800.0, cached);
+        assertEquals(2800.0, productService.getProductById(product.getId()).getPrice());
+    }
+
+    @Test
+    void shouldServeEtaggedListsFromThePrimary() throws Exception {
+        // Given: la réplica todavía no recibe el cambio de precio ni el título nuevo
+        Product product = new Product();
+        product.setName("Arándanos");
+        product.setPrice(3000.0);
+        product.setStock(20.0);
+        product.setCategory(Product.ProductCategory.FRUTAS_FRESCAS);
+        product.setUnit("kg");
+        product.setIsOrganic(true);
+        product = productRepository.save(product);
+        BlogPostDTO post = new BlogPostDTO();
+        post.setTitle("Cosecha de otoño");
+        post.setContent("Qué sembrar antes del invierno.");
+        post.setAuthor("Equipo HuertoHogar");
+        post.setCategory("Temporada");
+        String postId = blogPostService.createPost(post).getId();
+        replicate(primary);
+        JdbcTemplate primaryJdbc = new JdbcTemplate(primary);
+        primaryJdbc.update("UPDATE products SET price = ? WHERE id = ?", 3300.0, product.getId());
+        primaryJdbc.update("UPDATE blog_posts SET title = ? WHERE id = ?", "Cosecha de otoño (editado)", postId);
+
+        // When
+        String productId = product.getId();
+        double paged = productService.getProductsPage(null, 1_000).getItems().stream()
+                .filter(item -> item.getId().equals(productId))
+                .findFirst().orElseThrow().getPrice();
+        String title = blogPostService.getAllPosts().stream()
+                .filter(item -> item.getId().equals(postId))
+                .findFirst().orElseThrow().getTitle();
+
+        // Then: los listados que llevan el ETag de la colección ven la última escritura
+        assertEquals(3300.0, paged);
+        assertEquals("Cosecha de otoño (editado)", title);
+    }
+
+    private void createUser(String email, String fullName) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("sin-login");
+        user.setFullName(fullName);
+        user.setIsActive(true);
+        userRepository.save(user);
+    }
+
+    private static void authenticate(String email) {
+        AuthenticatedUser user = new AuthenticatedUser(email, List.of(JwtUtil.DEFAULT_ROLE));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    // Copia completa de la primaria en la réplica: la réplica queda al día hasta la próxima escritura
+    static void replicate(DataSource primary) throws IOException, SQLException {
+        Path script = Files.createTempFile("replica", ".sql");
+        try {
+            new JdbcTemplate(primary).execute("SCRIPT TO '" + script + "'");
+            try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+                 Statement statement = replica.createStatement()) {
+                statement.execute("DROP ALL OBJECTS");
+                statement.execute("RUNSCRIPT FROM '" + script + "'");
+            }
+        } finally {
+            Files.deleteIfExists(script);
+        }
+    }
+
+    // Los índices en memoria se cargan desde la réplica al quedar lista la aplicación: se copia antes
+    @TestConfiguration
+    static class InitialReplication {
+
+        @EventListener(ApplicationReadyEvent.class)
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        public void replicateSeedData(ApplicationReadyEvent event) throws Exception {
+            replicate(event.getApplicationContext().getBean("primaryDataSource", DataSource.class));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.huertohogar.config;
+
+import com.huertohogar.HuertohogarApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Carga con los volúmenes del perfil "synthetic" (1M pedidos) en H2 en memoria; objetivo: menos de un minuto
+@Tag("benchmark")
+class SyntheticDataGeneratorBenchmarkTest {
+    
+    private static final int PRODUCTS = 50_000;
+    private static final int USERS = 200_000;
+    private static final int ORDERS = 1_000_000;
+    private static final int REVIEWS = 300_000;
+    
+    @Test
+    void seedOneMillionOrders() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HuertohogarApplication.class)
+                // Como argumentos, para que tengan prioridad sobre application.yml
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:synthetic-benchmark",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.com.huertohogar=INFO",
+                        "--outbox.relay.poll-interval-ms=3600000",
+                        "--idempotency.sweep-interval-ms=3600000")) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            SyntheticDataGeneratorTest.clear(jdbcTemplate);
+            SyntheticDataGenerator generator = new SyntheticDataGenerator(jdbcTemplate,
+                    context.getBean(PasswordEncoder.class), 42, PRODUCTS, USERS, ORDERS, REVIEWS, 1.0, 0.6, 730,
+                    "2025-06-30", 1000);
+            
+            SyntheticDataGenerator.Summary summary = generator.generate();
+            
+            long rows = summary.products() + summary.users() + summary.orders() + summary.items() + summary.reviews();
+            System.out.printf("Datos sintéticos: %d productos, %d usuarios, %d pedidos, %d ítems, %d reseñas%n",
+                    summary.products(), summary.users(), summary.orders(), summary.items(), summary.reviews());
+            System.out.printf("  %.1f s (objetivo < 60 s), %.0f filas/s%n",
+                    summary.millis() / 1000.0, rows / (summary.millis() / 1000.0));
+            assertEquals(ORDERS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class));
+            assertEquals(summary.items(), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items", Long.class));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.huertohogar.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ActiveProfiles("synthetic")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:synthetic-data",
+        "synthetic-data.products=200",
+        "synthetic-data.users=500",
+        "synthetic-data.orders=5000",
+        "synthetic-data.reviews=800",
+        "synthetic-data.end-date=2025-06-30",
+        "synthetic-data.days=365",
+        "outbox.relay.poll-interval-ms=3600000",
+        "idempotency.sweep-interval-ms=3600000"
+})
+class SyntheticDataGeneratorTest {
+    
+    @Autowired
+    private SyntheticDataGenerator generator;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void shouldSeedConfiguredVolumesWithRealisticSkew() {
+        // Then: volúmenes configurados, sin el catálogo de ejemplo
+        assertEquals(200, count("SELECT COUNT(*) FROM products"));
+        assertEquals(500, count("SELECT COUNT(*) FROM users"));
+        assertEquals(5000, count("SELECT COUNT(*) FROM orders"));
+        assertEquals(800, count("SELECT COUNT(*) FROM reviews"));
+        assertEquals(0, count("SELECT COUNT(*) FROM products WHERE id = 'FR001'"));
+        
+        // Then: cada total coincide con sus ítems y todo cae dentro de la ventana
+        assertEquals(0, count("SELECT COUNT(*) FROM orders o WHERE ABS(o.total_amount - "
+                + "(SELECT SUM(i.total_price) FROM order_items i WHERE i.order_id = o.order_id)) > 0.001"));
+        assertEquals(0, count("SELECT COUNT(*) FROM orders WHERE order_date < DATE '2024-07-01' "
+                + "OR order_date >= DATE '2025-07-01'"));
+        
+        // Then: Zipf, el 10% más vendido concentra la mayoría de los ítems
+        List<Long> sales = jdbcTemplate.queryForList(
+                "SELECT COUNT(*) FROM order_items GROUP BY product_id ORDER BY COUNT(*) DESC", Long.class);
+        long top = sales.stream().limit(20).mapToLong(Long::longValue).sum();
+        long all = sales.stream().mapToLong(Long::longValue).sum();
+        assertTrue(top > all / 2, "Top 10%: " + top + " de " + all);
+        
+        // Then: la Región Metropolitana concentra cerca del 40% de los pedidos
+        long metropolitana = count("SELECT COUNT(*) FROM orders WHERE region = 'Región Metropolitana'");
+        assertTrue(metropolitana > 1500 && metropolitana < 2500, "Región Metropolitana: " + metropolitana);
+        
+        // Then: diciembre vende más que febrero
+        assertTrue(count("SELECT COUNT(*) FROM orders WHERE MONTH(order_date) = 12")
+                > count("SELECT COUNT(*) FROM orders WHERE MONTH(order_date) = 2") * 3 / 2);
+        
+        // Then: lo de los últimos días sigue en curso; nada reciente está entregado
+        assertEquals(0, count("SELECT COUNT(*) FROM orders WHERE order_date >= DATE '2025-06-29' "
+                + "AND status IN ('DELIVERED', 'CANCELLED')"));
+    }
+    
+    @Test
+    void shouldRegenerateIdenticalDataFromTheSameSeed() {
+        // Given
+        String first = fingerprint();
+        
+        // When
+        clear(jdbcTemplate);
+        generator.generate();
+        
+        // Then
+        assertEquals(first, fingerprint());
+    }
+    
+    private String fingerprint() {
+        return jdbcTemplate.queryForObject("SELECT CONCAT("
+                + "(SELECT LISTAGG(order_id || user_email || order_date || status || total_amount, ',') "
+                + "WITHIN GROUP (ORDER BY order_id) FROM orders), "
+                + "(SELECT LISTAGG(product_id || quantity, ',') WITHIN GROUP (ORDER BY order_item_id) FROM order_items), "
+                + "(SELECT LISTAGG(product_id || user_email || rating, ',') WITHIN GROUP (ORDER BY id) FROM reviews))",
+                String.class);
+    }
+    
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+    
+    static void clear(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        for (String table : List.of("reviews", "product_rating_summaries", "sales_rollups", "order_items", "orders",
+                "users", "products")) {
+            jdbcTemplate.execute("TRUNCATE TABLE " + table);
+        }
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+}
@@ -0,0 +1,163 @@
+package com.huertohogar.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huertohogar.model.dto.ApiResponse;
+import com.huertohogar.model.dto.OrderDTO;
+import com.huertohogar.model.dto.OrderItemDTO;
+import com.huertohogar.model.dto.ProductDTO;
+import com.huertohogar.model.entity.Order;
+import com.huertohogar.model.entity.Product;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Bytes en el cable y tiempo de serializar/parsear ApiResponse con 10k filas, con los mismos
+// ObjectMapper que usan los convertidores de la API
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:wire-format-benchmark",
+        "spring.jpa.show-sql=false"
+})
+class WireFormatBenchmarkTest {
+    
+    private static final int ROWS = 10_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+    
+    private static final String[] NAMES = {"Manzanas Fuji", "Naranjas Valencia", "Plátanos Cavendish",
+            "Zanahorias Orgánicas", "Espinacas Frescas", "Pimientos Tricolores", "Miel Orgánica", "Quinua Orgánica"};
+    private static final String[] REGIONS = {"Región Metropolitana", "Región de Valparaíso", "Región del Biobío",
+            "Región de La Araucanía", "Región de Los Lagos"};
+    
+    @Autowired
+    private MappingJackson2HttpMessageConverter jsonConverter;
+    
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+    
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+    
+    @Test
+    void compareWireFormats() {
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("JSON ", jsonConverter.getObjectMapper());
+        formats.put("CBOR ", cborConverter.getObjectMapper());
+        formats.put("Smile", smileConverter.getObjectMapper());
+        
+        report("Catálogo", ApiResponse.success(products()), new TypeReference<ApiResponse<List<ProductDTO>>>() {
+        }, formats);
+        report("Historial de pedidos", ApiResponse.success(orders()), new TypeReference<ApiResponse<List<OrderDTO>>>() {
+        }, formats);
+    }
+    
+    private <T> void report(String label, ApiResponse<T> payload, TypeReference<ApiResponse<T>> type,
+                            Map<String, ObjectMapper> formats) {
+        System.out.printf("%s (%d filas)%n", label, ROWS);
+        formats.forEach((name, mapper) -> {
+            byte[] bytes = write(mapper, payload);
+            double serializeMillis = measure(() -> write(mapper, payload).length);
+            double parseMillis = measure(() -> read(mapper, bytes, type).getData().hashCode());
+            System.out.printf("  %s  %9d B  gzip %8d B  serializar %7.2f ms  parsear %7.2f ms%n",
+                    name, bytes.length, gzip(bytes).length, serializeMillis, parseMillis);
+            assertEquals(payload, read(mapper, bytes, type));
+        });
+    }
+    
+    private static List<ProductDTO> products() {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<ProductDTO> products = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            boolean organic = random.nextInt(3) == 0;
+            String name = NAMES[random.nextInt(NAMES.length)];
+            String origin = REGIONS[random.nextInt(REGIONS.length)];
+            products.add(new ProductDTO(UUID.randomUUID().toString(), name, name + " cultivadas en " + origin + ", lote " + i + ".",
+                    1000.0 + random.nextInt(5000), random.nextBoolean() ? null : 6500.0, 10.0 + random.nextInt(200),
+                    Product.ProductCategory.values()[random.nextInt(4)], "https://cdn.huertohogar.cl/productos/" + i + ".jpg",
+                    organic ? "Orgánico" : "Frescos", origin, "kg", organic, organic ? "Certificación Orgánica" : "",
+                    organic ? "Riego por goteo, sin pesticidas" : "", now.minusDays(random.nextInt(365)), now));
+        }
+        return products;
+    }
+    
+    private static List<OrderDTO> orders() {
+        Random random = new Random(7);
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<OrderDTO> orders = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            List<OrderItemDTO> items = new ArrayList<>();
+            double total = 0;
+            for (int j = 0, count = 1 + random.nextInt(4); j < count; j++) {
+                int quantity = 1 + random.nextInt(5);
+                double unitPrice = 1000.0 + random.nextInt(5000);
+                total += quantity * unitPrice;
+                items.add(new OrderItemDTO(UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+                        NAMES[random.nextInt(NAMES.length)], quantity, unitPrice, quantity * unitPrice));
+            }
+            LocalDateTime date = now.minusHours(random.nextInt(24 * 365));
+            orders.add(new OrderDTO(UUID.randomUUID().toString(), "cliente@huertohogar.cl", date,
+                    Order.OrderStatus.values()[random.nextInt(Order.OrderStatus.values().length)], total,
+                    "Av. Providencia " + random.nextInt(3000), "Santiago", REGIONS[random.nextInt(REGIONS.length)],
+                    random.nextBoolean() ? "HH" + random.nextInt(1_000_000) : null, items, date));
+        }
+        return orders;
+    }
+    
+    private static byte[] write(ObjectMapper mapper, Object payload) {
+        try {
+            return mapper.writeValueAsBytes(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static <T> T read(ObjectMapper mapper, byte[] bytes, TypeReference<T> type) {
+        try {
+            return mapper.readValue(bytes, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+    
+    private double measure(Supplier<Integer> round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            round.get();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ROUNDS;
+    }
+}
@@ -0,0 +1,101 @@
+package com.huertohogar.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:wire-format",
+        "spring.jpa.show-sql=false"
+})
+class WireFormatTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void shouldNegotiateBinaryFormatsWithTheSameContent() throws Exception {
+        // When
+        HttpResponse<byte[]> json = get("/products", "application/json", null);
+        HttpResponse<byte[]> cbor = get("/products", "application/cbor", null);
+        HttpResponse<byte[]> smile = get("/products", "application/x-jackson-smile", null);
+        HttpResponse<byte[]> anything = get("/products", "*/*", null);
+
+        // Then: mismo contenido, en menos bytes
+        JsonNode expected = new ObjectMapper().readTree(json.body());
+        assertEquals("application/cbor", contentType(cbor));
+        assertEquals(expected, new ObjectMapper(new CBORFactory()).readTree(cbor.body()));
+        assertEquals("application/x-jackson-smile", contentType(smile));
+        assertEquals(expected, new ObjectMapper(new SmileFactory()).readTree(smile.body()));
+        assertTrue(cbor.body().length < json.body().length);
+        assertTrue(smile.body().length < json.body().length);
+        assertEquals("application/json", contentType(anything));
+
+        // Then: cada representación con su propio ETag
+        String jsonEtag = json.headers().firstValue("ETag").orElseThrow();
+        String cborEtag = cbor.headers().firstValue("ETag").orElseThrow();
+        assertNotEquals(jsonEtag, cborEtag);
+        assertTrue(cbor.headers().allValues("Vary").stream().anyMatch(vary -> vary.toLowerCase().contains("accept")));
+        assertEquals(304, get("/products", "application/cbor", cborEtag).statusCode());
+        assertEquals(200, get("/products", "application/cbor", jsonEtag).statusCode());
+    }
+
+    @Test
+    void shouldCompressOnlyAboveThreshold() throws Exception {
+        // When
+        HttpResponse<byte[]> catalog = send(HttpRequest.newBuilder(uri("/products"))
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .build());
+        String productId = new ObjectMapper().readTree(get("/products", "application/json", null).body())
+                .path("data").get(0).path("id").asText();
+        HttpResponse<byte[]> product = send(HttpRequest.newBuilder(uri("/products/" + productId))
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .build());
+
+        // Then
+        assertEquals("gzip", catalog.headers().firstValue("Content-Encoding").orElse(null));
+        JsonNode body = new ObjectMapper().readTree(new GZIPInputStream(new ByteArrayInputStream(catalog.body())));
+        assertTrue(body.path("success").asBoolean());
+        assertEquals(200, product.statusCode());
+        assertTrue(product.headers().firstValue("Content-Encoding").isEmpty());
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path)).header("Accept", accept);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return send(request.build());
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String contentType(HttpResponse<?> response) {
+        return response.headers().firstValue("Content-Type").orElse("").split(";")[0];
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + "/api/v1" + path);
+    }
+}
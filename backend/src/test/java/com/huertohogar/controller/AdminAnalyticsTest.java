@@ -0,0 +1,221 @@
+package com.huertohogar.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huertohogar.model.dto.AuthRequest;
+import com.huertohogar.model.dto.CreateOrderRequest;
+import com.huertohogar.model.dto.OrderItemRequest;
+import com.huertohogar.model.dto.PaymentRequest;
+import com.huertohogar.model.entity.Order;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.SalesRollup;
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.ProductRepository;
+import com.huertohogar.repository.SalesRollupRepository;
+import com.huertohogar.repository.UserRepository;
+import com.huertohogar.security.AuthenticatedUser;
+import com.huertohogar.service.OrderService;
+import com.huertohogar.service.PaymentService;
+import com.huertohogar.service.SalesRollupRepairJob;
+import com.huertohogar.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:admin-analytics",
+        "spring.jpa.show-sql=false"
+})
+class AdminAnalyticsTest {
+
+    private static final String EMAIL = "analitica@huertohogar.cl";
+    private static final String REGION = "Región de Valparaíso";
+    private static final String PASSWORD = "secret123";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private SalesRollupRepairJob salesRollupRepairJob;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void shouldKeepRollupsIncrementallyEqualToRebuild() throws Exception {
+        // Given: pedidos con dos categorías, regiones escritas distinto y cambios de estado
+        saveUser();
+        Product paltas = saveProduct("Paltas Hass", 1000.0, Product.ProductCategory.FRUTAS_FRESCAS);
+        Product lechugas = saveProduct("Lechugas", 500.0, Product.ProductCategory.VERDURAS_ORGANICAS);
+        String shipped = createOrder(REGION, new OrderItemRequest(paltas.getId(), 2), new OrderItemRequest(lechugas.getId(), 1));
+        String paid = createOrder("  " + REGION + " ", new OrderItemRequest(lechugas.getId(), 3));
+        String cancelled = createOrder(null, new OrderItemRequest(paltas.getId(), 1));
+
+        // When
+        orderService.updateOrderStatus(shipped, Order.OrderStatus.CONFIRMED);
+        orderService.updateOrderStatus(shipped, Order.OrderStatus.SHIPPED);
+        paymentService.processPayment(new PaymentRequest(paid, 1500.0, "cash", null, null, null, null));
+        orderService.updateOrderStatus(cancelled, Order.OrderStatus.CANCELLED);
+        Set<SalesRollup> incremental = nonEmptyCells();
+        salesRollupRepairJob.rebuild();
+
+        // Then: lo mantenido en línea coincide con el recálculo desde los pedidos
+        assertEquals(nonEmptyCells(), incremental);
+
+        String admin = jwtUtil.generateToken("admin@huertohogar.cl", List.of(JwtUtil.ADMIN_ROLE));
+        JsonNode byCategory = get("/admin/analytics/sales?groupBy=category&region="
+                + URLEncoder.encode(REGION, StandardCharsets.UTF_8), admin).path("data");
+        assertEquals(2, byCategory.size());
+        assertEquals("FRUTAS_FRESCAS", byCategory.get(0).path("category").asText());
+        assertEquals(2000.0, byCategory.get(0).path("revenue").asDouble());
+        assertEquals(1, byCategory.get(0).path("orders").asLong());
+        assertEquals("VERDURAS_ORGANICAS", byCategory.get(1).path("category").asText());
+        assertEquals(2000.0, byCategory.get(1).path("revenue").asDouble());
+        assertEquals(4, byCategory.get(1).path("units").asLong());
+        assertEquals(2, byCategory.get(1).path("orders").asLong());
+
+        JsonNode summary = get("/admin/analytics/summary", admin).path("data");
+        assertEquals(2, summary.path("orders").asLong());
+        assertEquals(4000.0, summary.path("revenue").asDouble());
+        assertEquals(1, summary.path("ordersByStatus").path("SHIPPED").asLong());
+        assertEquals(1, summary.path("ordersByStatus").path("CONFIRMED").asLong());
+        assertEquals(1, summary.path("ordersByStatus").path("CANCELLED").asLong());
+        assertEquals(0, summary.path("ordersByStatus").path("PENDING").asLong());
+    }
+
+    @Test
+    void shouldRestrictAnalyticsToAdmins() throws Exception {
+        // When
+        int user = statusOf("/admin/analytics/summary", jwtUtil.generateToken(EMAIL));
+        int anonymous = statusOf("/admin/analytics/summary", null);
+        int invalidDimension = statusOf("/admin/analytics/sales?groupBy=product",
+                jwtUtil.generateToken("admin@huertohogar.cl", List.of(JwtUtil.ADMIN_ROLE)));
+
+        // Then
+        assertEquals(403, user);
+        assertEquals(401, anonymous);
+        assertEquals(400, invalidDimension);
+    }
+
+    @Test
+    void shouldSignTheStoredRoleOnLogin() throws Exception {
+        // Given
+        saveLoginUser("admin-login@huertohogar.cl", JwtUtil.ADMIN_ROLE);
+        saveLoginUser("cliente-login@huertohogar.cl", JwtUtil.DEFAULT_ROLE);
+
+        // When
+        String admin = login("admin-login@huertohogar.cl");
+        String customer = login("cliente-login@huertohogar.cl");
+
+        // Then
+        assertEquals(200, statusOf("/admin/analytics/summary", admin));
+        assertEquals(403, statusOf("/admin/analytics/summary", customer));
+    }
+
+    // Las celdas que un cambio de estado deja en cero se conservan para la próxima venta
+    private Set<SalesRollup> nonEmptyCells() {
+        return salesRollupRepository.findAll().stream()
+                .filter(cell -> cell.getOrderCount() != 0)
+                .collect(Collectors.toSet());
+    }
+
+    private JsonNode get(String path, String token) throws Exception {
+        HttpResponse<String> response = client.send(request(path, token), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body());
+    }
+
+    private int statusOf(String path, String token) throws Exception {
+        return client.send(request(path, token), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest request(String path, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1" + path)).GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+
+    private String createOrder(String region, OrderItemRequest... items) {
+        CreateOrderRequest request = new CreateOrderRequest(List.of(items), "Av. Brasil 100", "Valparaíso", region);
+        return orderService.createOrder(new AuthenticatedUser(EMAIL, List.of(JwtUtil.DEFAULT_ROLE)), request).getOrderId();
+    }
+
+    private String login(String email) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(new AuthRequest(email, PASSWORD))))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body()).path("data").path("token").asText();
+    }
+
+    private void saveLoginUser(String email, String role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setFullName("Usuario " + role);
+        user.setIsActive(true);
+        user.setRole(role);
+        userRepository.save(user);
+    }
+
+    private void saveUser() {
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword("sin-login");
+        user.setFullName("Cliente Analítica");
+        user.setIsActive(true);
+        userRepository.save(user);
+    }
+
+    private Product saveProduct(String name, double price, Product.ProductCategory category) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        product.setStock(100.0);
+        product.setCategory(category);
+        product.setUnit("kg");
+        product.setIsOrganic(category == Product.ProductCategory.VERDURAS_ORGANICAS);
+        return productRepository.save(product);
+    }
+}
@@ -0,0 +1,113 @@
+package com.huertohogar.controller;
+
+import com.huertohogar.BenchmarkSupport;
+import com.huertohogar.BenchmarkSupport.Result;
+import com.huertohogar.HuertohogarApplication;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.repository.CheckoutRequestRepository;
+import com.huertohogar.repository.OrderRepository;
+import com.huertohogar.repository.ProductRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static com.huertohogar.BenchmarkSupport.seedCustomer;
+import static com.huertohogar.BenchmarkSupport.uri;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Promoción: todos los pedidos compiten por los mismos tres productos.
+// Compara la tasa de ingreso de POST /orders síncrono contra el checkout asíncrono,
+// y para el asíncrono también el tiempo hasta que el último pedido queda creado
+@Tag("benchmark")
+class AsyncCheckoutBenchmarkTest {
+    
+    private static final int CONCURRENCY = 200;
+    private static final int REQUESTS = 3_000;
+    private static final int WARMUP_REQUESTS = 300;
+    private static final String EMAIL = "promocion@huertohogar.cl";
+    
+    @Test
+    void compareSynchronousAndAsynchronousCheckout() {
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(HuertohogarApplication.class)
+                        // Como argumentos, para que tengan prioridad sobre application.yml
+                        .run(
+                                "--server.port=0",
+                                "--spring.datasource.url=jdbc:h2:mem:async-checkout-benchmark",
+                                "--spring.jpa.show-sql=false",
+                                "--logging.level.com.huertohogar=INFO",
+                                "--checkout.async.enabled=true")) {
+            int port = context.getWebServer().getPort();
+            String token = seedCustomer(context, EMAIL, "Cliente de Promoción");
+            List<String> hotProducts = context.getBean(ProductRepository.class).findAll().stream()
+                    .map(Product::getId)
+                    .limit(3)
+                    .toList();
+            OrderRepository orderRepository = context.getBean(OrderRepository.class);
+            CheckoutRequestRepository checkoutRequestRepository = context.getBean(CheckoutRequestRepository.class);
+            
+            HttpClient client = HttpClient.newHttpClient();
+            IntFunction<HttpRequest> sync = i -> checkout(port, token, hotProducts.get(i % hotProducts.size()), null);
+            IntFunction<HttpRequest> async = i -> checkout(port, token, hotProducts.get(i % hotProducts.size()), "respond-async");
+            
+            run(client, WARMUP_REQUESTS, sync);
+            run(client, WARMUP_REQUESTS, async);
+            awaitProcessed(checkoutRequestRepository);
+            
+            System.out.printf("Checkout en promoción (%d pedidos, %d en vuelo, %d productos)%n",
+                    REQUESTS, CONCURRENCY, hotProducts.size());
+            report("síncrono ", run(client, REQUESTS, sync), 201);
+            
+            long ordersBefore = orderRepository.count();
+            Result accepted = run(client, REQUESTS, async);
+            long processedNanos = awaitProcessed(checkoutRequestRepository) + accepted.elapsedNanos();
+            report("asíncrono", accepted, 202);
+            System.out.printf("  asíncrono: %d pedidos creados, todos en %.1f s (%.1f pedidos/s de punta a punta)%n",
+                    orderRepository.count() - ordersBefore, processedNanos / 1e9, REQUESTS / (processedNanos / 1e9));
+            assertEquals(REQUESTS, orderRepository.count() - ordersBefore);
+        }
+    }
+    
+    // Espera a que el pipeline vacíe las solicitudes pendientes; devuelve cuánto tardó
+    private long awaitProcessed(CheckoutRequestRepository checkoutRequestRepository) {
+        long start = System.nanoTime();
+        while (checkoutRequestRepository.count() > 0) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+    
+    private static HttpRequest checkout(int port, String token, String productId, String prefer) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(port, "/orders"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"items\":[{\"productId\":\"" + productId
+                        + "\",\"quantity\":1}],\"shippingAddress\":\"Av. Providencia 1234\",\"city\":\"Santiago\","
+                        + "\"region\":\"Región Metropolitana\"}"));
+        if (prefer != null) {
+            request.header("Prefer", prefer);
+        }
+        return request.build();
+    }
+    
+    private Result run(HttpClient client, int requests, IntFunction<HttpRequest> requestFactory) {
+        return BenchmarkSupport.run(client, requests, CONCURRENCY, requestFactory);
+    }
+    
+    private void report(String label, Result result, int expectedStatus) {
+        System.out.printf("  %s  ingreso %7.1f req/s  p50 %7.1f ms  p99 %7.1f ms  estados %s%n", label,
+                result.requestsPerSecond(), result.percentile(0.50), result.percentile(0.99), result.statuses());
+        assertEquals(REQUESTS, result.count(expectedStatus));
+    }
+}
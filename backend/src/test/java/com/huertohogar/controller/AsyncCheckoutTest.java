@@ -0,0 +1,227 @@
+package com.huertohogar.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huertohogar.model.entity.Order;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.SalesRollup;
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.OrderRepository;
+import com.huertohogar.repository.OutboxEventRepository;
+import com.huertohogar.repository.ProductRepository;
+import com.huertohogar.repository.SalesRollupRepository;
+import com.huertohogar.repository.UserRepository;
+import com.huertohogar.service.OrderService;
+import com.huertohogar.service.SalesRollupRepairJob;
+import com.huertohogar.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:async-checkout",
+        "spring.jpa.show-sql=false",
+        "checkout.async.enabled=true"
+})
+class AsyncCheckoutTest {
+
+    private static final String EMAIL = "promo@huertohogar.cl";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private SalesRollupRepairJob salesRollupRepairJob;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private String token;
+
+    @BeforeEach
+    void setup() {
+        if (!userRepository.existsByEmail(EMAIL)) {
+            User user = new User();
+            user.setEmail(EMAIL);
+            user.setPassword("sin-login");
+            user.setFullName("Cliente Promoción");
+            user.setIsActive(true);
+            userRepository.save(user);
+        }
+        token = jwtUtil.generateToken(EMAIL);
+    }
+
+    @Test
+    void shouldAcceptOrdersThenCreateThemWithoutOverselling() throws Exception {
+        // Given: 3 unidades y 5 pedidos de 1 unidad cada uno
+        Product product = saveProduct(3.0);
+
+        // When
+        List<CompletableFuture<HttpResponse<String>>> submissions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            submissions.add(client.sendAsync(checkout(product.getId(), "respond-async"), HttpResponse.BodyHandlers.ofString()));
+        }
+        List<String> orderIds = new ArrayList<>();
+        for (CompletableFuture<HttpResponse<String>> submission : submissions) {
+            HttpResponse<String> response = submission.join();
+            assertEquals(202, response.statusCode());
+            assertEquals("respond-async", response.headers().firstValue("Preference-Applied").orElse(null));
+            String orderId = objectMapper.readTree(response.body()).path("data").path("orderId").asText();
+            assertTrue(response.headers().firstValue("Location").orElse("").endsWith("/orders/" + orderId));
+            orderIds.add(orderId);
+        }
+
+        // Then: cada pedido termina creado (200) o rechazado con motivo (400), nunca más que el stock
+        int created = 0;
+        int rejected = 0;
+        for (String orderId : orderIds) {
+            HttpResponse<String> result = awaitResult(orderId);
+            if (result.statusCode() == 200) {
+                created++;
+                JsonNode order = objectMapper.readTree(result.body()).path("data");
+                assertEquals(1200.0, order.path("totalAmount").asDouble());
+                assertEquals(1, order.path("items").size());
+            } else {
+                rejected++;
+                assertEquals(400, result.statusCode());
+                assertTrue(result.body().contains("Stock insuficiente"));
+            }
+        }
+        assertEquals(3, created);
+        assertEquals(2, rejected);
+        assertEquals(0.0, productRepository.findById(product.getId()).orElseThrow().getStock());
+        assertEquals(2, outboxEventRepository.findAll().stream()
+                .filter(event -> "ORDER_REJECTED".equals(event.getEventType()) && orderIds.contains(event.getAggregateId()))
+                .count());
+    }
+
+    @Test
+    void shouldStaySynchronousWithoutPreferHeader() throws Exception {
+        // Given
+        Product product = saveProduct(10.0);
+        long before = orderRepository.count();
+
+        // When
+        HttpResponse<String> response = client.send(checkout(product.getId(), null), HttpResponse.BodyHandlers.ofString());
+
+        // Then
+        assertEquals(201, response.statusCode());
+        assertEquals(before + 1, orderRepository.count());
+    }
+
+    @Test
+    void shouldKeepTheCategoryOfAsyncOrdersInTheSalesRollups() throws Exception {
+        // Given: una región propia para leer solo las celdas de este pedido
+        Product product = saveProduct(10.0);
+        String region = "Región " + UUID.randomUUID().toString().substring(0, 8);
+        HttpResponse<String> accepted = client.send(checkout(product.getId(), "respond-async", region),
+                HttpResponse.BodyHandlers.ofString());
+        String orderId = objectMapper.readTree(accepted.body()).path("data").path("orderId").asText();
+        assertEquals(200, awaitResult(orderId).statusCode());
+
+        // When
+        orderService.updateOrderStatus(orderId, Order.OrderStatus.CONFIRMED);
+        Set<SalesRollup> incremental = nonEmptyCells(region);
+        salesRollupRepairJob.rebuild();
+
+        // Then: el pedido queda confirmado en su categoría, igual que al recalcular desde order_items
+        assertEquals(Set.of(SalesRollup.ALL_CATEGORIES, "FRUTAS_FRESCAS"), incremental.stream()
+                .map(cell -> cell.getId().getCategory())
+                .collect(Collectors.toSet()));
+        assertTrue(incremental.stream().allMatch(cell -> cell.getId().getStatus() == Order.OrderStatus.CONFIRMED));
+        assertEquals(incremental, nonEmptyCells(region));
+    }
+
+    private Set<SalesRollup> nonEmptyCells(String region) {
+        return salesRollupRepository.findAll().stream()
+                .filter(cell -> region.equals(cell.getId().getRegion()) && cell.getOrderCount() != 0)
+                .collect(Collectors.toSet());
+    }
+
+    private HttpResponse<String> awaitResult(String orderId) throws Exception {
+        HttpRequest poll = HttpRequest.newBuilder(uri("/orders/" + orderId))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        long deadline = System.currentTimeMillis() + 10_000;
+        HttpResponse<String> response;
+        do {
+            response = client.send(poll, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 202) {
+                return response;
+            }
+            Thread.sleep(50);
+        } while (System.currentTimeMillis() < deadline);
+        return response;
+    }
+
+    private HttpRequest checkout(String productId, String prefer) {
+        return checkout(productId, prefer, "Región Metropolitana");
+    }
+
+    private HttpRequest checkout(String productId, String prefer, String region) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri("/orders"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"items\":[{\"productId\":\"" + productId
+                        + "\",\"quantity\":1}],\"shippingAddress\":\"Av. Matta 500\",\"city\":\"Santiago\","
+                        + "\"region\":\"" + region + "\"}"));
+        if (prefer != null) {
+            request.header("Prefer", prefer);
+        }
+        return request.build();
+    }
+
+    private Product saveProduct(double stock) {
+        Product product = new Product();
+        product.setName("Frutillas de Chiloé " + UUID.randomUUID());
+        product.setPrice(1200.0);
+        product.setStock(stock);
+        product.setCategory(Product.ProductCategory.FRUTAS_FRESCAS);
+        product.setUnit("kg");
+        product.setIsOrganic(false);
+        return productRepository.save(product);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + "/api/v1" + path);
+    }
+}
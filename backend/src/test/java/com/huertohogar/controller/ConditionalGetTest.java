@@ -0,0 +1,178 @@
+package com.huertohogar.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huertohogar.model.dto.BlogPostDTO;
+import com.huertohogar.model.dto.CreateOrderRequest;
+import com.huertohogar.model.dto.OrderItemRequest;
+import com.huertohogar.model.dto.ProductDTO;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.UserRepository;
+import com.huertohogar.security.AuthenticatedUser;
+import com.huertohogar.service.BlogPostService;
+import com.huertohogar.service.CollectionVersions;
+import com.huertohogar.service.OrderService;
+import com.huertohogar.service.ProductService;
+import com.huertohogar.util.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:conditional-get",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // Las tareas programadas consultan la base y sumarían sentencias a las estadísticas
+        "outbox.relay.poll-interval-ms=3600000",
+        "idempotency.sweep-interval-ms=3600000",
+        "collection-versions.refresh-interval-ms=3600000"
+})
+class ConditionalGetTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BlogPostService blogPostService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CollectionVersions collectionVersions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void shouldAnswerNotModifiedWithoutQueryingUntilTheBlogChanges() throws Exception {
+        // Given
+        HttpResponse<String> first = get("/blog/posts", null);
+        String etag = first.headers().firstValue("ETag").orElse(null);
+        assertEquals(200, first.statusCode());
+        assertNotNull(etag);
+        assertEquals("no-cache", first.headers().firstValue("Cache-Control").orElse(null));
+
+        // When
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        HttpResponse<String> revalidated = get("/blog/posts", etag);
+
+        // Then: 304 sin ninguna sentencia SQL
+        assertEquals(304, revalidated.statusCode());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        // When: un post nuevo cambia la versión
+        BlogPostDTO post = new BlogPostDTO();
+        post.setTitle("Compostaje en casa");
+        post.setContent("Cómo partir una compostera en el patio.");
+        post.setAuthor("Equipo HuertoHogar");
+        post.setCategory("Sustentabilidad");
+        blogPostService.createPost(post);
+        HttpResponse<String> changed = get("/blog/posts", etag);
+
+        // Then
+        assertEquals(200, changed.statusCode());
+        assertNotEquals(etag, changed.headers().firstValue("ETag").orElse(null));
+    }
+
+    @Test
+    void shouldChangeProductEtagWhenAnOrderTakesStock() throws Exception {
+        // Given
+        ProductDTO product = new ProductDTO();
+        product.setName("Zapallo Camote");
+        product.setPrice(1500.0);
+        product.setStock(20.0);
+        product.setCategory(Product.ProductCategory.VERDURAS_ORGANICAS);
+        product.setUnit("kg");
+        product.setIsOrganic(true);
+        String productId = productService.createProduct(product).getId();
+
+        HttpResponse<String> item = get("/products/" + productId, null);
+        HttpResponse<String> catalog = get("/products", null);
+        String itemEtag = item.headers().firstValue("ETag").orElseThrow();
+        String catalogEtag = catalog.headers().firstValue("ETag").orElseThrow();
+        assertEquals(304, get("/products/" + productId, itemEtag).statusCode());
+        assertEquals(304, get("/products", catalogEtag).statusCode());
+
+        // When: el checkout descuenta stock sin pasar por ProductService
+        String email = "etag@huertohogar.cl";
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("sin-login");
+        user.setFullName("Cliente ETag");
+        user.setIsActive(true);
+        userRepository.save(user);
+        orderService.createOrder(new AuthenticatedUser(email, List.of(JwtUtil.DEFAULT_ROLE)),
+                new CreateOrderRequest(List.of(new OrderItemRequest(productId, 2)), "Av. Alemania 80", "Temuco",
+                        "Región de La Araucanía"));
+
+        // Then
+        HttpResponse<String> changedItem = get("/products/" + productId, itemEtag);
+        assertEquals(200, changedItem.statusCode());
+        assertEquals(18.0, objectMapper.readTree(changedItem.body()).path("data").path("stock").asDouble());
+        assertEquals(200, get("/products", catalogEtag).statusCode());
+    }
+
+    @Test
+    void shouldStopAnsweringNotModifiedAfterAWriteOnAnotherInstance() throws Exception {
+        // Given
+        String etag = get("/blog/posts", null).headers().firstValue("ETag").orElseThrow();
+        assertEquals(304, get("/blog/posts", etag).statusCode());
+
+        // When: otra instancia, con su propia copia en memoria, confirma una escritura del blog
+        CollectionVersions otherInstance = new CollectionVersions(jdbcTemplate);
+        otherInstance.bump(CollectionVersions.Collection.BLOG_POSTS);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (otherInstance.etag(CollectionVersions.Collection.BLOG_POSTS) == null
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        collectionVersions.refresh();
+
+        // Then: esta instancia deja de validar el ETag anterior y ambas entregan el mismo
+        HttpResponse<String> changed = get("/blog/posts", etag);
+        assertEquals(200, changed.statusCode());
+        assertEquals(otherInstance.etag(CollectionVersions.Collection.BLOG_POSTS),
+                changed.headers().firstValue("ETag").orElseThrow());
+    }
+
+    private HttpResponse<String> get(String path, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1" + path))
+                .header("Accept", "application/json")
+                .GET();
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
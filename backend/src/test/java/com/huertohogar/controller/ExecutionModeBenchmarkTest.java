@@ -0,0 +1,86 @@
+package com.huertohogar.controller;
+
+import com.huertohogar.BenchmarkSupport;
+import com.huertohogar.BenchmarkSupport.Result;
+import com.huertohogar.HuertohogarApplication;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.repository.ProductRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static com.huertohogar.BenchmarkSupport.seedCustomer;
+import static com.huertohogar.BenchmarkSupport.uri;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Misma carga contra la aplicación en modo hilos de plataforma y en modo hilos virtuales.
+// El modo virtual necesita Java 21; en JVM anteriores se informa y se omite
+@Tag("benchmark")
+class ExecutionModeBenchmarkTest {
+    
+    private static final int CONCURRENCY = 200;
+    private static final int REQUESTS = 2_000;
+    private static final int WARMUP_REQUESTS = 200;
+    private static final String EMAIL = "carga@huertohogar.cl";
+    
+    @Test
+    void comparePlatformAndVirtualThreads() {
+        runMode("plataforma", false);
+        if (Runtime.version().feature() >= 21) {
+            runMode("virtual", true);
+        } else {
+            System.out.printf("Modo virtual omitido: requiere Java 21 (Java %d en uso)%n", Runtime.version().feature());
+        }
+    }
+    
+    private void runMode(String label, boolean virtualThreads) {
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(HuertohogarApplication.class)
+                        // Como argumentos, para que tengan prioridad sobre application.yml
+                        .run(
+                                "--server.port=0",
+                                "--spring.datasource.url=jdbc:h2:mem:execution-mode-" + label,
+                                "--spring.jpa.show-sql=false",
+                                "--spring.threads.virtual.enabled=" + virtualThreads)) {
+            int port = context.getWebServer().getPort();
+            String token = seedCustomer(context, EMAIL, "Cliente de Carga");
+            List<String> productIds = context.getBean(ProductRepository.class).findAll().stream()
+                    .map(Product::getId)
+                    .toList();
+            
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest catalog = HttpRequest.newBuilder(uri(port, "/products")).GET().build();
+            IntFunction<HttpRequest> checkout = i -> HttpRequest.newBuilder(uri(port, "/orders"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"items\":[{\"productId\":\""
+                            + productIds.get(i % productIds.size()) + "\",\"quantity\":1}],"
+                            + "\"shippingAddress\":\"Av. Providencia 1234\",\"city\":\"Santiago\","
+                            + "\"region\":\"Región Metropolitana\"}"))
+                    .build();
+            
+            run(client, WARMUP_REQUESTS, i -> catalog);
+            run(client, WARMUP_REQUESTS, checkout);
+            
+            System.out.printf("Modo %s (%d peticiones, %d en vuelo)%n", label, REQUESTS, CONCURRENCY);
+            report("GET /products", run(client, REQUESTS, i -> catalog));
+            report("POST /orders ", run(client, REQUESTS, checkout));
+        }
+    }
+    
+    private Result run(HttpClient client, int requests, IntFunction<HttpRequest> requestFactory) {
+        return BenchmarkSupport.run(client, requests, CONCURRENCY, requestFactory);
+    }
+    
+    private void report(String endpoint, Result result) {
+        System.out.printf("  %s  %7.1f req/s  p50 %7.1f ms  p99 %7.1f ms  estados %s%n", endpoint,
+                result.requestsPerSecond(), result.percentile(0.50), result.percentile(0.99), result.statuses());
+        assertEquals(REQUESTS, result.latencies().size());
+    }
+}
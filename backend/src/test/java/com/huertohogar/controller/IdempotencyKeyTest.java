@@ -0,0 +1,262 @@
+package com.huertohogar.controller;
+
+import com.huertohogar.config.IdempotencyFilter;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.IdempotencyRecordRepository;
+import com.huertohogar.repository.OrderRepository;
+import com.huertohogar.repository.ProductRepository;
+import com.huertohogar.repository.UserRepository;
+import com.huertohogar.service.IdempotencyStore;
+import com.huertohogar.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency",
+        "spring.jpa.show-sql=false",
+        "checkout.async.enabled=true"
+})
+class IdempotencyKeyTest {
+    
+    private static final String EMAIL = "reintentos@huertohogar.cl";
+    private static final double INITIAL_STOCK = 1_000.0;
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    private final HttpClient client = HttpClient.newHttpClient();
+    private String token;
+    private Product product;
+    
+    @BeforeEach
+    void setup() {
+        if (!userRepository.existsByEmail(EMAIL)) {
+            User user = new User();
+            user.setEmail(EMAIL);
+            user.setPassword("sin-login");
+            user.setFullName("Cliente Móvil");
+            user.setIsActive(true);
+            userRepository.save(user);
+        }
+        token = jwtUtil.generateToken(EMAIL);
+        
+        product = new Product();
+        product.setName("Manzanas Fuji " + UUID.randomUUID());
+        product.setPrice(1200.0);
+        product.setStock(INITIAL_STOCK);
+        product.setCategory(Product.ProductCategory.FRUTAS_FRESCAS);
+        product.setUnit("kg");
+        product.setIsOrganic(false);
+        product = productRepository.save(product);
+    }
+    
+    @Test
+    void shouldReplayStoredBytesOnRetry() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        
+        // When
+        HttpResponse<byte[]> first = client.send(createOrder(key, 2), HttpResponse.BodyHandlers.ofByteArray());
+        HttpResponse<byte[]> retry = client.send(createOrder(key, 2), HttpResponse.BodyHandlers.ofByteArray());
+        
+        // Then
+        assertEquals(201, first.statusCode());
+        assertEquals(201, retry.statusCode());
+        assertArrayEquals(first.body(), retry.body());
+        assertFalse(first.headers().firstValue(IdempotencyFilter.REPLAYED_HEADER).isPresent());
+        assertEquals("true", retry.headers().firstValue(IdempotencyFilter.REPLAYED_HEADER).orElse(null));
+        assertEquals(INITIAL_STOCK - 2, productRepository.findById(product.getId()).orElseThrow().getStock());
+    }
+    
+    @Test
+    void shouldExecuteConcurrentDuplicatesOnce() {
+        // Given
+        String key = UUID.randomUUID().toString();
+        long ordersBefore = orderRepository.count();
+        
+        // When
+        List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            responses.add(client.sendAsync(createOrder(key, 1), HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        List<HttpResponse<byte[]>> completed = responses.stream().map(CompletableFuture::join).toList();
+        
+        // Then
+        for (HttpResponse<byte[]> response : completed) {
+            assertEquals(201, response.statusCode());
+            assertArrayEquals(completed.get(0).body(), response.body());
+        }
+        assertEquals(ordersBefore + 1, orderRepository.count());
+        assertEquals(INITIAL_STOCK - 1, productRepository.findById(product.getId()).orElseThrow().getStock());
+    }
+    
+    @Test
+    void shouldRejectKeyReusedWithDifferentBody() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        client.send(createOrder(key, 1), HttpResponse.BodyHandlers.discarding());
+        
+        // When
+        HttpResponse<String> reused = client.send(createOrder(key, 5), HttpResponse.BodyHandlers.ofString());
+        
+        // Then
+        assertEquals(422, reused.statusCode());
+        assertEquals(INITIAL_STOCK - 1, productRepository.findById(product.getId()).orElseThrow().getStock());
+    }
+    
+    @Test
+    void shouldFallBackToDurableRecordWhenMemoryIsEmpty() throws Exception {
+        // Given
+        IdempotencyStore original = new IdempotencyStore(idempotencyRecordRepository,
+                Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofSeconds(5), 10_000);
+        String id = UUID.randomUUID().toString().replace("-", "");
+        byte[] body = "{\"success\":true}".getBytes();
+        original.execute(id, "hash", () -> IdempotencyStore.StoredResponse.of(201, "application/json", body));
+        
+        // When: otra instancia, sin nada en memoria
+        IdempotencyStore restarted = new IdempotencyStore(idempotencyRecordRepository,
+                Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofSeconds(5), 10_000);
+        IdempotencyStore.StoredResponse replayed = restarted.execute(id, "hash", () -> {
+            throw new AssertionError("La acción no debe volver a ejecutarse");
+        });
+        
+        // Then
+        assertEquals(201, replayed.getStatus());
+        assertArrayEquals(body, replayed.getBody());
+        assertTrue(idempotencyRecordRepository.existsById(id));
+    }
+    
+    @Test
+    void shouldReplayLocationAndPreferenceAppliedHeaders() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        
+        // When
+        HttpResponse<byte[]> first = client.send(createOrder(key, 1, "respond-async"), HttpResponse.BodyHandlers.ofByteArray());
+        HttpResponse<byte[]> retry = client.send(createOrder(key, 1, "respond-async"), HttpResponse.BodyHandlers.ofByteArray());
+        
+        // Then: el reintento recibe el mismo 202 con sus headers
+        assertEquals(202, first.statusCode());
+        assertEquals(202, retry.statusCode());
+        assertEquals("true", retry.headers().firstValue(IdempotencyFilter.REPLAYED_HEADER).orElse(null));
+        assertNotNull(first.headers().firstValue("Location").orElse(null));
+        assertEquals(first.headers().firstValue("Location"), retry.headers().firstValue("Location"));
+        assertEquals("respond-async",
+                retry.headers().firstValue(IdempotencyFilter.PREFERENCE_APPLIED_HEADER).orElse(null));
+        assertArrayEquals(first.body(), retry.body());
+    }
+    
+    @Test
+    void shouldRenewTheLeaseWhileTheFirstAttemptRuns() throws Exception {
+        // Given: una ejecución que tarda varias veces el plazo de la reserva
+        IdempotencyStore slow = new IdempotencyStore(idempotencyRecordRepository,
+                Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofMillis(300), 10_000);
+        IdempotencyStore other = new IdempotencyStore(idempotencyRecordRepository,
+                Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofMillis(300), 10_000);
+        String id = UUID.randomUUID().toString().replace("-", "");
+        CompletableFuture<Void> running = new CompletableFuture<>();
+        AtomicInteger executions = new AtomicInteger();
+        CompletableFuture<IdempotencyStore.StoredResponse> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return slow.execute(id, "hash", () -> {
+                    executions.incrementAndGet();
+                    running.complete(null);
+                    Thread.sleep(1_500);
+                    return IdempotencyStore.StoredResponse.of(201, "application/json", "{}".getBytes());
+                });
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        running.join();
+        Thread.sleep(900);
+        
+        // When: otra instancia recibe el reintento pasado el plazo original
+        IdempotencyStore.StoredResponse retry = other.execute(id, "hash", () -> {
+            executions.incrementAndGet();
+            return IdempotencyStore.StoredResponse.of(201, "application/json", "{}".getBytes());
+        });
+        
+        // Then: la reserva seguía vigente y la acción se ejecutó una sola vez
+        assertEquals(409, retry.getStatus());
+        assertEquals(201, first.join().getStatus());
+        assertEquals(1, executions.get());
+    }
+    
+    @Test
+    void shouldReplayFromTheTableWhenMemoryIsFull() throws Exception {
+        // Given: una respuesta en memoria por franja
+        IdempotencyStore store = new IdempotencyStore(idempotencyRecordRepository,
+                Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofSeconds(5), 1);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String id = UUID.randomUUID().toString().replace("-", "");
+            byte[] body = ("{\"n\":" + i + "}").getBytes();
+            store.execute(id, "hash", () -> IdempotencyStore.StoredResponse.of(201, "application/json", body));
+            ids.add(id);
+        }
+        
+        // When / Then: las que se descartaron de memoria se siguen repitiendo sin ejecutarse
+        for (int i = 0; i < ids.size(); i++) {
+            IdempotencyStore.StoredResponse replayed = store.execute(ids.get(i), "hash", () -> {
+                throw new AssertionError("La acción no debe volver a ejecutarse");
+            });
+            assertArrayEquals(("{\"n\":" + i + "}").getBytes(), replayed.getBody());
+        }
+    }
+    
+    private HttpRequest createOrder(String idempotencyKey, int quantity) {
+        return createOrder(idempotencyKey, quantity, null);
+    }
+    
+    private HttpRequest createOrder(String idempotencyKey, int quantity, String prefer) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/orders"));
+        if (prefer != null) {
+            request.header("Prefer", prefer);
+        }
+        return request
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .POST(HttpRequest.BodyPublishers.ofString("{\"items\":[{\"productId\":\"" + product.getId()
+                        + "\",\"quantity\":" + quantity + "}],\"shippingAddress\":\"Av. Providencia 1234\","
+                        + "\"city\":\"Santiago\",\"region\":\"Región Metropolitana\"}"))
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.huertohogar.controller;
+
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.huertohogar.BenchmarkSupport.percentile;
+import static com.huertohogar.BenchmarkSupport.uri;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 500 logins simultáneos: los aceptados esperan a lo sumo la cola acotada y el resto recibe 503 al instante.
+// En paralelo se consulta el catálogo para comprobar que los hilos de Tomcat siguen libres
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:login-storm",
+        "spring.jpa.show-sql=false"
+})
+class LoginStormBenchmarkTest {
+    
+    private static final int CONCURRENT_LOGINS = 500;
+    private static final int WARMUP_LOGINS = 20;
+    private static final int CATALOG_PROBES = 20;
+    private static final String EMAIL = "tormenta@huertohogar.cl";
+    private static final String PASSWORD = "secret123";
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Test
+    void loginStormKeepsLatencyBounded() {
+        // Given
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setFullName("Cliente Tormenta");
+        user.setIsActive(true);
+        userRepository.save(user);
+        
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        HttpRequest login = HttpRequest.newBuilder(uri(port, "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .build();
+        HttpRequest catalog = HttpRequest.newBuilder(uri(port, "/products?limit=1")).GET().build();
+        
+        for (int i = 0; i < WARMUP_LOGINS; i++) {
+            client.sendAsync(login, HttpResponse.BodyHandlers.discarding()).join();
+            client.sendAsync(catalog, HttpResponse.BodyHandlers.discarding()).join();
+        }
+        
+        // When
+        Map<Integer, List<Long>> latenciesByStatus = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> logins = new ArrayList<>(CONCURRENT_LOGINS);
+        for (int i = 0; i < CONCURRENT_LOGINS; i++) {
+            long start = System.nanoTime();
+            logins.add(client.sendAsync(login, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> latenciesByStatus
+                            .computeIfAbsent(response.statusCode(), status -> new CopyOnWriteArrayList<>())
+                            .add(System.nanoTime() - start)));
+        }
+        List<Long> catalogLatencies = new ArrayList<>(CATALOG_PROBES);
+        for (int i = 0; i < CATALOG_PROBES; i++) {
+            long start = System.nanoTime();
+            client.sendAsync(catalog, HttpResponse.BodyHandlers.discarding()).join();
+            catalogLatencies.add(System.nanoTime() - start);
+        }
+        CompletableFuture.allOf(logins.toArray(CompletableFuture[]::new)).join();
+        
+        // Then
+        List<Long> accepted = latenciesByStatus.getOrDefault(200, List.of());
+        List<Long> rejected = latenciesByStatus.getOrDefault(503, List.of());
+        System.out.printf("%d logins concurrentes%n", CONCURRENT_LOGINS);
+        System.out.printf("  200 aceptados : %4d  p50 %7.1f ms  p99 %7.1f ms%n",
+                accepted.size(), percentile(accepted, 0.50), percentile(accepted, 0.99));
+        System.out.printf("  503 rechazados: %4d  p50 %7.1f ms  p99 %7.1f ms%n",
+                rejected.size(), percentile(rejected, 0.50), percentile(rejected, 0.99));
+        System.out.printf("  GET /products durante la tormenta: p50 %.1f ms  max %.1f ms%n",
+                percentile(catalogLatencies, 0.50), percentile(catalogLatencies, 1.0));
+        
+        assertEquals(CONCURRENT_LOGINS, accepted.size() + rejected.size(), "Solo se esperan respuestas 200 o 503");
+        assertTrue(accepted.size() > 0);
+    }
+}
@@ -0,0 +1,271 @@
+package com.huertohogar.controller;
+
+import com.huertohogar.model.dto.CreateOrderRequest;
+import com.huertohogar.model.dto.OrderItemRequest;
+import com.huertohogar.model.entity.Order;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.ProductRepository;
+import com.huertohogar.repository.UserRepository;
+import com.huertohogar.security.AuthenticatedUser;
+import com.huertohogar.service.OrderEventStreamHub;
+import com.huertohogar.service.OrderService;
+import com.huertohogar.service.OutboxRelay;
+import com.huertohogar.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-stream",
+        "spring.jpa.show-sql=false",
+        "outbox.relay.poll-interval-ms=3600000",
+        "order-stream.heartbeat-interval-ms=3600000"
+})
+class OrderEventStreamTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OrderEventStreamHub orderEventStreamHub;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<SseReader> streams = new ArrayList<>();
+
+    // Cada test cierra sus streams: ninguna conexión queda abierta para el siguiente
+    @AfterEach
+    void closeStreams() throws Exception {
+        for (SseReader stream : streams) {
+            stream.close();
+        }
+        streams.clear();
+    }
+
+    @Test
+    void shouldPushStatusChangesAndResumeFromLastEventId() throws Exception {
+        // Given
+        String email = "seguimiento-" + UUID.randomUUID() + "@huertohogar.cl";
+        String orderId = createOrder(email);
+        outboxRelay.relay();
+        String token = jwtUtil.generateToken(email);
+
+        // When: un stream por pedido y otro por usuario reciben el despacho
+        try (SseReader orderStream = open("/orders/" + orderId + "/events", token, null);
+             SseReader userStream = open("/orders/user/" + email + "/events", token, null)) {
+            orderService.updateOrderStatus(orderId, Order.OrderStatus.SHIPPED);
+            outboxRelay.relay();
+
+            // Then
+            Map<String, String> shipped = orderStream.next();
+            assertEquals("ORDER_STATUS_CHANGED", shipped.get("event"));
+            assertTrue(shipped.get("data").contains("\"status\":\"SHIPPED\""));
+            Map<String, String> forUser = userStream.next();
+            assertTrue(forUser.get("data").contains(orderId));
+
+            // When: el cliente se corta y el pedido avanza dos veces
+            orderStream.close();
+            orderService.updateOrderStatus(orderId, Order.OrderStatus.IN_TRANSIT);
+            orderService.updateOrderStatus(orderId, Order.OrderStatus.DELIVERED);
+            outboxRelay.relay();
+
+            // Then: al reconectar recibe solo lo que se perdió, desde el anillo
+            try (SseReader resumed = open("/orders/" + orderId + "/events", token, shipped.get("id"))) {
+                assertTrue(resumed.next().get("data").contains("\"status\":\"IN_TRANSIT\""));
+                assertTrue(resumed.next().get("data").contains("\"status\":\"DELIVERED\""));
+            }
+
+            // Then: un id que el anillo no cubre pide volver a consultar el pedido
+            try (SseReader stale = open("/orders/" + orderId + "/events", token, "1-1")) {
+                assertEquals(OrderEventStreamHub.RESYNC_EVENT, stale.next().get("event"));
+            }
+        }
+    }
+
+    @Test
+    void shouldRejectStreamsOfOtherUsers() throws Exception {
+        // Given
+        String owner = "dueno-" + UUID.randomUUID() + "@huertohogar.cl";
+        String orderId = createOrder(owner);
+        String otherToken = jwtUtil.generateToken("otro-" + UUID.randomUUID() + "@huertohogar.cl");
+
+        // When
+        int orderStatus = statusOf("/orders/" + orderId + "/events", otherToken);
+        int userStatus = statusOf("/orders/user/" + owner + "/events", otherToken);
+        int anonymousStatus = statusOf("/orders/" + orderId + "/events", null);
+
+        // Then
+        assertTrue(orderStatus >= 400 && orderStatus < 500, "status " + orderStatus);
+        assertEquals(403, userStatus);
+        assertEquals(401, anonymousStatus);
+    }
+
+    @Test
+    void shouldReleaseConnectionWhenClientDisconnects() throws Exception {
+        // Given
+        String email = "desconexion-" + UUID.randomUUID() + "@huertohogar.cl";
+        String orderId = createOrder(email);
+        SseReader stream = open("/orders/" + orderId + "/events", jwtUtil.generateToken(email), null);
+        assertEquals(1, orderEventStreamHub.getOrderConnections(orderId));
+
+        // When: el cliente cierra y el siguiente heartbeat descubre la conexión rota
+        stream.close();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (orderEventStreamHub.getOrderConnections(orderId) > 0 && System.nanoTime() < deadline) {
+            orderEventStreamHub.heartbeat();
+            Thread.sleep(100);
+        }
+
+        // Then
+        assertEquals(0, orderEventStreamHub.getOrderConnections(orderId));
+    }
+
+    @Test
+    void shouldNotBufferEventsWithoutSubscribers() {
+        // Given
+        String email = "sin-suscriptor-" + UUID.randomUUID() + "@huertohogar.cl";
+        int before = orderEventStreamHub.getOpenChannels();
+
+        // When: el pedido cambia y el relay despacha sin nadie conectado
+        String orderId = createOrder(email);
+        orderService.updateOrderStatus(orderId, Order.OrderStatus.SHIPPED);
+        outboxRelay.relay();
+
+        // Then: ni el pedido ni el usuario tienen canal en memoria
+        assertEquals(before, orderEventStreamHub.getOpenChannels());
+    }
+
+    private int statusOf(String path, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1" + path))
+                .header("Accept", "text/event-stream")
+                .timeout(Duration.ofSeconds(10));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        response.body().close();
+        return response.statusCode();
+    }
+
+    private SseReader open(String path, String token, String lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1" + path))
+                .header("Accept", "text/event-stream")
+                .header("Authorization", "Bearer " + token);
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+        SseReader stream = new SseReader(response.body());
+        streams.add(stream);
+        return stream;
+    }
+
+    private String createOrder(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("sin-login");
+        user.setFullName("Cliente Seguimiento");
+        user.setIsActive(true);
+        userRepository.save(user);
+
+        Product product = new Product();
+        product.setName("Paltas Hass");
+        product.setPrice(3500.0);
+        product.setStock(50.0);
+        product.setCategory(Product.ProductCategory.FRUTAS_FRESCAS);
+        product.setUnit("kg");
+        product.setIsOrganic(false);
+        product = productRepository.save(product);
+
+        CreateOrderRequest request = new CreateOrderRequest(List.of(new OrderItemRequest(product.getId(), 1)),
+                "Los Carrera 250", "Concepción", "Región del Biobío");
+        return orderService.createOrder(new AuthenticatedUser(email, List.of(JwtUtil.DEFAULT_ROLE)), request).getOrderId();
+    }
+
+    // Lee eventos SSE completos (campos hasta la línea vacía), saltando los comentarios
+    private static final class SseReader implements AutoCloseable {
+
+        private final InputStream body;
+        private final BufferedReader reader;
+
+        private SseReader(InputStream body) {
+            this.body = body;
+            this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        }
+
+        Map<String, String> next() throws Exception {
+            return CompletableFuture.supplyAsync(this::readEvent).get(10, TimeUnit.SECONDS);
+        }
+
+        private Map<String, String> readEvent() {
+            try {
+                Map<String, String> fields = new LinkedHashMap<>();
+                List<String> data = new ArrayList<>();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        if (!fields.isEmpty() || !data.isEmpty()) {
+                            fields.put("data", String.join("\n", data));
+                            return fields;
+                        }
+                    } else if (!line.startsWith(":")) {
+                        int colon = line.indexOf(':');
+                        String value = line.substring(colon + 1).stripLeading();
+                        if (line.startsWith("data")) {
+                            data.add(value);
+                        } else {
+                            fields.put(line.substring(0, colon), value);
+                        }
+                    }
+                }
+                throw new IllegalStateException("El stream terminó sin más eventos");
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            body.close();
+        }
+    }
+}
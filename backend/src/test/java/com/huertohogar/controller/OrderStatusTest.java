@@ -0,0 +1,136 @@
+package com.huertohogar.controller;
+
+import com.huertohogar.model.dto.CreateOrderRequest;
+import com.huertohogar.model.dto.OrderItemRequest;
+import com.huertohogar.model.entity.Order;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.OrderRepository;
+import com.huertohogar.repository.ProductRepository;
+import com.huertohogar.repository.UserRepository;
+import com.huertohogar.security.AuthenticatedUser;
+import com.huertohogar.service.OrderService;
+import com.huertohogar.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-status",
+        "spring.jpa.show-sql=false",
+        "outbox.relay.poll-interval-ms=3600000",
+        "idempotency.sweep-interval-ms=3600000"
+})
+class OrderStatusTest {
+
+    private static final String EMAIL = "estado@huertohogar.cl";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void shouldOnlyLetAdminsChangeTheOrderStatus() throws Exception {
+        // Given
+        String orderId = createOrder();
+
+        // When
+        int anonymous = putStatus(orderId, "CANCELLED", null);
+        int owner = putStatus(orderId, "DELIVERED", jwtUtil.generateToken(EMAIL));
+        int admin = putStatus(orderId, "CONFIRMED",
+                jwtUtil.generateToken("admin@huertohogar.cl", List.of(JwtUtil.ADMIN_ROLE)));
+
+        // Then
+        assertEquals(401, anonymous);
+        assertEquals(403, owner);
+        assertEquals(200, admin);
+        assertEquals(Order.OrderStatus.CONFIRMED, orderRepository.findById(orderId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldRejectAnInvalidPageOfTheOrderHistory() throws Exception {
+        // Given
+        String email = "historial-paginado@huertohogar.cl";
+        String token = jwtUtil.generateToken(email);
+
+        // When
+        HttpResponse<String> negativePage = getOrders(email, "?page=-1&size=10", token);
+        HttpResponse<String> emptySize = getOrders(email, "?page=0&size=0", token);
+        HttpResponse<String> validPage = getOrders(email, "?page=0&size=1", token);
+
+        // Then: el mismo mensaje que la búsqueda de productos, no el de PageRequest
+        assertEquals(400, negativePage.statusCode());
+        assertTrue(negativePage.body().contains("La página no puede ser negativa"), negativePage.body());
+        assertEquals(400, emptySize.statusCode());
+        assertTrue(emptySize.body().contains("El tamaño de página debe ser al menos 1"), emptySize.body());
+        assertEquals(200, validPage.statusCode());
+    }
+
+    private HttpResponse<String> getOrders(String email, String query, String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/v1/orders/user/" + email + query))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private int putStatus(String orderId, String status, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/v1/orders/" + orderId + "/status"))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString("\"" + status + "\""));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private String createOrder() {
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword("sin-login");
+        user.setFullName("Cliente Estado");
+        user.setIsActive(true);
+        userRepository.save(user);
+
+        Product product = new Product();
+        product.setName("Zanahorias");
+        product.setPrice(800.0);
+        product.setStock(100.0);
+        product.setCategory(Product.ProductCategory.VERDURAS_ORGANICAS);
+        product.setUnit("kg");
+        product.setIsOrganic(true);
+        product = productRepository.save(product);
+
+        CreateOrderRequest request = new CreateOrderRequest(
+                List.of(new OrderItemRequest(product.getId(), 2)), "Av. Matta 50", "Santiago", "Región Metropolitana");
+        return orderService.createOrder(new AuthenticatedUser(EMAIL, List.of(JwtUtil.DEFAULT_ROLE)), request).getOrderId();
+    }
+}
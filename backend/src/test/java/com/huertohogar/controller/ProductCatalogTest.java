@@ -0,0 +1,150 @@
+package com.huertohogar.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huertohogar.model.dto.ProductDTO;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.service.ProductService;
+import com.huertohogar.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-catalog",
+        "spring.jpa.show-sql=false",
+        "outbox.relay.poll-interval-ms=3600000",
+        "idempotency.sweep-interval-ms=3600000"
+})
+class ProductCatalogTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void shouldWalkTheWholeCatalogWithKeysetCursors() throws Exception {
+        // Given
+        Set<String> catalog = new HashSet<>();
+        productService.getAllProducts().forEach(product -> catalog.add(product.getId()));
+        assertTrue(catalog.size() > 2);
+
+        // When
+        List<String> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String path = "/products?limit=2" + (cursor != null
+                    ? "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) : "");
+            HttpResponse<String> page = send(get(path, "application/json"));
+            assertEquals(200, page.statusCode());
+            JsonNode items = objectMapper.readTree(page.body()).path("data");
+            assertTrue(items.size() <= 2);
+            items.forEach(item -> walked.add(item.path("id").asText()));
+            cursor = page.headers().firstValue(ProductController.NEXT_CURSOR_HEADER).orElse(null);
+            pages++;
+        } while (cursor != null && pages <= catalog.size());
+
+        // Then: cada producto aparece una sola vez y la última página no entrega cursor
+        assertEquals(catalog.size(), walked.size());
+        assertEquals(catalog, new HashSet<>(walked));
+        assertNull(cursor);
+    }
+
+    @Test
+    void shouldStreamOneProductPerLineAsNdjson() throws Exception {
+        // Given
+        Set<String> catalog = new HashSet<>();
+        productService.getAllProducts().forEach(product -> catalog.add(product.getId()));
+
+        // When
+        HttpResponse<String> response = send(get("/products", "application/x-ndjson"));
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/x-ndjson"));
+        Set<String> streamed = new HashSet<>();
+        List<String> lines = response.body().lines().toList();
+        for (String line : lines) {
+            streamed.add(objectMapper.readTree(line).path("id").asText());
+        }
+        assertEquals(catalog.size(), lines.size());
+        assertEquals(catalog, streamed);
+    }
+
+    @Test
+    void shouldOnlyLetAdminsWriteTheCatalogAndBlog() throws Exception {
+        // Given
+        ProductDTO product = new ProductDTO();
+        product.setName("Acelga");
+        product.setPrice(900.0);
+        product.setStock(10.0);
+        product.setCategory(Product.ProductCategory.VERDURAS_ORGANICAS);
+        product.setUnit("kg");
+        String body = objectMapper.writeValueAsString(product);
+        String userToken = jwtUtil.generateToken("cliente@huertohogar.cl");
+        String adminToken = jwtUtil.generateToken("admin@huertohogar.cl", List.of(JwtUtil.ADMIN_ROLE));
+
+        // When / Then: leer no requiere token, escribir requiere ADMIN
+        assertEquals(200, send(get("/products/changes", "application/json")).statusCode());
+        assertEquals(200, send(get("/blog/posts", "application/json")).statusCode());
+        assertEquals(401, send(post("/products", body, null)).statusCode());
+        assertEquals(403, send(post("/products", body, userToken)).statusCode());
+        assertEquals(401, send(delete("/blog/posts/1", null)).statusCode());
+        assertEquals(403, send(delete("/blog/posts/1", userToken)).statusCode());
+        assertEquals(201, send(post("/products", body, adminToken)).statusCode());
+    }
+
+    private HttpRequest get(String path, String accept) {
+        return request(path, null).header("Accept", accept).GET().build();
+    }
+
+    private HttpRequest post(String path, String body, String token) {
+        return request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest delete(String path, String token) {
+        return request(path, token).DELETE().build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1" + path));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request;
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
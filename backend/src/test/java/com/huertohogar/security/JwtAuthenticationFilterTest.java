@@ -0,0 +1,64 @@
+package com.huertohogar.security;
+
+import com.huertohogar.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JwtAuthenticationFilterTest {
+    
+    private JwtUtil jwtUtil;
+    private JwtAuthenticationFilter filter;
+    
+    @BeforeEach
+    void setup() {
+        jwtUtil = new JwtUtil("huertohogar-test-secret-key-with-enough-length-for-hs384", 60_000L, 100);
+        filter = new JwtAuthenticationFilter(jwtUtil);
+    }
+    
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void shouldAuthenticateFromBearerToken() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken("ana@huertohogar.cl"));
+        
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        
+        // Then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        assertEquals("ana@huertohogar.cl", user.getEmail());
+        assertEquals(List.of(JwtUtil.DEFAULT_ROLE), user.getRoles());
+        assertEquals("ROLE_USER", authentication.getAuthorities().iterator().next().getAuthority());
+    }
+    
+    @Test
+    void shouldLeaveRequestAnonymousWhenTokenIsInvalid() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token-invalido");
+        
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        
+        // Then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
@@ -0,0 +1,43 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.dto.AuthRequest;
+import com.huertohogar.model.dto.RegisterRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:auth-service",
+        "spring.jpa.show-sql=false",
+        "security.password-hashing.strength=10"
+})
+class AuthServiceTest {
+    
+    private static final String HASH_THREAD_PREFIX = "password-hash-";
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Test
+    void shouldLeaveTheHashPoolOnceTheHashIsDone() {
+        // Given
+        RegisterRequest register = new RegisterRequest();
+        register.setEmail("hilos-auth@huertohogar.cl");
+        register.setPassword("secret123");
+        register.setFullName("Cliente Hilos");
+        
+        // When: la continuación corre en el hilo que completó el registro o el login
+        String registerThread = authService.register(register)
+                .thenApply(response -> Thread.currentThread().getName())
+                .join();
+        String loginThread = authService.login(new AuthRequest("hilos-auth@huertohogar.cl", "secret123"))
+                .thenApply(response -> Thread.currentThread().getName())
+                .join();
+        
+        // Then: el insert y la respuesta no ocupan el pool de BCrypt
+        assertFalse(registerThread.startsWith(HASH_THREAD_PREFIX), registerThread);
+        assertFalse(loginThread.startsWith(HASH_THREAD_PREFIX), loginThread);
+    }
+}
@@ -0,0 +1,116 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.dto.OrderDTO;
+import com.huertohogar.model.entity.Order;
+import com.huertohogar.model.entity.OrderItem;
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.OrderRepository;
+import com.huertohogar.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-history",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // Las tareas programadas consultan la base y sumarían sentencias a las estadísticas
+        "outbox.relay.poll-interval-ms=3600000",
+        "idempotency.sweep-interval-ms=3600000"
+})
+class OrderHistoryQueryCountTest {
+    
+    private static final String EMAIL = "historial@huertohogar.cl";
+    private static final int ORDERS = 60;
+    private static final int ITEMS_PER_ORDER = 3;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    @BeforeEach
+    void seedOrders() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (userRepository.existsByEmail(EMAIL)) {
+            return;
+        }
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword("secret");
+        user.setFullName("Cliente Frecuente");
+        userRepository.save(user);
+        
+        LocalDateTime start = LocalDateTime.now().minusDays(ORDERS);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setUser(user);
+            order.setOrderDate(start.plusDays(i));
+            order.setStatus(Order.OrderStatus.DELIVERED);
+            order.setTotalAmount(3000.0);
+            List<OrderItem> items = new ArrayList<>();
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                items.add(new OrderItem(null, order, "P" + j, "Producto " + j, null, 1, 1000.0, 1000.0));
+            }
+            order.setItems(items);
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
+    }
+    
+    @Test
+    void shouldLoadOrderPageWithTwoQueries() {
+        // Given
+        statistics.clear();
+        
+        // When
+        Slice<OrderDTO> page = orderService.getOrdersByUser(EMAIL, PageRequest.of(0, 20));
+        
+        // Then
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(20, page.getNumberOfElements());
+        assertTrue(page.hasNext());
+        assertTrue(page.getContent().stream().allMatch(order ->
+                EMAIL.equals(order.getUserEmail()) && order.getItems().size() == ITEMS_PER_ORDER));
+        assertTrue(page.getContent().get(0).getOrderDate().isAfter(page.getContent().get(19).getOrderDate()));
+    }
+    
+    @Test
+    void shouldLoadFullHistoryWithTwoQueries() {
+        // Given
+        statistics.clear();
+        
+        // When
+        Slice<OrderDTO> history = orderService.getOrdersByUser(EMAIL, Pageable.unpaged());
+        
+        // Then
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(ORDERS, history.getNumberOfElements());
+        assertFalse(history.hasNext());
+    }
+}
@@ -0,0 +1,218 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.dto.CreateOrderRequest;
+import com.huertohogar.model.dto.OrderEvent;
+import com.huertohogar.model.dto.OrderItemRequest;
+import com.huertohogar.model.entity.Order;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.OutboxEventRepository;
+import com.huertohogar.repository.ProductRepository;
+import com.huertohogar.repository.UserRepository;
+import com.huertohogar.security.AuthenticatedUser;
+import com.huertohogar.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox",
+        "spring.jpa.show-sql=false",
+        "outbox.relay.poll-interval-ms=3600000"
+})
+class OutboxRelayTest {
+    
+    private static final List<OrderEvent> RECEIVED = new CopyOnWriteArrayList<>();
+    private static final AtomicBoolean FAIL_NEXT = new AtomicBoolean();
+    private static final AtomicBoolean SLOW = new AtomicBoolean();
+    
+    @TestConfiguration
+    static class Subscribers {
+        
+        @Bean
+        OrderEventSubscriber recordingSubscriber() {
+            return event -> {
+                if (FAIL_NEXT.getAndSet(false)) {
+                    throw new IllegalStateException("Suscriptor caído");
+                }
+                if (SLOW.get()) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                RECEIVED.add(event);
+            };
+        }
+    }
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private OutboxRelay outboxRelay;
+    
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Test
+    void shouldDeliverOrderEventsInOrderAndRetryAfterFailure() {
+        // Given
+        String orderId = createOrder("outbox@huertohogar.cl");
+        orderService.updateOrderStatus(orderId, Order.OrderStatus.CONFIRMED);
+        orderService.updateOrderStatus(orderId, Order.OrderStatus.SHIPPED);
+        FAIL_NEXT.set(true);
+        
+        // When: el primer intento falla en el primer evento y retiene los siguientes del pedido
+        outboxRelay.relay();
+        List<OrderEvent> afterFailure = List.copyOf(RECEIVED);
+        outboxRelay.relay();
+        
+        // Then
+        assertEquals(List.of(), afterFailure.stream().filter(event -> orderId.equals(event.getOrderId())).toList());
+        List<OrderEvent> delivered = RECEIVED.stream().filter(event -> orderId.equals(event.getOrderId())).toList();
+        assertEquals(List.of(OrderEvent.Type.ORDER_CREATED, OrderEvent.Type.ORDER_STATUS_CHANGED,
+                OrderEvent.Type.ORDER_STATUS_CHANGED), delivered.stream().map(OrderEvent::getType).toList());
+        assertEquals(List.of(Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, Order.OrderStatus.SHIPPED),
+                delivered.stream().map(OrderEvent::getStatus).toList());
+        assertEquals(Order.OrderStatus.CONFIRMED, delivered.get(2).getPreviousStatus());
+        assertEquals(1, outboxEventRepository.findById(delivered.get(0).getEventId()).orElseThrow().getAttempts());
+        assertEquals(null, outboxEventRepository.findOldestPendingCreatedAt());
+    }
+    
+    @Test
+    void shouldChainPreviousStatusesWhenChangesRace() {
+        // Given
+        String orderId = createOrder("carrera-outbox@huertohogar.cl");
+        List<Order.OrderStatus> statuses = List.of(Order.OrderStatus.CONFIRMED, Order.OrderStatus.PREPARING,
+                Order.OrderStatus.SHIPPED, Order.OrderStatus.IN_TRANSIT, Order.OrderStatus.DELIVERED);
+        
+        // When: un hilo por cambio, así compiten aunque haya un solo procesador
+        ExecutorService executor = Executors.newFixedThreadPool(statuses.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<CompletableFuture<Void>> changes = statuses.stream()
+                    .map(status -> CompletableFuture.runAsync(() -> {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        orderService.updateOrderStatus(orderId, status);
+                    }, executor))
+                    .toList();
+            start.countDown();
+            changes.forEach(CompletableFuture::join);
+        } finally {
+            executor.shutdown();
+        }
+        outboxRelay.relay();
+        
+        // Then: cada evento parte del estado que dejó el anterior
+        List<OrderEvent> delivered = RECEIVED.stream().filter(event -> orderId.equals(event.getOrderId())).toList();
+        assertEquals(statuses.size() + 1, delivered.size());
+        for (int i = 1; i < delivered.size(); i++) {
+            assertEquals(delivered.get(i - 1).getStatus(), delivered.get(i).getPreviousStatus());
+        }
+    }
+    
+    @Test
+    void shouldDeliverEachEventOnceWhenTwoRelaysPoll() {
+        // Given: tres pedidos con tres eventos cada uno
+        List<String> orderIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String orderId = createOrder("dos-relays-" + i + "@huertohogar.cl");
+            orderService.updateOrderStatus(orderId, Order.OrderStatus.CONFIRMED);
+            orderService.updateOrderStatus(orderId, Order.OrderStatus.SHIPPED);
+            orderIds.add(orderId);
+        }
+        
+        // When: dos relays (como dos instancias) sondean a la vez con un suscriptor lento
+        SLOW.set(true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<CompletableFuture<Void>> relays = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                relays.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    outboxRelay.relay();
+                }, executor));
+            }
+            start.countDown();
+            relays.forEach(CompletableFuture::join);
+        } finally {
+            SLOW.set(false);
+            executor.shutdown();
+        }
+        outboxRelay.relay();
+        
+        // Then: cada evento llega una vez y los de cada pedido en orden
+        for (String orderId : orderIds) {
+            List<OrderEvent> delivered = RECEIVED.stream().filter(event -> orderId.equals(event.getOrderId())).toList();
+            assertEquals(List.of(Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, Order.OrderStatus.SHIPPED),
+                    delivered.stream().map(OrderEvent::getStatus).toList());
+        }
+        assertEquals(null, outboxEventRepository.findOldestPendingCreatedAt());
+    }
+    
+    @Test
+    void shouldNotWriteEventWhenOrderChangeRollsBack() {
+        // Given
+        long before = outboxEventRepository.count();
+        
+        // When
+        assertThrows(RuntimeException.class,
+                () -> orderService.updateOrderStatus("no-existe", Order.OrderStatus.SHIPPED));
+        
+        // Then
+        assertEquals(before, outboxEventRepository.count());
+    }
+    
+    private String createOrder(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setFullName("Cliente Outbox");
+        user.setIsActive(true);
+        userRepository.save(user);
+        
+        Product product = new Product();
+        product.setName("Miel de Ulmo");
+        product.setPrice(5000.0);
+        product.setStock(10.0);
+        product.setCategory(Product.ProductCategory.PRODUCTOS_ORGANICOS);
+        product.setUnit("frasco");
+        product.setIsOrganic(true);
+        product = productRepository.save(product);
+        
+        CreateOrderRequest request = new CreateOrderRequest(List.of(new OrderItemRequest(product.getId(), 1)),
+                "Av. Alemania 100", "Temuco", "Región de La Araucanía");
+        return orderService.createOrder(new AuthenticatedUser(email, List.of(JwtUtil.DEFAULT_ROLE)), request).getOrderId();
+    }
+}
@@ -0,0 +1,65 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.dto.AuthRequest;
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:password-upgrade",
+        "spring.jpa.show-sql=false",
+        "security.password-hashing.strength=11"
+})
+class PasswordHashUpgradeTest {
+    
+    private static final String EMAIL = "costo-antiguo@huertohogar.cl";
+    private static final String PASSWORD = "secret123";
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Test
+    void shouldRehashOutdatedCostOnSuccessfulLogin() throws InterruptedException {
+        // Given
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword(new BCryptPasswordEncoder(10).encode(PASSWORD));
+        user.setFullName("Cliente Antiguo");
+        user.setIsActive(true);
+        userRepository.save(user);
+        
+        // When
+        assertNotNull(authService.login(new AuthRequest(EMAIL, PASSWORD)).join().getToken());
+        
+        // Then
+        String storedHash = awaitHashWithPrefix("$2a$11$");
+        assertTrue(passwordEncoder.matches(PASSWORD, storedHash));
+        assertFalse(passwordEncoder.upgradeEncoding(storedHash));
+    }
+    
+    // La actualización corre en segundo plano después de responder el login
+    private String awaitHashWithPrefix(String prefix) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            String storedHash = userRepository.findByEmail(EMAIL).orElseThrow().getPassword();
+            if (storedHash.startsWith(prefix)) {
+                return storedHash;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("El hash no se actualizó al costo " + prefix);
+    }
+}
@@ -0,0 +1,84 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.dto.ProductChangesDTO;
+import com.huertohogar.model.dto.ProductDTO;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-changes",
+        "spring.jpa.show-sql=false"
+})
+class ProductChangesTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldSyncFullCatalogThenOnlyChanges() {
+        // Given: un catálogo sin cambios recientes
+        jdbcTemplate.update("UPDATE products SET updated_at = ?", LocalDateTime.now().minusHours(1));
+        Set<String> catalog = new HashSet<>(productRepository.findAll().stream().map(Product::getId).toList());
+
+        // When: primera sincronización en páginas de 4
+        List<ProductChangesDTO> pages = syncAll(null);
+
+        // Then
+        assertTrue(pages.get(0).isReset());
+        assertTrue(pages.size() > 1);
+        Set<String> synced = new HashSet<>();
+        pages.forEach(page -> page.getUpserts().forEach(product -> synced.add(product.getId())));
+        assertEquals(catalog, synced);
+        String token = pages.get(pages.size() - 1).getNextToken();
+
+        // When: un producto cambia y otro se elimina
+        List<String> ids = new ArrayList<>(catalog);
+        ProductDTO updated = productService.getProductById(ids.get(0));
+        updated.setPrice(updated.getPrice() + 100);
+        productService.updateProduct(updated.getId(), updated);
+        productService.deleteProduct(ids.get(1));
+        ProductChangesDTO delta = productService.getProductChanges(token, 4);
+
+        // Then: solo la diferencia
+        assertFalse(delta.isReset());
+        assertFalse(delta.isHasMore());
+        assertEquals(List.of(ids.get(0)), delta.getUpserts().stream().map(ProductDTO::getId).toList());
+        assertEquals(List.of(ids.get(1)), delta.getDeletedIds());
+
+        // Then: lo cambiado dentro del margen de confirmación se vuelve a entregar; aplicarlo de nuevo no altera nada
+        ProductChangesDTO again = productService.getProductChanges(delta.getNextToken(), 4);
+        assertEquals(List.of(ids.get(0)), again.getUpserts().stream().map(ProductDTO::getId).toList());
+    }
+
+    private List<ProductChangesDTO> syncAll(String since) {
+        List<ProductChangesDTO> pages = new ArrayList<>();
+        String token = since;
+        ProductChangesDTO page;
+        do {
+            page = productService.getProductChanges(token, 4);
+            pages.add(page);
+            token = page.getNextToken();
+        } while (page.isHasMore());
+        return pages;
+    }
+}
@@ -0,0 +1,98 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:search-benchmark",
+        "spring.jpa.show-sql=false"
+})
+class ProductSearchBenchmarkTest {
+    
+    private static final int PRODUCTS = 100_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+    private static final List<String> QUERIES = List.of("manzana", "organica", "miel", "valle maule", "queso");
+    
+    private static final String[] NAMES = {"Manzanas", "Naranjas", "Plátanos", "Zanahorias", "Espinacas",
+            "Pimientos", "Miel", "Quinua", "Leche", "Queso", "Yogurt", "Peras", "Kiwis", "Uvas"};
+    private static final String[] ADJECTIVES = {"Orgánicas", "Frescas", "Fuji", "Valencia", "de Campo",
+            "Artesanal", "Premium", "Tricolores", "Entera", "Mantecoso"};
+    private static final String[] ORIGINS = {"Valle del Maule", "Región de Valparaíso", "Región de O'Higgins",
+            "Región Metropolitana", "Región de Los Lagos", "Región de Tarapacá", "Región de Ñuble"};
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    
+    @BeforeAll
+    void seedCatalog() {
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < PRODUCTS; i++) {
+            String name = NAMES[random.nextInt(NAMES.length)] + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+            String origin = ORIGINS[random.nextInt(ORIGINS.length)];
+            boolean organic = random.nextInt(3) == 0;
+            rows.add(new Object[]{UUID.randomUUID().toString(), name,
+                    name + " cultivadas en " + origin + ", lote " + i + ".",
+                    1000.0 + random.nextInt(5000), 100.0, Product.ProductCategory.values()[random.nextInt(4)].name(),
+                    organic ? "Orgánico" : "Frescos", origin, organic, organic ? "Certificación Orgánica" : "", now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (id, name, description, price, stock, category, tag, origin, " +
+                "is_organic, certifications, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        productSearchIndex.rebuild();
+    }
+    
+    @Test
+    void compareInvertedIndexWithLikeQuery() {
+        double likeMillis = measure(() -> QUERIES.stream()
+                .mapToInt(query -> productRepository.searchProducts(query).size())
+                .sum());
+        double indexMillis = measure(() -> QUERIES.stream()
+                .mapToInt(query -> productSearchIndex.search(query, PageRequest.of(0, 20)).getNumberOfElements())
+                .sum());
+        
+        System.out.printf("Búsqueda sobre %d productos (%d consultas por ronda)%n", PRODUCTS, QUERIES.size());
+        System.out.printf("  LIKE '%%q%%'       : %.2f ms/ronda%n", likeMillis);
+        System.out.printf("  Índice invertido : %.2f ms/ronda%n", indexMillis);
+        
+        assertTrue(productSearchIndex.size() >= PRODUCTS);
+    }
+    
+    private double measure(Supplier<Integer> round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            round.get();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ROUNDS;
+    }
+}
@@ -0,0 +1,80 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSuggestionIndexTest {
+    
+    private ProductSuggestionIndex index;
+    
+    @BeforeEach
+    void setup() {
+        index = new ProductSuggestionIndex(null, null, null);
+        index.index(product("p1", "Manzanas Fuji", "Valle del Maule", "Frescos"));
+        index.index(product("p2", "Manzanas Verdes", "Región del Maule", "Frescos"));
+        index.index(product("p3", "Miel Orgánica", "Región de Los Lagos", "Orgánico"));
+    }
+    
+    @Test
+    void shouldSuggestByPrefixIgnoringAccents() {
+        // When
+        List<String> suggestions = index.suggest("orga", 10);
+        
+        // Then
+        assertEquals(List.of("Miel Orgánica", "Orgánico"), suggestions.stream().sorted().toList());
+    }
+    
+    @Test
+    void shouldMatchWordsInsideSuggestions() {
+        // When
+        List<String> suggestions = index.suggest("fuj", 10);
+        
+        // Then
+        assertEquals(List.of("Manzanas Fuji"), suggestions);
+    }
+    
+    @Test
+    void shouldRankByUnitsSold() {
+        // Given
+        index.recordSales(Map.of("p2", 5));
+        
+        // When
+        List<String> suggestions = index.suggest("manzanas", 10);
+        
+        // Then
+        assertEquals(List.of("Manzanas Verdes", "Manzanas Fuji"), suggestions);
+    }
+    
+    @Test
+    void shouldReflectCatalogChanges() {
+        // Given
+        index.index(product("p1", "Peras Asiáticas", "Valle del Maule", "Frescos"));
+        index.remove("p3");
+        
+        // When
+        List<String> manzanas = index.suggest("manz", 10);
+        List<String> miel = index.suggest("miel", 10);
+        
+        // Then
+        assertEquals(List.of("Manzanas Verdes"), manzanas);
+        assertTrue(miel.isEmpty());
+        assertEquals(List.of("Peras Asiáticas"), index.suggest("asia", 10));
+        assertEquals(List.of("Frescos"), index.suggest("fres", 10));
+    }
+    
+    private Product product(String id, String name, String origin, String tag) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setOrigin(origin);
+        product.setTag(tag);
+        return product;
+    }
+}
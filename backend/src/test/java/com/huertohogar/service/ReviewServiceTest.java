@@ -0,0 +1,124 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.dto.RatingSummaryDTO;
+import com.huertohogar.model.dto.ReviewDTO;
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.UserRepository;
+import com.huertohogar.security.AuthenticatedUser;
+import com.huertohogar.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:review-summaries",
+        "spring.jpa.show-sql=false",
+        "outbox.relay.poll-interval-ms=3600000",
+        "idempotency.sweep-interval-ms=3600000"
+})
+class ReviewServiceTest {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private RatingSummaryRepairJob ratingSummaryRepairJob;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void shouldAdjustTheSummaryOnCreateUpdateAndDelete() {
+        // Given
+        String productId = "resenas-" + UUID.randomUUID();
+        AuthenticatedUser ana = saveUser("ana-resenas@huertohogar.cl");
+        AuthenticatedUser luis = saveUser("luis-resenas@huertohogar.cl");
+
+        // When
+        ReviewDTO first = reviewService.createReview(productId, ana, 5, "Muy dulces");
+        ReviewDTO second = reviewService.createReview(productId, luis, 2, "Llegaron golpeadas");
+        RatingSummaryDTO created = reviewService.getRatingSummary(productId);
+        reviewService.updateReview(second.getId(), luis, 3, "El reemplazo llegó bien");
+        RatingSummaryDTO updated = reviewService.getRatingSummary(productId);
+        reviewService.deleteReview(first.getId(), ana);
+        RatingSummaryDTO deleted = reviewService.getRatingSummary(productId);
+
+        // Then
+        assertEquals(2, created.getReviewCount());
+        assertEquals(3.5, created.getAverage());
+        assertEquals(Map.of(1, 0L, 2, 1L, 3, 0L, 4, 0L, 5, 1L), created.getDistribution());
+        assertEquals(2, updated.getReviewCount());
+        assertEquals(4.0, updated.getAverage());
+        assertEquals(Map.of(1, 0L, 2, 0L, 3, 1L, 4, 0L, 5, 1L), updated.getDistribution());
+        assertEquals(1, deleted.getReviewCount());
+        assertEquals(3.0, deleted.getAverage());
+        assertEquals(Map.of(1, 0L, 2, 0L, 3, 1L, 4, 0L, 5, 0L), deleted.getDistribution());
+
+        // Then: los ajustes coinciden con el recálculo desde las reseñas
+        ratingSummaryRepairJob.rebuild();
+        assertEquals(deleted, reviewService.getRatingSummary(productId));
+    }
+
+    @Test
+    void shouldCountConcurrentFirstReviewsOfAProduct() {
+        // Given
+        String productId = "primeras-" + UUID.randomUUID();
+        List<AuthenticatedUser> reviewers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            reviewers.add(saveUser("primera-" + i + "@huertohogar.cl"));
+        }
+
+        // When: un hilo por reseña, así compiten aunque haya un solo procesador
+        ExecutorService executor = Executors.newFixedThreadPool(reviewers.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<CompletableFuture<ReviewDTO>> reviews = reviewers.stream()
+                    .map(reviewer -> CompletableFuture.supplyAsync(() -> {
+                        await(start);
+                        return reviewService.createReview(productId, reviewer, 4, "Buena");
+                    }, executor))
+                    .toList();
+            start.countDown();
+            reviews.forEach(CompletableFuture::join);
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then
+        RatingSummaryDTO summary = reviewService.getRatingSummary(productId);
+        assertEquals(8, summary.getReviewCount());
+        assertEquals(8L, summary.getDistribution().get(4));
+    }
+
+    private AuthenticatedUser saveUser(String email) {
+        if (!userRepository.existsByEmail(email)) {
+            User user = new User();
+            user.setEmail(email);
+            user.setPassword("sin-login");
+            user.setFullName("Cliente " + email);
+            user.setIsActive(true);
+            userRepository.save(user);
+        }
+        return new AuthenticatedUser(email, List.of(JwtUtil.DEFAULT_ROLE));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.dto.CreateOrderRequest;
+import com.huertohogar.model.dto.OrderItemRequest;
+import com.huertohogar.model.entity.Order;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.SalesRollup;
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.ProductRepository;
+import com.huertohogar.repository.SalesRollupRepository;
+import com.huertohogar.repository.UserRepository;
+import com.huertohogar.security.AuthenticatedUser;
+import com.huertohogar.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sales-rollup",
+        "spring.jpa.show-sql=false",
+        "outbox.relay.poll-interval-ms=3600000",
+        "idempotency.sweep-interval-ms=3600000"
+})
+class SalesRollupServiceTest {
+
+    private static final String EMAIL = "acumulados@huertohogar.cl";
+    private static final String REGION = "Región de Los Lagos";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesRollupRepairJob salesRollupRepairJob;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void shouldKeepTheCategoryOfTheSaleWhenTheProductIsRecategorized() {
+        // Given
+        saveUser();
+        Product miel = saveProduct("Miel de Ulmo", Product.ProductCategory.PRODUCTOS_ORGANICOS);
+        CreateOrderRequest request = new CreateOrderRequest(
+                List.of(new OrderItemRequest(miel.getId(), 1)), "Av. Angelmó 200", "Puerto Montt", REGION);
+        String orderId = orderService.createOrder(
+                new AuthenticatedUser(EMAIL, List.of(JwtUtil.DEFAULT_ROLE)), request).getOrderId();
+
+        // When: el producto cambia de categoría antes del cambio de estado y del recálculo
+        Product recategorized = productRepository.findById(miel.getId()).orElseThrow();
+        recategorized.setCategory(Product.ProductCategory.PRODUCTOS_LACTEOS);
+        productRepository.save(recategorized);
+        orderService.updateOrderStatus(orderId, Order.OrderStatus.CONFIRMED);
+        Set<SalesRollup> incremental = nonEmptyCells();
+        salesRollupRepairJob.rebuild();
+
+        // Then: la venta queda en la categoría que tenía al venderse
+        assertEquals(nonEmptyCells(), incremental);
+        Set<String> categories = incremental.stream()
+                .map(cell -> cell.getId().getCategory())
+                .collect(Collectors.toSet());
+        assertEquals(Set.of(SalesRollup.ALL_CATEGORIES, "PRODUCTOS_ORGANICOS"), categories);
+    }
+
+    // Las celdas que un cambio de estado deja en cero se conservan para la próxima venta
+    private Set<SalesRollup> nonEmptyCells() {
+        return salesRollupRepository.findAll().stream()
+                .filter(cell -> cell.getOrderCount() != 0)
+                .collect(Collectors.toSet());
+    }
+
+    private void saveUser() {
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword("sin-login");
+        user.setFullName("Cliente Acumulados");
+        user.setIsActive(true);
+        userRepository.save(user);
+    }
+
+    private Product saveProduct(String name, Product.ProductCategory category) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(4000.0);
+        product.setStock(100.0);
+        product.setCategory(category);
+        product.setUnit("kg");
+        product.setIsOrganic(true);
+        return productRepository.save(product);
+    }
+}
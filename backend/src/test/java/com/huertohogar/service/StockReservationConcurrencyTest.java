@@ -0,0 +1,101 @@
+package com.huertohogar.service;
+
+import com.huertohogar.model.dto.CreateOrderRequest;
+import com.huertohogar.model.dto.OrderItemRequest;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.User;
+import com.huertohogar.repository.OrderRepository;
+import com.huertohogar.repository.ProductRepository;
+import com.huertohogar.repository.UserRepository;
+import com.huertohogar.security.AuthenticatedUser;
+import com.huertohogar.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stock-reservation;LOCK_TIMEOUT=30000",
+        "spring.jpa.show-sql=false"
+})
+class StockReservationConcurrencyTest {
+    
+    private static final int INITIAL_STOCK = 100;
+    private static final int PARALLEL_ORDERS = 300;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Test
+    void shouldNeverOversellUnderConcurrentOrders() throws Exception {
+        // Given
+        Product product = new Product();
+        product.setName("Frutillas de temporada");
+        product.setPrice(2500.0);
+        product.setStock((double) INITIAL_STOCK);
+        product.setCategory(Product.ProductCategory.FRUTAS_FRESCAS);
+        String productId = productRepository.save(product).getId();
+        
+        User user = new User();
+        user.setEmail("flash-sale@huertohogar.cl");
+        user.setPassword("secret");
+        user.setFullName("Cliente Flash Sale");
+        userRepository.save(user);
+        AuthenticatedUser principal = new AuthenticatedUser(user.getEmail(), List.of(JwtUtil.DEFAULT_ROLE));
+        
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        
+        // When
+        for (int i = 0; i < PARALLEL_ORDERS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                CreateOrderRequest request = new CreateOrderRequest(
+                        List.of(new OrderItemRequest(productId, 1)),
+                        "Av. Siempre Viva 123", "Santiago", "Región Metropolitana");
+                try {
+                    orderService.createOrder(principal, request);
+                    succeeded.incrementAndGet();
+                } catch (RuntimeException e) {
+                    // Pedido rechazado por falta de stock
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        
+        // Then
+        double remaining = productRepository.findById(productId).orElseThrow().getStock();
+        assertTrue(remaining >= 0, "El stock quedó negativo: " + remaining);
+        assertEquals(INITIAL_STOCK, succeeded.get());
+        assertEquals(0.0, remaining);
+        assertEquals(INITIAL_STOCK, orderRepository.findByUserEmailOrderByOrderDateDesc(user.getEmail()).size());
+    }
+}
@@ -0,0 +1,95 @@
+package com.huertohogar.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Tokens verificados por segundo: implementación anterior vs. verificación única con y sin caché
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtVerificationBenchmarkTest {
+    
+    private static final String SECRET = "huertohogar-secret-key-change-in-production-min-256-bits";
+    private static final long EXPIRATION = 86_400_000L;
+    private static final int TOKENS = 1024;
+    
+    private JwtUtil cachedJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String[] tokens;
+    private String[] emails;
+    
+    @Setup
+    public void setup() {
+        cachedJwtUtil = new JwtUtil(SECRET, EXPIRATION, 10_000);
+        uncachedJwtUtil = new JwtUtil(SECRET, EXPIRATION, 0);
+        tokens = new String[TOKENS];
+        emails = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            emails[i] = "cliente" + i + "@huertohogar.cl";
+            tokens[i] = cachedJwtUtil.generateToken(emails[i]);
+        }
+    }
+    
+    @Benchmark
+    public boolean legacyValidate() {
+        int i = ThreadLocalRandom.current().nextInt(TOKENS);
+        String tokenEmail = legacyExtractClaim(tokens[i], Claims::getSubject);
+        return tokenEmail.equals(emails[i]) && !legacyExtractClaim(tokens[i], Claims::getExpiration).before(new Date());
+    }
+    
+    @Benchmark
+    public boolean verifyOnce() {
+        int i = ThreadLocalRandom.current().nextInt(TOKENS);
+        return uncachedJwtUtil.validateToken(tokens[i], emails[i]);
+    }
+    
+    @Benchmark
+    public boolean verifyCached() {
+        int i = ThreadLocalRandom.current().nextInt(TOKENS);
+        return cachedJwtUtil.validateToken(tokens[i], emails[i]);
+    }
+    
+    // Réplica del camino anterior: clave y parser nuevos en cada extracción, token parseado dos veces
+    private static <T> T legacyExtractClaim(String token, Function<Claims, T> resolver) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Claims claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        return resolver.apply(claims);
+    }
+    
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmarkTest.class.getSimpleName())
+                .forks(0)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-jwt-verification.json")
+                .build()).run();
+    }
+}
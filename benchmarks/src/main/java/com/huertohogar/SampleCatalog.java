@@ -0,0 +1,79 @@
+package com.huertohogar;
+
+import com.huertohogar.model.dto.ProductDTO;
+import com.huertohogar.model.entity.Product;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.UUID;
+
+// Productos con la forma del catálogo real; misma semilla, mismos datos en cada corrida
+public final class SampleCatalog {
+    
+    private static final String[] NAMES = {"Manzanas", "Naranjas", "Plátanos", "Zanahorias", "Espinacas",
+            "Pimientos", "Miel", "Quinua", "Leche", "Queso", "Yogurt", "Peras", "Kiwis", "Uvas"};
+    private static final String[] ADJECTIVES = {"Orgánicas", "Frescas", "Fuji", "Valencia", "de Campo",
+            "Artesanal", "Premium", "Tricolores", "Entera", "Mantecoso"};
+    private static final String[] ORIGINS = {"Valle del Maule", "Región de Valparaíso", "Región de O'Higgins",
+            "Región Metropolitana", "Región de Los Lagos", "Región de Tarapacá", "Región de Ñuble"};
+    
+    private SampleCatalog() {
+    }
+    
+    public static Product[] products(int count) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        Product[] products = new Product[count];
+        for (int i = 0; i < count; i++) {
+            String name = NAMES[random.nextInt(NAMES.length)] + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+            String origin = ORIGINS[random.nextInt(ORIGINS.length)];
+            boolean organic = random.nextInt(3) == 0;
+            Product product = new Product();
+            product.setId(UUID.randomUUID().toString());
+            product.setName(name);
+            product.setDescription(name + " cultivadas en " + origin + ", lote " + i + ".");
+            product.setPrice(1000.0 + random.nextInt(5000));
+            product.setOldPrice(random.nextInt(4) == 0 ? product.getPrice() * 1.2 : null);
+            product.setStock(100.0);
+            product.setCategory(Product.ProductCategory.values()[random.nextInt(Product.ProductCategory.values().length)]);
+            product.setImageUrl("https://cdn.huertohogar.cl/productos/" + i + ".jpg");
+            product.setTag(organic ? "Orgánico" : "Frescos");
+            product.setOrigin(origin);
+            product.setUnit("kg");
+            product.setIsOrganic(organic);
+            product.setCertifications(organic ? "Certificación Orgánica" : "");
+            product.setSustainablePractices("Riego por goteo, compost propio");
+            product.setCreatedAt(now);
+            product.setUpdatedAt(now);
+            products[i] = product;
+        }
+        return products;
+    }
+    
+    public static ProductDTO[] productDTOs(int count) {
+        Product[] products = products(count);
+        ProductDTO[] dtos = new ProductDTO[count];
+        for (int i = 0; i < count; i++) {
+            Product product = products[i];
+            ProductDTO dto = new ProductDTO();
+            dto.setId(product.getId());
+            dto.setName(product.getName());
+            dto.setDescription(product.getDescription());
+            dto.setPrice(product.getPrice());
+            dto.setOldPrice(product.getOldPrice());
+            dto.setStock(product.getStock());
+            dto.setCategory(product.getCategory());
+            dto.setImageUrl(product.getImageUrl());
+            dto.setTag(product.getTag());
+            dto.setOrigin(product.getOrigin());
+            dto.setUnit(product.getUnit());
+            dto.setIsOrganic(product.getIsOrganic());
+            dto.setCertifications(product.getCertifications());
+            dto.setSustainablePractices(product.getSustainablePractices());
+            dto.setCreatedAt(product.getCreatedAt());
+            dto.setUpdatedAt(product.getUpdatedAt());
+            dtos[i] = dto;
+        }
+        return dtos;
+    }
+}
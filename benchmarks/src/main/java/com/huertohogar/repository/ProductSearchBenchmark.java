@@ -0,0 +1,82 @@
+package com.huertohogar.repository;
+
+import com.huertohogar.HuertohogarApplication;
+import com.huertohogar.SampleCatalog;
+import com.huertohogar.model.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Búsqueda LIKE de GET /products/search sobre H2 con el catálogo sembrado por JDBC
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductSearchBenchmark {
+    
+    private static final String[] QUERIES = {"manzana", "organica", "miel", "valle maule", "queso"};
+    
+    @Param({"10000"})
+    private int products;
+    
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(HuertohogarApplication.class)
+                // Como argumentos, para que tengan prioridad sobre application.yml
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:search-benchmark",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--outbox.relay.poll-interval-ms=3600000",
+                        "--idempotency.sweep-interval-ms=3600000");
+        productRepository = context.getBean(ProductRepository.class);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public List<Product> searchProducts() {
+        return productRepository.searchProducts(QUERIES[ThreadLocalRandom.current().nextInt(QUERIES.length)]);
+    }
+    
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(products);
+        for (Product product : SampleCatalog.products(products)) {
+            rows.add(new Object[]{product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                    product.getStock(), product.getCategory().name(), product.getTag(), product.getOrigin(),
+                    product.getIsOrganic(), product.getCertifications(), now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (id, name, description, price, stock, category, tag, origin, " +
+                "is_organic, certifications, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+}
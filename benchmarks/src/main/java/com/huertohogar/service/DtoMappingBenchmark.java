@@ -0,0 +1,90 @@
+package com.huertohogar.service;
+
+import com.huertohogar.SampleCatalog;
+import com.huertohogar.model.dto.OrderDTO;
+import com.huertohogar.model.dto.ProductDTO;
+import com.huertohogar.model.entity.Order;
+import com.huertohogar.model.entity.OrderItem;
+import com.huertohogar.model.entity.Product;
+import com.huertohogar.model.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Entidad -> DTO por cada producto y pedido que devuelve la API
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DtoMappingBenchmark {
+    
+    private static final int SAMPLES = 1024;
+    private static final int ITEMS_PER_ORDER = 5;
+    
+    private Product[] products;
+    private Order[] orders;
+    
+    @Setup
+    public void setup() {
+        products = SampleCatalog.products(SAMPLES);
+        User user = new User();
+        user.setEmail("cliente@huertohogar.cl");
+        orders = new Order[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            Order order = new Order();
+            order.setOrderId(UUID.randomUUID().toString());
+            order.setUser(user);
+            order.setOrderDate(LocalDateTime.now());
+            order.setStatus(Order.OrderStatus.CONFIRMED);
+            order.setShippingAddress("Av. Providencia 1234");
+            order.setCity("Santiago");
+            order.setRegion("Región Metropolitana");
+            order.setCreatedAt(order.getOrderDate());
+            List<OrderItem> items = new ArrayList<>(ITEMS_PER_ORDER);
+            double total = 0;
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                Product product = products[(i + j) % SAMPLES];
+                OrderItem item = new OrderItem();
+                item.setOrderItemId(UUID.randomUUID().toString());
+                item.setOrder(order);
+                item.setProductId(product.getId());
+                item.setProductName(product.getName());
+                item.setQuantity(j + 1);
+                item.setUnitPrice(product.getPrice());
+                item.setTotalPrice(product.getPrice() * (j + 1));
+                total += item.getTotalPrice();
+                items.add(item);
+            }
+            order.setItems(items);
+            order.setTotalAmount(total);
+            orders[i] = order;
+        }
+    }
+    
+    @Benchmark
+    public ProductDTO productToDTO() {
+        return ProductService.toDTO(products[ThreadLocalRandom.current().nextInt(SAMPLES)]);
+    }
+    
+    @Benchmark
+    public OrderDTO orderToDTO() {
+        Order order = orders[ThreadLocalRandom.current().nextInt(SAMPLES)];
+        return OrderService.toDTO(order, order.getItems());
+    }
+}
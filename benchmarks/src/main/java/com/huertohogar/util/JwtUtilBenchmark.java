@@ -0,0 +1,63 @@
+package com.huertohogar.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Login (generar) y cada request autenticado (validar), con la caché de tokens verificados y sin ella
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtUtilBenchmark {
+    
+    private static final String SECRET = "huertohogar-secret-key-change-in-production-min-256-bits";
+    private static final long EXPIRATION = 86_400_000L;
+    private static final int TOKENS = 1024;
+    
+    private JwtUtil cachedJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String[] tokens;
+    private String[] emails;
+    
+    @Setup
+    public void setup() {
+        cachedJwtUtil = new JwtUtil(SECRET, EXPIRATION, 10_000);
+        uncachedJwtUtil = new JwtUtil(SECRET, EXPIRATION, 0);
+        tokens = new String[TOKENS];
+        emails = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            emails[i] = "cliente" + i + "@huertohogar.cl";
+            tokens[i] = cachedJwtUtil.generateToken(emails[i]);
+        }
+    }
+    
+    @Benchmark
+    public String generate() {
+        return cachedJwtUtil.generateToken(emails[ThreadLocalRandom.current().nextInt(TOKENS)]);
+    }
+    
+    @Benchmark
+    public boolean validate() {
+        int i = ThreadLocalRandom.current().nextInt(TOKENS);
+        return uncachedJwtUtil.validateToken(tokens[i], emails[i]);
+    }
+    
+    @Benchmark
+    public boolean validateCached() {
+        int i = ThreadLocalRandom.current().nextInt(TOKENS);
+        return cachedJwtUtil.validateToken(tokens[i], emails[i]);
+    }
+}
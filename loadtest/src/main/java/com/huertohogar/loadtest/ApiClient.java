@@ -0,0 +1,142 @@
+package com.huertohogar.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+// Cliente HTTP asíncrono que registra cada llamada bajo la etiqueta de su endpoint
+final class ApiClient {
+    
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    
+    private final String baseUrl;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "loadtest-http");
+                thread.setDaemon(true);
+                return thread;
+            }))
+            .build();
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    
+    ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+    
+    CompletableFuture<JsonNode> get(Session session, String endpoint, String path, String token) {
+        return send(session, endpoint, request(path, token).GET().build());
+    }
+    
+    // Los POST con efectos llevan Idempotency-Key, como los envía la app al reintentar
+    CompletableFuture<JsonNode> post(Session session, String endpoint, String path, Object body, String token) {
+        HttpRequest request = request(path, token)
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json(body)))
+                .build();
+        return send(session, endpoint, request);
+    }
+    
+    // Llamada síncrona fuera de la medición, para preparar los datos de la corrida
+    HttpResponse<byte[]> call(String method, String path, Object body, String token) throws IOException {
+        HttpRequest.Builder request = request(path, token);
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(json(body)));
+        }
+        try {
+            return http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Llamada interrumpida: " + method + " " + path, e);
+        }
+    }
+    
+    JsonNode read(byte[] body) throws IOException {
+        return mapper.readTree(body);
+    }
+    
+    static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+    
+    Map<String, EndpointStats> stats() {
+        return new TreeMap<>(stats);
+    }
+    
+    ObjectMapper mapper() {
+        return mapper;
+    }
+    
+    private CompletableFuture<JsonNode> send(Session session, String endpoint, HttpRequest request) {
+        long start = session.start();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).handle((response, failure) -> {
+            long elapsed = System.nanoTime() - start;
+            EndpointStats endpointStats = session.measured() ? stats.computeIfAbsent(endpoint, key -> new EndpointStats()) : null;
+            if (failure != null) {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure;
+                return fail(endpointStats, endpoint, cause.getClass().getSimpleName());
+            }
+            if (response.statusCode() >= 400) {
+                return fail(endpointStats, endpoint, String.valueOf(response.statusCode()));
+            }
+            JsonNode body;
+            try {
+                body = mapper.readTree(response.body());
+            } catch (IOException e) {
+                return fail(endpointStats, endpoint, "respuesta ilegible");
+            }
+            if (endpointStats != null) {
+                endpointStats.success(elapsed);
+            }
+            return body;
+        });
+    }
+    
+    private JsonNode fail(EndpointStats endpointStats, String endpoint, String cause) {
+        if (endpointStats != null) {
+            endpointStats.error(cause);
+        }
+        // Corta la sesión: los pasos siguientes dependen de esta respuesta
+        throw new CompletionException(new IllegalStateException(endpoint + " falló: " + cause));
+    }
+    
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request;
+    }
+    
+    private byte[] json(Object body) {
+        try {
+            return mapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("No se pudo serializar el cuerpo", e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.huertohogar.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latencias en microsegundos de las respuestas exitosas y errores por causa de un endpoint
+final class EndpointStats {
+    
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(2);
+    
+    private final ConcurrentHistogram latency = new ConcurrentHistogram(1, MAX_MICROS, 3);
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    
+    void success(long nanos) {
+        latency.recordValue(Math.min(Math.max(1, nanos / 1000), MAX_MICROS));
+    }
+    
+    // Los errores no entran al histograma: un 500 inmediato haría ver mejores los percentiles
+    void error(String cause) {
+        errors.computeIfAbsent(cause, key -> new LongAdder()).increment();
+    }
+    
+    Histogram latency() {
+        return latency.copy();
+    }
+    
+    long errorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+    
+    Map<String, Long> errorsByCause() {
+        Map<String, Long> copy = new TreeMap<>();
+        errors.forEach((cause, count) -> copy.put(cause, count.sum()));
+        return copy;
+    }
+}
@@ -0,0 +1,101 @@
+package com.huertohogar.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Tabla en consola y JSON con percentiles y errores por endpoint, para comparar corridas entre versiones
+final class LoadReport {
+    
+    private final LoadTestOptions options;
+    private final Map<String, EndpointStats> endpoints;
+    private final Map<String, OpenModelDriver.Counters> scenarios;
+    private final Duration elapsed;
+    
+    LoadReport(LoadTestOptions options, Map<String, EndpointStats> endpoints,
+               Map<String, OpenModelDriver.Counters> scenarios, Duration elapsed) {
+        this.options = options;
+        this.endpoints = endpoints;
+        this.scenarios = scenarios;
+        this.elapsed = elapsed;
+    }
+    
+    void print(PrintStream out) {
+        double seconds = elapsed.toMillis() / 1000.0;
+        out.printf("%nCarga: %.1f sesiones/s durante %.1f s (%s)%n", options.rate(), seconds, options.baseUrl());
+        out.printf("%n%-10s %10s %10s %10s %12s%n", "Escenario", "sesiones", "completas", "fallidas", "descartadas");
+        scenarios.forEach((name, counters) -> out.printf("%-10s %10d %10d %10d %12d%n", name,
+                counters.started.sum(), counters.completed.sum(), counters.failed.sum(), counters.dropped.sum()));
+    
+        out.printf("%n%-26s %9s %8s %8s %9s %9s %9s %9s%n", "Endpoint", "llamadas", "errores", "req/s",
+                "p50 ms", "p99 ms", "p99.9 ms", "máx ms");
+        endpoints.forEach((endpoint, stats) -> {
+            Histogram latency = stats.latency();
+            long errors = stats.errorCount();
+            out.printf("%-26s %9d %8d %8.1f %9.1f %9.1f %9.1f %9.1f%n", endpoint,
+                    latency.getTotalCount() + errors, errors, (latency.getTotalCount() + errors) / seconds,
+                    millis(latency, 50), millis(latency, 99), millis(latency, 99.9),
+                    latency.getMaxValue() / 1000.0);
+        });
+        endpoints.forEach((endpoint, stats) -> {
+            if (stats.errorCount() > 0) {
+                out.printf("  %s: %s%n", endpoint, stats.errorsByCause().entrySet().stream()
+                        .map(entry -> entry.getKey() + " x" + entry.getValue())
+                        .collect(Collectors.joining(", ")));
+            }
+        });
+    }
+    
+    void write(ApiClient api) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("baseUrl", options.baseUrl());
+        report.put("rate", options.rate());
+        report.put("durationSeconds", elapsed.toMillis() / 1000.0);
+        report.put("mix", options.mix());
+    
+        Map<String, Object> sessions = new LinkedHashMap<>();
+        scenarios.forEach((name, counters) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("started", counters.started.sum());
+            entry.put("completed", counters.completed.sum());
+            entry.put("failed", counters.failed.sum());
+            entry.put("dropped", counters.dropped.sum());
+            sessions.put(name, entry);
+        });
+        report.put("scenarios", sessions);
+    
+        Map<String, Object> calls = new LinkedHashMap<>();
+        endpoints.forEach((endpoint, stats) -> {
+            Histogram latency = stats.latency();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("count", latency.getTotalCount() + stats.errorCount());
+            entry.put("errors", stats.errorCount());
+            entry.put("errorsByCause", stats.errorsByCause());
+            entry.put("meanMs", latency.getMean() / 1000.0);
+            entry.put("p50Ms", millis(latency, 50));
+            entry.put("p90Ms", millis(latency, 90));
+            entry.put("p99Ms", millis(latency, 99));
+            entry.put("p999Ms", millis(latency, 99.9));
+            entry.put("maxMs", latency.getMaxValue() / 1000.0);
+            calls.put(endpoint, entry);
+        });
+        report.put("endpoints", calls);
+    
+        Path out = options.out();
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        api.mapper().writerWithDefaultPrettyPrinter().writeValue(out.toFile(), report);
+    }
+    
+    private static double millis(Histogram latency, double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,54 @@
+package com.huertohogar.loadtest;
+
+import java.time.Duration;
+
+// Punto de entrada: descubre datos, calienta, mide y reporta
+public final class LoadTest {
+    
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+    
+    private LoadTest() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Uso: --base-url URL --rate SESIONES_POR_S --warmup 15s --duration 60s "
+                    + "--mix " + LoadTestOptions.DEFAULT_MIX + " --users N --products N --tokens N "
+                    + "--max-in-flight N --seed N --out ARCHIVO.json");
+            System.exit(2);
+            return;
+        }
+    
+        ApiClient api = new ApiClient(options.baseUrl());
+        TestData data = TestData.discover(api, options);
+        System.out.printf("Catálogo: %d productos; %d clientes activos con sesión de un total de %d%n",
+                data.productCount(), data.tokenCount(), options.users());
+    
+        OpenModelDriver driver = new OpenModelDriver(new Scenarios(api, data, options.password()).all(),
+                options.mix(), options.rate(), options.maxInFlight(), options.seed());
+    
+        // El calentamiento lleva la JIT, las cachés y el pool de conexiones a régimen; no se registra
+        if (!options.warmup().isZero()) {
+            System.out.printf("Calentando %d s...%n", options.warmup().toSeconds());
+            driver.run(options.warmup(), false);
+        }
+    
+        System.out.printf("Midiendo %d s a %.1f sesiones/s...%n", options.duration().toSeconds(), options.rate());
+        long start = System.nanoTime();
+        driver.run(options.duration(), true);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        if (!driver.awaitIdle(DRAIN_TIMEOUT)) {
+            System.out.printf("Quedaron %d sesiones sin terminar tras %d s%n", driver.inFlight(),
+                    DRAIN_TIMEOUT.toSeconds());
+        }
+    
+        LoadReport report = new LoadReport(options, api.stats(), driver.counters(), elapsed);
+        report.print(System.out);
+        report.write(api);
+        System.out.println("\nResultado: " + options.out().toAbsolutePath());
+    }
+}
@@ -0,0 +1,115 @@
+package com.huertohogar.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Opciones de línea de comandos: --clave=valor o --clave valor
+record LoadTestOptions(
+        String baseUrl,
+        double rate,
+        Duration warmup,
+        Duration duration,
+        Map<String, Integer> mix,
+        int users,
+        int products,
+        int tokens,
+        String password,
+        int maxInFlight,
+        long seed,
+        Path out) {
+    
+    static final String DEFAULT_MIX = "navegar=55,buscar=25,comprar=15,login=5";
+    
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("base-url", "http://localhost:8080/api/v1");
+        values.put("rate", "20");
+        values.put("warmup", "15s");
+        values.put("duration", "60s");
+        values.put("mix", DEFAULT_MIX);
+        values.put("users", "1000");
+        values.put("products", "2000");
+        values.put("tokens", "100");
+        values.put("password", "huerto123");
+        values.put("max-in-flight", "1000");
+        values.put("seed", "42");
+        values.put("out", "target/loadtest-result.json");
+    
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Argumento inesperado: " + args[i]);
+            }
+            String key = args[i].substring(2);
+            String value;
+            int equals = key.indexOf('=');
+            if (equals >= 0) {
+                value = key.substring(equals + 1);
+                key = key.substring(0, equals);
+            } else if (i + 1 < args.length) {
+                value = args[++i];
+            } else {
+                throw new IllegalArgumentException("Falta el valor de --" + key);
+            }
+            if (!values.containsKey(key)) {
+                throw new IllegalArgumentException("Opción desconocida: --" + key);
+            }
+            values.put(key, value);
+        }
+    
+        LoadTestOptions options = new LoadTestOptions(
+                values.get("base-url").replaceAll("/+$", ""),
+                Double.parseDouble(values.get("rate")),
+                duration(values.get("warmup")),
+                duration(values.get("duration")),
+                mix(values.get("mix")),
+                Integer.parseInt(values.get("users")),
+                Integer.parseInt(values.get("products")),
+                Integer.parseInt(values.get("tokens")),
+                values.get("password"),
+                Integer.parseInt(values.get("max-in-flight")),
+                Long.parseLong(values.get("seed")),
+                Path.of(values.get("out")));
+        if (options.rate <= 0 || options.users < 1 || options.products < 1 || options.tokens < 1
+                || options.maxInFlight < 1) {
+            throw new IllegalArgumentException("rate, users, products, tokens y max-in-flight deben ser positivos");
+        }
+        return options;
+    }
+    
+    // 90s, 2m, 500ms o segundos sin unidad
+    static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+    
+    static Map<String, Integer> mix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mezcla inválida, se espera escenario=peso: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("El peso no puede ser negativo: " + entry);
+            }
+            if (weight > 0) {
+                mix.put(parts[0].trim(), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla no tiene escenarios con peso");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,124 @@
+package com.huertohogar.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+// Modelo abierto: las sesiones llegan como proceso de Poisson a la tasa pedida, sin esperar a que
+// terminen las anteriores. Un servidor lento acumula sesiones en vuelo en vez de frenar la carga
+final class OpenModelDriver {
+    
+    private final Map<String, Function<Session, CompletableFuture<?>>> scenarios;
+    private final String[] names;
+    private final double[] cumulative;
+    private final double rate;
+    private final int maxInFlight;
+    private final SplittableRandom random;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<String, Counters> counters = new LinkedHashMap<>();
+    
+    OpenModelDriver(Map<String, Function<Session, CompletableFuture<?>>> scenarios, Map<String, Integer> mix,
+                    double rate, int maxInFlight, long seed) {
+        this.scenarios = scenarios;
+        this.rate = rate;
+        this.maxInFlight = maxInFlight;
+        this.random = new SplittableRandom(seed);
+        this.names = mix.keySet().toArray(String[]::new);
+        this.cumulative = new double[names.length];
+        double total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        double sum = 0;
+        for (int i = 0; i < names.length; i++) {
+            if (!scenarios.containsKey(names[i])) {
+                throw new IllegalArgumentException("Escenario desconocido: " + names[i]
+                        + "; disponibles: " + String.join(", ", scenarios.keySet()));
+            }
+            sum += mix.get(names[i]) / total;
+            cumulative[i] = sum;
+            counters.put(names[i], new Counters());
+        }
+    }
+    
+    void run(Duration duration, boolean measured) {
+        long end = System.nanoTime() + duration.toNanos();
+        long next = System.nanoTime();
+        while (true) {
+            // Tiempos entre llegadas exponenciales; si el generador se atrasa, las llegadas vencidas salen de inmediato
+            next += (long) (-Math.log(1 - random.nextDouble()) / rate * TimeUnit.SECONDS.toNanos(1));
+            if (next >= end) {
+                return;
+            }
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            start(pick(), next, measured);
+        }
+    }
+    
+    // Espera a que terminen las sesiones en vuelo; cuentan en la medición aunque terminen después de la ventana
+    boolean awaitIdle(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        return true;
+    }
+    
+    int inFlight() {
+        return inFlight.get();
+    }
+    
+    Map<String, Counters> counters() {
+        return counters;
+    }
+    
+    private void start(String name, long scheduledStart, boolean measured) {
+        // Lo del calentamiento va a contadores que nadie lee; el reporte solo incluye sesiones medidas
+        Counters scenario = measured ? counters.get(name) : new Counters();
+        // Sobre el tope de sesiones en vuelo el generador se quedaría sin memoria antes que el servidor
+        if (inFlight.get() >= maxInFlight) {
+            scenario.dropped.increment();
+            return;
+        }
+        inFlight.incrementAndGet();
+        scenario.started.increment();
+        CompletableFuture<?> session;
+        try {
+            session = scenarios.get(name).apply(new Session(measured, scheduledStart));
+        } catch (RuntimeException e) {
+            session = CompletableFuture.failedFuture(e);
+        }
+        session.whenComplete((result, failure) -> {
+            (failure == null ? scenario.completed : scenario.failed).increment();
+            inFlight.decrementAndGet();
+        });
+    }
+    
+    private String pick() {
+        double roll = random.nextDouble();
+        for (int i = 0; i < cumulative.length - 1; i++) {
+            if (roll < cumulative[i]) {
+                return names[i];
+            }
+        }
+        return names[names.length - 1];
+    }
+    
+    static final class Counters {
+    
+        final LongAdder started = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+    }
+}
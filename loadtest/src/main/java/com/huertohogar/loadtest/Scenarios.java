@@ -0,0 +1,123 @@
+package com.huertohogar.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+// Recorridos de la app, cada uno una cadena de llamadas que depende de la respuesta anterior
+final class Scenarios {
+    
+    static final String LIST = "GET /products";
+    static final String DETAIL = "GET /products/{id}";
+    static final String SEARCH = "GET /products/search";
+    static final String REVIEWS = "GET /reviews/product/{id}";
+    static final String LOGIN = "POST /auth/login";
+    static final String ORDER = "POST /orders";
+    static final String PAYMENT = "POST /payments/process";
+    
+    private static final String[] PAYMENT_METHODS = {"credit_card", "credit_card", "debit_card", "transfer", "cash"};
+    private static final String[][] ADDRESSES = {
+            {"Av. Providencia 1234", "Santiago", "Región Metropolitana"},
+            {"Av. Brasil 456", "Valparaíso", "Región de Valparaíso"},
+            {"Calle O'Higgins 890", "Concepción", "Región del Biobío"},
+            {"Av. Alemania 80", "Temuco", "Región de La Araucanía"},
+            {"Calle Uno Sur 321", "Talca", "Región del Maule"}
+    };
+    
+    private final ApiClient api;
+    private final TestData data;
+    private final String password;
+    
+    Scenarios(ApiClient api, TestData data, String password) {
+        this.api = api;
+        this.data = data;
+        this.password = password;
+    }
+    
+    Map<String, Function<Session, CompletableFuture<?>>> all() {
+        Map<String, Function<Session, CompletableFuture<?>>> scenarios = new LinkedHashMap<>();
+        scenarios.put("navegar", this::browse);
+        scenarios.put("buscar", this::search);
+        scenarios.put("comprar", this::checkout);
+        scenarios.put("login", this::login);
+        return scenarios;
+    }
+    
+    // Catálogo, ficha de un producto y sus reseñas
+    private CompletableFuture<?> browse(Session session) {
+        String cursor = data.pageCursor();
+        String productId = data.popularProduct();
+        String token = data.token();
+        return api.get(session, LIST, "/products?limit=" + TestData.PAGE_SIZE
+                        + (cursor == null ? "" : "&cursor=" + ApiClient.encode(cursor)), null)
+                .thenCompose(page -> api.get(session, DETAIL, "/products/" + productId, null))
+                .thenCompose(product -> api.get(session, REVIEWS, "/reviews/product/" + productId, token));
+    }
+    
+    // Búsqueda y, si hubo resultados, la ficha de uno de los primeros
+    private CompletableFuture<?> search(Session session) {
+        return api.get(session, SEARCH, "/products/search?query=" + ApiClient.encode(data.searchTerm())
+                        + "&page=0&size=" + TestData.PAGE_SIZE, null)
+                .thenCompose(results -> {
+                    JsonNode hits = results.path("data");
+                    if (hits.isEmpty()) {
+                        return CompletableFuture.completedFuture(results);
+                    }
+                    int pick = ThreadLocalRandom.current().nextInt(Math.min(hits.size(), 5));
+                    return api.get(session, DETAIL, "/products/" + hits.get(pick).path("id").asText(), null);
+                });
+    }
+    
+    // Login, carrito de uno a cuatro productos, pedido y pago por el total que devolvió el pedido
+    private CompletableFuture<?> checkout(Session session) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Map<String, Object>> items = new ArrayList<>();
+        int lines = 1 + random.nextInt(4);
+        for (int i = 0; i < lines; i++) {
+            String productId = data.popularProduct();
+            if (items.stream().noneMatch(item -> item.get("productId").equals(productId))) {
+                items.add(Map.of("productId", productId, "quantity", 1 + random.nextInt(3)));
+            }
+        }
+        String[] address = ADDRESSES[random.nextInt(ADDRESSES.length)];
+        String method = PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)];
+    
+        return api.post(session, LOGIN, "/auth/login", credentials(data.email()), null)
+                .thenCompose(auth -> {
+                    String token = auth.path("data").path("token").asText();
+                    Map<String, Object> order = Map.of("items", items, "shippingAddress", address[0],
+                            "city", address[1], "region", address[2]);
+                    return api.post(session, ORDER, "/orders", order, token)
+                            .thenCompose(created -> api.post(session, PAYMENT, "/payments/process",
+                                    payment(created.path("data"), method), token));
+                });
+    }
+    
+    private CompletableFuture<?> login(Session session) {
+        return api.post(session, LOGIN, "/auth/login", credentials(data.email()), null);
+    }
+    
+    private Map<String, Object> credentials(String email) {
+        return Map.of("email", email, "password", password);
+    }
+    
+    private static Map<String, Object> payment(JsonNode order, String method) {
+        Map<String, Object> payment = new LinkedHashMap<>();
+        payment.put("orderId", order.path("orderId").asText());
+        payment.put("amount", order.path("totalAmount").asDouble());
+        payment.put("paymentMethod", method);
+        if (method.endsWith("_card")) {
+            payment.put("cardNumber", "4111111111111111");
+            payment.put("cardHolder", "Cliente HuertoHogar");
+            payment.put("expiryDate", "12/30");
+            payment.put("cvv", "123");
+        }
+        return payment;
+    }
+}
@@ -0,0 +1,26 @@
+package com.huertohogar.loadtest;
+
+// Una visita de un usuario: sus pasos van en serie, las visitas llegan independientes entre sí
+final class Session {
+    
+    private final boolean measured;
+    private long scheduledStart;
+    
+    Session(boolean measured, long scheduledStart) {
+        this.measured = measured;
+        this.scheduledStart = scheduledStart;
+    }
+    
+    // Las sesiones del calentamiento no cuentan aunque terminen dentro de la ventana medida
+    boolean measured() {
+        return measured;
+    }
+    
+    // El primer paso se mide desde la llegada programada, no desde el envío: si el generador
+    // o el servidor se atrasan, ese atraso aparece en la latencia en vez de esconderse
+    synchronized long start() {
+        long start = scheduledStart != 0 ? scheduledStart : System.nanoTime();
+        scheduledStart = 0;
+        return start;
+    }
+}
@@ -0,0 +1,144 @@
+package com.huertohogar.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Catálogo y sesiones descubiertos contra el backend antes de medir
+final class TestData {
+    
+    static final int PAGE_SIZE = 20;
+    private static final double PRODUCT_SKEW = 1.0;
+    
+    private final List<String> productIds;
+    private final List<String> productNames;
+    private final List<String> pageCursors;
+    private final List<String> tokens;
+    private final List<String> emails;
+    private final double[] popularity;
+    
+    private TestData(List<String> productIds, List<String> productNames, List<String> pageCursors,
+                     List<String> emails, List<String> tokens) {
+        this.productIds = productIds;
+        this.productNames = productNames;
+        this.pageCursors = pageCursors;
+        this.emails = emails;
+        this.tokens = tokens;
+        // CDF de Zipf sobre el orden del catálogo: el generador sintético reparte la popularidad en ese mismo orden
+        this.popularity = new double[productIds.size()];
+        double sum = 0;
+        for (int i = 0; i < popularity.length; i++) {
+            sum += 1 / Math.pow(i + 1, PRODUCT_SKEW);
+            popularity[i] = sum;
+        }
+        for (int i = 0; i < popularity.length; i++) {
+            popularity[i] /= sum;
+        }
+    }
+    
+    static TestData discover(ApiClient api, LoadTestOptions options) throws IOException {
+        List<String> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<String> cursors = new ArrayList<>();
+        String cursor = null;
+        do {
+            String path = "/products?limit=" + PAGE_SIZE + (cursor == null ? "" : "&cursor=" + ApiClient.encode(cursor));
+            HttpResponse<byte[]> response = api.call("GET", path, null, null);
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("No se pudo leer el catálogo: HTTP " + response.statusCode());
+            }
+            for (JsonNode product : api.read(response.body()).path("data")) {
+                ids.add(product.path("id").asText());
+                names.add(product.path("name").asText());
+            }
+            cursor = response.headers().firstValue("X-Next-Cursor").orElse(null);
+            if (cursor != null) {
+                cursors.add(cursor);
+            }
+        } while (cursor != null && ids.size() < options.products());
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("El catálogo está vacío; levanta el backend con el perfil synthetic");
+        }
+    
+        // Un grupo de clientes al azar con sesión ya abierta para las lecturas autenticadas. El dataset
+        // sintético trae clientes inactivos: se saltan aquí para que su 400 no aparezca como error de la corrida
+        List<String> emails = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(options.seed());
+        int wanted = Math.min(options.tokens(), options.users());
+        for (int attempt = 0; tokens.size() < wanted && attempt < wanted * 2; attempt++) {
+            String email = customerEmail(random.nextInt(options.users()));
+            if (emails.contains(email)) {
+                continue;
+            }
+            HttpResponse<byte[]> response = api.call("POST", "/auth/login",
+                    Map.of("email", email, "password", options.password()), null);
+            if (response.statusCode() == 200) {
+                emails.add(email);
+                tokens.add(api.read(response.body()).path("data").path("token").asText());
+            }
+        }
+        if (tokens.isEmpty()) {
+            throw new IllegalStateException("Ningún login funcionó; ¿el backend usa el perfil synthetic?");
+        }
+        return new TestData(ids, names, cursors, emails, tokens);
+    }
+    
+    static String customerEmail(int user) {
+        return "cliente" + user + "@correo.cl";
+    }
+    
+    String popularProduct() {
+        return productIds.get(popularIndex());
+    }
+    
+    // Casi todos se quedan en la primera página; pocos avanzan más allá de la tercera
+    String pageCursor() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int page = 0;
+        while (page < pageCursors.size() && random.nextInt(100) < 35) {
+            page++;
+        }
+        return page == 0 ? null : pageCursors.get(page - 1);
+    }
+    
+    // Lo que escribe la gente: el nombre de un producto popular, a veces a medias o algo que no vendemos
+    String searchTerm() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        if (roll < 5) {
+            return "kombucha";
+        }
+        String word = productNames.get(popularIndex()).split(" ")[0].toLowerCase(Locale.ROOT);
+        return roll < 20 && word.length() > 4 ? word.substring(0, 4) : word;
+    }
+    
+    String token() {
+        return tokens.get(ThreadLocalRandom.current().nextInt(tokens.size()));
+    }
+    
+    String email() {
+        return emails.get(ThreadLocalRandom.current().nextInt(emails.size()));
+    }
+    
+    int productCount() {
+        return productIds.size();
+    }
+    
+    int tokenCount() {
+        return tokens.size();
+    }
+    
+    private int popularIndex() {
+        int index = Arrays.binarySearch(popularity, ThreadLocalRandom.current().nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, popularity.length - 1);
+    }
+}